@@ -0,0 +1,120 @@
+package com.fw.irongate.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import com.fw.irongate.usecases.stream_dashboard.DashboardBinaryCodec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Cost of fanning one dashboard event (with a chart delta) out to <code>connections</code>
+ * connections, per protocol:<br>
+ * - sse: the event is serialized to JSON once, then every connection writes the SSE frame through
+ * the message converter, as SseEmitter does.<br>
+ * - websocket: the event is encoded to binary once, then every connection copies the frame.<br>
+ * Both write into in-memory outputs: WebSocket/HTTP framing, TLS and the network are not part of
+ * the measurement. The bytes per event of each protocol are printed in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardFanOutBenchmark {
+
+  @Param({"1000", "5000"})
+  private int connections;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final StringHttpMessageConverter converter =
+      new StringHttpMessageConverter(StandardCharsets.UTF_8);
+  private DashboardEventDTO event;
+  private long sequence;
+
+  @Setup
+  public void setUp() throws IOException {
+    event =
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, UUID.randomUUID(), 3)
+            .withDelta(
+                new ChartDeltaDTO(
+                    1042,
+                    List.of(
+                        new ChartDataDTO("PENDING", 12.0),
+                        new ChartDataDTO("PROCESSING", 7.0),
+                        new ChartDataDTO("DELIVERED", 31.0)),
+                    null,
+                    null,
+                    null));
+    MockHttpOutputMessage sse = new MockHttpOutputMessage();
+    writeSse(sseFrame(1000), sse);
+    System.out.printf(
+        "%nbytes per event: sse %d, websocket %d%n",
+        sse.getBodyAsBytes().length, DashboardBinaryCodec.encodeEvent(1000, event).remaining());
+  }
+
+  @Benchmark
+  public long sse() throws IOException {
+    Set<DataWithMediaType> frame = sseFrame(++sequence);
+    long written = 0;
+    for (int i = 0; i < connections; i++) {
+      MockHttpOutputMessage out = new MockHttpOutputMessage();
+      writeSse(frame, out);
+      written += out.getBodyAsBytes().length;
+    }
+    return written;
+  }
+
+  @Benchmark
+  public long websocket() throws IOException {
+    ByteBuffer frame = DashboardBinaryCodec.encodeEvent(++sequence, event);
+    long written = 0;
+    for (int i = 0; i < connections; i++) {
+      MockHttpOutputMessage out = new MockHttpOutputMessage();
+      ByteBuffer payload = frame.duplicate();
+      byte[] bytes = new byte[payload.remaining()];
+      payload.get(bytes);
+      out.getBody().write(bytes);
+      written += out.getBodyAsBytes().length;
+    }
+    return written;
+  }
+
+  private Set<DataWithMediaType> sseFrame(long id) throws IOException {
+    return SseEmitter.event()
+        .id("m1abcdef-" + id)
+        .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+        .build();
+  }
+
+  private void writeSse(Set<DataWithMediaType> frame, MockHttpOutputMessage out)
+      throws IOException {
+    for (DataWithMediaType item : frame) {
+      converter.write((String) item.getData(), item.getMediaType(), out);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.fw.irongate.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.utils.JwtUtil;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Throughput of {@link JwtUtil#validateJwt(String)}:<br>
+ * - uncached: claims cache disabled, every call verifies the HMAC and re-parses the claims (the
+ * behavior before the cache existed).<br>
+ * - cached: the same cookie presented repeatedly, as on a dashboard session.<br>
+ * - rotating: more distinct tokens than the cache holds, so every call misses, verifies and
+ * evicts; this is the worst case for the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+  private static final String SECRET = "benchmark-secret-that-is-at-least-32-chars-long";
+  private static final String ISSUER = "iron-gate";
+  private static final int CACHE_SIZE = 1024;
+
+  private JwtUtil uncachedJwtUtil;
+  private JwtUtil cachedJwtUtil;
+  private String token;
+  private String[] rotatingTokens;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    uncachedJwtUtil = newJwtUtil(0);
+    cachedJwtUtil = newJwtUtil(CACHE_SIZE);
+    token = newToken(uncachedJwtUtil);
+    rotatingTokens = new String[CACHE_SIZE * 4];
+    for (int i = 0; i < rotatingTokens.length; i++) {
+      rotatingTokens[i] = newToken(uncachedJwtUtil);
+    }
+  }
+
+  @Benchmark
+  public JwtClaimDTO uncached() {
+    return uncachedJwtUtil.validateJwt(token);
+  }
+
+  @Benchmark
+  public JwtClaimDTO cached() {
+    return cachedJwtUtil.validateJwt(token);
+  }
+
+  @Benchmark
+  public JwtClaimDTO rotating() {
+    next = (next + 1) % rotatingTokens.length;
+    return cachedJwtUtil.validateJwt(rotatingTokens[next]);
+  }
+
+  private static JwtUtil newJwtUtil(int cacheSize) {
+    JwtUtil jwtUtil =
+        new JwtUtil(JWT.require(Algorithm.HMAC256(SECRET)).withIssuer(ISSUER).build());
+    ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+    ReflectionTestUtils.setField(jwtUtil, "issuer", ISSUER);
+    ReflectionTestUtils.setField(jwtUtil, "expiryInMillisecond", TimeUnit.HOURS.toMillis(1));
+    ReflectionTestUtils.setField(jwtUtil, "claimsCacheSize", cacheSize);
+    return jwtUtil;
+  }
+
+  private static String newToken(JwtUtil jwtUtil) {
+    return jwtUtil.generateJwt(
+        UUID.randomUUID().toString(),
+        "bench@mail.com",
+        UUID.randomUUID().toString(),
+        "Area Manager",
+        "Bench Mark");
+  }
+}
@@ -0,0 +1,59 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.utils.TokenDigest;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over {@link TokenDigest}.<br>
+ * The digest is already a uniformly distributed hash, so the k probe positions are derived with
+ * double hashing (h1 + i * h2) instead of rehashing the token k times.
+ */
+class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    int words = (int) Math.max(1, (m + 63) >>> 6);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words << 6;
+    this.hashCount = (int) Math.max(1, Math.round((double) bitCount / n * Math.log(2)));
+  }
+
+  void put(TokenDigest digest) {
+    long h1 = digest.w0();
+    long h2 = digest.w1() | 1;
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(h1 + i * h2, bitCount);
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current;
+      do {
+        current = bits.get(word);
+        if ((current & mask) != 0) {
+          break;
+        }
+      } while (!bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  boolean mightContain(TokenDigest digest) {
+    long h1 = digest.w0();
+    long h2 = digest.w1() | 1;
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(h1 + i * h2, bitCount);
+      if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Theoretical false-positive probability after {@code insertions} insertions. */
+  double expectedFalsePositiveRate(long insertions) {
+    return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitCount), hashCount);
+  }
+}
@@ -0,0 +1,90 @@
+package com.fw.irongate.caches;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bridges Hibernate post-commit entity events to Spring {@link EntityChangedEvent}s, so the
+ * in-memory caches can drop their snapshot only once the change is visible to other
+ * transactions.<br>
+ * Bulk JPQL/native updates bypass Hibernate events; those callers must publish the event
+ * themselves.
+ */
+@Component
+public class EntityChangePublisher
+    implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final ApplicationEventPublisher applicationEventPublisher;
+
+  public EntityChangePublisher(
+      EntityManagerFactory entityManagerFactory,
+      ApplicationEventPublisher applicationEventPublisher) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.applicationEventPublisher = applicationEventPublisher;
+  }
+
+  @PostConstruct
+  void register() {
+    EventListenerRegistry registry =
+        entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+    registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    applicationEventPublisher.publishEvent(
+        new EntityChangedEvent(event.getEntity().getClass(), event.getId(), event.getEntity()));
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    applicationEventPublisher.publishEvent(
+        new EntityChangedEvent(event.getEntity().getClass(), event.getId(), event.getEntity()));
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    applicationEventPublisher.publishEvent(
+        new EntityChangedEvent(event.getEntity().getClass(), event.getId(), null));
+  }
+
+  @Override
+  public void onPostInsertCommitFailed(PostInsertEvent event) {
+    /* Nothing was committed, nothing to invalidate */
+  }
+
+  @Override
+  public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    /* Nothing was committed, nothing to invalidate */
+  }
+
+  @Override
+  public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    /* Nothing was committed, nothing to invalidate */
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return true;
+  }
+}
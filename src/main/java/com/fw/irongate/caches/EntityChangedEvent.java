@@ -0,0 +1,14 @@
+package com.fw.irongate.caches;
+
+/**
+ * Published after a transaction that inserted, updated or deleted an entity has committed.<br>
+ * <code>entity</code> is the committed state, or null for deletions and for changes that were
+ * not observed through Hibernate. <code>entityType</code> and <code>id</code> are null when the
+ * whole cache should be considered stale.
+ */
+public record EntityChangedEvent(Class<?> entityType, Object id, Object entity) {
+
+  public boolean concerns(Class<?> type) {
+    return entityType == null || entityType.equals(type);
+  }
+}
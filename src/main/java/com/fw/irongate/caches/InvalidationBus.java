@@ -0,0 +1,243 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.entities.Permission;
+import com.fw.irongate.models.entities.Product;
+import com.fw.irongate.models.entities.RevokedToken;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.utils.PgListenConnection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cluster-wide invalidation of the node-local caches over Postgres <code>LISTEN/NOTIFY</code>.<br>
+ * (1) Publish: every committed change to a cached entity type is sent as
+ * <code>pg_notify('irongate_invalidation', '&lt;node&gt;|&lt;type&gt;|&lt;id&gt;')</code>. This runs
+ * on a single publisher thread, outside the committing transaction, so the request thread does not
+ * pay for the round trip.<br>
+ * (2) Listen: a dedicated connection (not taken from the pool) runs <code>LISTEN</code>. Messages
+ * from other nodes are re-published locally as {@link EntityChangedEvent}s without the entity
+ * state, which the caches already treat as "re-read this id". Revoked tokens travel the same way,
+ * so a logout on one node is rejected by every node.<br>
+ * (3) Resync: notifications sent while the listener is disconnected are lost. After every
+ * (re)connect the bus therefore publishes a type-less event and every cache reloads.
+ */
+@Component
+public class InvalidationBus {
+
+  static final String CHANNEL = "irongate_invalidation";
+  private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+  private static final Map<String, Class<?>> TYPES =
+      Stream.of(
+              Permission.class,
+              Sysconfig.class,
+              Warehouse.class,
+              WarehouseUser.class,
+              Product.class,
+              User.class,
+              RevokedToken.class)
+          .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+  private final ThreadLocal<Boolean> applyingRemote = ThreadLocal.withInitial(() -> false);
+  private final String nodeId = UUID.randomUUID().toString();
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSourceProperties dataSourceProperties;
+  private final ApplicationEventPublisher applicationEventPublisher;
+  private final boolean enabled;
+  private final int pollTimeoutInMillisecond;
+  private final long reconnectBackoffInMillisecond;
+  private final ThreadPoolExecutor publisher;
+  private final Counter published;
+  private final Counter received;
+  private final Counter dropped;
+  private final Counter reconnects;
+  private volatile boolean running;
+  private Thread listener;
+
+  public InvalidationBus(
+      JdbcTemplate jdbcTemplate,
+      DataSourceProperties dataSourceProperties,
+      ApplicationEventPublisher applicationEventPublisher,
+      MeterRegistry meterRegistry,
+      @Value("${invalidation_bus.enabled:true}") boolean enabled,
+      @Value("${invalidation_bus.poll_timeout_in_millisecond:500}") int pollTimeoutInMillisecond,
+      @Value("${invalidation_bus.reconnect_backoff_in_millisecond:1000}")
+          long reconnectBackoffInMillisecond,
+      @Value("${invalidation_bus.queue_capacity:10000}") int queueCapacity) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSourceProperties = dataSourceProperties;
+    this.applicationEventPublisher = applicationEventPublisher;
+    this.enabled = enabled;
+    this.pollTimeoutInMillisecond = pollTimeoutInMillisecond;
+    this.reconnectBackoffInMillisecond = reconnectBackoffInMillisecond;
+    this.publisher =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "invalidation-publisher");
+              thread.setDaemon(true);
+              return thread;
+            },
+            (runnable, executor) -> onPublishRejected());
+    this.published = messageCounter(meterRegistry, "published");
+    this.received = messageCounter(meterRegistry, "received");
+    this.dropped = messageCounter(meterRegistry, "dropped");
+    this.reconnects = meterRegistry.counter("irongate.invalidation.reconnects");
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    running = true;
+    listener = new Thread(this::listen, "invalidation-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    publisher.shutdown();
+    if (listener != null) {
+      listener.join(pollTimeoutInMillisecond * 4L);
+    }
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  @EventListener
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (!running || applyingRemote.get() || event.entityType() == null) {
+      return;
+    }
+    String type = event.entityType().getSimpleName();
+    if (TYPES.get(type) != event.entityType() || !(event.id() instanceof UUID id)) {
+      return;
+    }
+    String payload = nodeId + "|" + type + "|" + id;
+    publisher.execute(() -> notify(payload));
+  }
+
+  private void notify(String payload) {
+    try {
+      jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+      published.increment();
+    } catch (DataAccessException e) {
+      dropped.increment();
+      log.warn("Failed to publish invalidation {}: {}", payload, e.getMessage());
+    }
+  }
+
+  private void onPublishRejected() {
+    dropped.increment();
+    if (running) {
+      log.warn("Invalidation queue is full, dropping message");
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection =
+          PgListenConnection.open(dataSourceProperties, "irongate-invalidation-" + nodeId)) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        log.info("Listening for cache invalidations on {} as node {}", CHANNEL, nodeId);
+        /* anything sent before LISTEN took effect was missed */
+        apply(new EntityChangedEvent(null, null, null));
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutInMillisecond);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              onNotification(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (!running) {
+          return;
+        }
+        reconnects.increment();
+        log.warn("Invalidation listener disconnected, reconnecting: {}", e.getMessage());
+        try {
+          Thread.sleep(reconnectBackoffInMillisecond);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void onNotification(String payload) {
+    String[] parts = payload.split("\\|", 3);
+    if (parts.length != 3 || parts[0].equals(nodeId)) {
+      return;
+    }
+    Class<?> type = TYPES.get(parts[1]);
+    if (type == null) {
+      return;
+    }
+    UUID id;
+    try {
+      id = UUID.fromString(parts[2]);
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring malformed invalidation {}", payload);
+      return;
+    }
+    received.increment();
+    apply(new EntityChangedEvent(type, id, null));
+  }
+
+  private void apply(EntityChangedEvent event) {
+    applyingRemote.set(true);
+    try {
+      applicationEventPublisher.publishEvent(event);
+    } catch (RuntimeException e) {
+      /* a failing cache must not stop the listener */
+      log.error("Failed to apply invalidation {}", event, e);
+    } finally {
+      applyingRemote.set(false);
+    }
+  }
+
+  private static Counter messageCounter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("irongate.invalidation.messages")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
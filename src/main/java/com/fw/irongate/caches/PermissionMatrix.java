@@ -0,0 +1,143 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.dto.PermissionDTO;
+import com.fw.irongate.models.entities.Permission;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.repositories.PermissionRepository;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compiled role x resource-path matrix built from {@link PermissionRepository#findAllActive()}.
+ * <br>
+ * Every role gets a bit index; every resource path is inserted segment by segment into a trie
+ * whose terminal nodes hold a {@link BitSet} of the roles allowed to call it. A segment written
+ * as <code>{name}</code> matches any single non-empty segment, e.g. <code>/api/order/{id}</code>.
+ * <br>
+ * The compiled snapshot is immutable. A permission or sysconfig change bumps the generation and
+ * the next lookup recompiles and swaps it in.
+ */
+@Component
+public class PermissionMatrix {
+
+  private final PermissionRepository permissionRepository;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Snapshot snapshot = new Snapshot(-1, Map.of(), new Node(), List.of());
+
+  public PermissionMatrix(PermissionRepository permissionRepository) {
+    this.permissionRepository = permissionRepository;
+  }
+
+  public boolean isAllowed(UUID roleId, String uri) {
+    Snapshot current = current();
+    Integer roleIndex = current.roleIndexes().get(roleId);
+    if (roleIndex == null) {
+      return false;
+    }
+    String[] segments = uri.split("/", -1);
+    return current.root().matches(segments, 1, roleIndex);
+  }
+
+  /** Active permissions grouped by role name, both levels sorted. */
+  public List<PermissionDTO> getPermissions() {
+    return current().permissions();
+  }
+
+  /* before listeners that re-read this cache, e.g. StreamDashboardUseCase */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (event.concerns(Permission.class) || event.concerns(Sysconfig.class)) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current.generation() == generation.get()) {
+      return current;
+    }
+    synchronized (this) {
+      long target = generation.get();
+      if (snapshot.generation() != target) {
+        snapshot = compile(target);
+      }
+      return snapshot;
+    }
+  }
+
+  private Snapshot compile(long target) {
+    Map<UUID, Integer> roleIndexes = new HashMap<>();
+    Node root = new Node();
+    Map<String, TreeSet<String>> byRoleName = new TreeMap<>();
+    for (Permission permission : permissionRepository.findAllActive()) {
+      Integer roleIndex =
+          roleIndexes.computeIfAbsent(permission.getRole().getId(), k -> roleIndexes.size());
+      String path = permission.getResourcePath().getValue();
+      root.insert(path.split("/", -1), 1).allowed.set(roleIndex);
+      byRoleName.computeIfAbsent(permission.getRole().getValue(), k -> new TreeSet<>()).add(path);
+    }
+    List<PermissionDTO> permissions = new ArrayList<>();
+    byRoleName.forEach(
+        (roleName, paths) -> permissions.add(new PermissionDTO(roleName, List.copyOf(paths))));
+    permissions.sort(Comparator.comparing(PermissionDTO::roleName));
+    return new Snapshot(target, Map.copyOf(roleIndexes), root, List.copyOf(permissions));
+  }
+
+  private record Snapshot(
+      long generation,
+      Map<UUID, Integer> roleIndexes,
+      Node root,
+      List<PermissionDTO> permissions) {}
+
+  private static final class Node {
+
+    private final Map<String, Node> children = new HashMap<>();
+    private final BitSet allowed = new BitSet();
+    private Node wildcard;
+
+    private Node insert(String[] segments, int from) {
+      if (from == segments.length) {
+        return this;
+      }
+      String segment = segments[from];
+      Node next;
+      if (segment.length() > 2 && segment.startsWith("{") && segment.endsWith("}")) {
+        if (wildcard == null) {
+          wildcard = new Node();
+        }
+        next = wildcard;
+      } else {
+        next = children.computeIfAbsent(segment, k -> new Node());
+      }
+      return next.insert(segments, from + 1);
+    }
+
+    /* Literal segments win over templates, but fall back to the template branch on a miss */
+    private boolean matches(String[] segments, int from, int roleIndex) {
+      if (from == segments.length) {
+        return allowed.get(roleIndex);
+      }
+      String segment = segments[from];
+      Node literal = children.get(segment);
+      if (literal != null && literal.matches(segments, from + 1, roleIndex)) {
+        return true;
+      }
+      return wildcard != null
+          && !segment.isEmpty()
+          && wildcard.matches(segments, from + 1, roleIndex);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.entities.RevokedToken;
+import com.fw.irongate.repositories.RevokedTokenRepository;
+import com.fw.irongate.utils.TokenDigest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local index of revoked tokens.<br>
+ * A Bloom filter answers the common "not revoked" case without touching the map; only Bloom
+ * positives are confirmed against the digest set. Entries are kept until the token's own
+ * <code>exp</code>, after which the JWT verifier rejects the token anyway.<br>
+ * The Bloom filter cannot delete, so expired entries are purged from the set periodically and the
+ * filter is rebuilt from what is left.<br>
+ * Revocations committed on other nodes arrive through the {@link InvalidationBus} as a
+ * {@link RevokedToken} id, and the row is read once to index it.
+ */
+@Component
+public class RevokedTokenIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(RevokedTokenIndex.class);
+  private final RevokedTokenRepository revokedTokenRepository;
+  private final Map<TokenDigest, Instant> revoked = new ConcurrentHashMap<>();
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+  private final Counter lookups;
+  private final Counter bloomPositives;
+  private final Counter falsePositives;
+  private volatile BloomFilter bloomFilter;
+  private volatile long bloomInsertions;
+
+  public RevokedTokenIndex(
+      RevokedTokenRepository revokedTokenRepository,
+      MeterRegistry meterRegistry,
+      @Value("${revocation.expected_insertions:100000}") long expectedInsertions,
+      @Value("${revocation.false_positive_rate:0.001}") double falsePositiveRate) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    this.lookups = meterRegistry.counter("irongate.revocation.lookups");
+    this.bloomPositives = meterRegistry.counter("irongate.revocation.bloom.positives");
+    this.falsePositives = meterRegistry.counter("irongate.revocation.bloom.false_positives");
+    Gauge.builder("irongate.revocation.size", revoked, Map::size).register(meterRegistry);
+    Gauge.builder(
+            "irongate.revocation.bloom.false_positive_rate",
+            this,
+            RevokedTokenIndex::observedFpRate)
+        .tag("kind", "observed")
+        .register(meterRegistry);
+    Gauge.builder(
+            "irongate.revocation.bloom.false_positive_rate",
+            this,
+            RevokedTokenIndex::expectedFpRate)
+        .tag("kind", "expected")
+        .register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void load() {
+    List<RevokedToken> active = revokedTokenRepository.findAllByExpiredAtAfter(Instant.now());
+    for (RevokedToken revokedToken : active) {
+      revoked.put(TokenDigest.of(revokedToken.getJwtDigest()), revokedToken.getExpiredAt());
+    }
+    rebuild();
+    log.info("Loaded {} revoked tokens into revocation index", active.size());
+  }
+
+  public synchronized void revoke(TokenDigest digest, Instant expiredAt) {
+    revoked.put(digest, expiredAt);
+    bloomFilter.put(digest);
+    bloomInsertions++;
+  }
+
+  @EventListener
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (event.entityType() == null) {
+      /* the bus missed notifications */
+      load();
+      return;
+    }
+    if (!event.concerns(RevokedToken.class)) {
+      return;
+    }
+    Optional<RevokedToken> revokedToken =
+        event.entity() instanceof RevokedToken committed
+            ? Optional.of(committed)
+            : event.id() instanceof UUID id
+                ? revokedTokenRepository.findById(id)
+                : Optional.empty();
+    revokedToken.ifPresent(
+        token -> revoke(TokenDigest.of(token.getJwtDigest()), token.getExpiredAt()));
+  }
+
+  public boolean isRevoked(TokenDigest digest) {
+    lookups.increment();
+    if (!bloomFilter.mightContain(digest)) {
+      return false;
+    }
+    bloomPositives.increment();
+    Instant expiredAt = revoked.get(digest);
+    if (expiredAt == null) {
+      falsePositives.increment();
+      return false;
+    }
+    return expiredAt.isAfter(Instant.now());
+  }
+
+  public int size() {
+    return revoked.size();
+  }
+
+  @Scheduled(fixedDelayString = "${revocation.purge_interval_in_millisecond:60000}")
+  public void purgeExpired() {
+    Instant now = Instant.now();
+    if (revoked.values().removeIf(expiredAt -> !expiredAt.isAfter(now))) {
+      rebuild();
+    }
+  }
+
+  /* revoke() is synchronized too, so no insertion can fall between the copy and the swap */
+  private synchronized void rebuild() {
+    BloomFilter fresh =
+        new BloomFilter(Math.max(expectedInsertions, 2L * revoked.size()), falsePositiveRate);
+    revoked.keySet().forEach(fresh::put);
+    bloomFilter = fresh;
+    bloomInsertions = revoked.size();
+  }
+
+  private double observedFpRate() {
+    double negatives = lookups.count() - (bloomPositives.count() - falsePositives.count());
+    return negatives <= 0 ? 0 : falsePositives.count() / negatives;
+  }
+
+  private double expectedFpRate() {
+    return bloomFilter.expectedFalsePositiveRate(bloomInsertions);
+  }
+}
@@ -0,0 +1,139 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.models.entities.UserSession;
+import com.fw.irongate.repositories.UserSessionRepository;
+import com.fw.irongate.utils.TokenDigest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local store for opaque sessions, used when <code>auth.mode</code> is <code>SESSION</code>.
+ * <br>
+ * The cookie then carries a 256-bit random id instead of a signed JWT. The id is looked up by its
+ * {@link TokenDigest} (the raw id is never kept), so validation is one hash-map lookup and logout
+ * is one removal, with no revocation list needed.<br>
+ * With <code>auth.session.persistent</code> enabled, sessions are also written to
+ * <code>user_sessions</code> and reloaded at startup.
+ */
+@Component
+public class SessionStore {
+
+  private static final Logger log = LoggerFactory.getLogger(SessionStore.class);
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private final UserSessionRepository userSessionRepository;
+  private final SecureRandom secureRandom = new SecureRandom();
+  private final Map<TokenDigest, Session> sessions = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final boolean persistent;
+  private final long expiryInMillisecond;
+
+  public SessionStore(
+      UserSessionRepository userSessionRepository,
+      MeterRegistry meterRegistry,
+      @Value("${auth.mode:JWT}") String authMode,
+      @Value("${auth.session.persistent:false}") boolean persistent,
+      @Value("${jwt.expiry_in_millisecond}") long expiryInMillisecond) {
+    this.userSessionRepository = userSessionRepository;
+    this.enabled = "SESSION".equalsIgnoreCase(authMode);
+    this.persistent = enabled && persistent;
+    this.expiryInMillisecond = expiryInMillisecond;
+    Gauge.builder("irongate.sessions.size", sessions, Map::size).register(meterRegistry);
+  }
+
+  @PostConstruct
+  public void load() {
+    if (!persistent) {
+      return;
+    }
+    List<UserSession> active = userSessionRepository.findAllByExpiredAtAfter(Instant.now());
+    for (UserSession userSession : active) {
+      sessions.put(
+          TokenDigest.of(userSession.getSessionDigest()),
+          new Session(
+              new JwtClaimDTO(
+                  userSession.getUserId(),
+                  userSession.getEmail(),
+                  userSession.getRoleId(),
+                  userSession.getRoleName(),
+                  userSession.getFullName()),
+              userSession.getExpiredAt().toEpochMilli()));
+    }
+    log.info("Loaded {} persisted sessions", active.size());
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Creates a session for the given claims and returns the opaque id to put in the cookie. */
+  public String create(JwtClaimDTO claims) {
+    byte[] random = new byte[32];
+    secureRandom.nextBytes(random);
+    String sessionId = ENCODER.encodeToString(random);
+    TokenDigest digest = TokenDigest.of(sessionId);
+    long expiresAtMillis = System.currentTimeMillis() + expiryInMillisecond;
+    if (persistent) {
+      UserSession userSession =
+          new UserSession(
+              digest.toBytes(),
+              claims.userId(),
+              claims.email(),
+              claims.roleId(),
+              claims.roleName(),
+              claims.fullName(),
+              Instant.ofEpochMilli(expiresAtMillis));
+      userSession.setCreatedBy(claims.email());
+      userSession.setUpdatedBy(claims.email());
+      userSessionRepository.save(userSession);
+    }
+    sessions.put(digest, new Session(claims, expiresAtMillis));
+    return sessionId;
+  }
+
+  /** Returns the claims of a live session, or null if the id is unknown or expired. */
+  public JwtClaimDTO get(TokenDigest digest) {
+    Session session = sessions.get(digest);
+    if (session == null) {
+      return null;
+    }
+    if (session.expiresAtMillis() <= System.currentTimeMillis()) {
+      sessions.remove(digest, session);
+      return null;
+    }
+    return session.claims();
+  }
+
+  public void remove(TokenDigest digest) {
+    sessions.remove(digest);
+    if (persistent) {
+      userSessionRepository.deleteBySessionDigest(digest.toBytes());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${auth.session.purge_interval_in_millisecond:60000}")
+  public void purgeExpired() {
+    if (!enabled) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    sessions.values().removeIf(session -> session.expiresAtMillis() <= now);
+    if (persistent) {
+      userSessionRepository.deleteExpired(Instant.ofEpochMilli(now));
+    }
+  }
+
+  private record Session(JwtClaimDTO claims, long expiresAtMillis) {}
+}
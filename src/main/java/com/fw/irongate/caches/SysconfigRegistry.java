@@ -0,0 +1,129 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.dto.SysconfigDTO;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.repositories.SysconfigRepository;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Immutable snapshot of the active sysconfigs, indexed by id and by key.<br>
+ * Readers never block: they dereference the current snapshot, which is replaced wholesale
+ * (copy-on-write) whenever a row changes. Each replacement bumps {@link #version()}.<br>
+ * Changes arrive either as write-through from the use case that made them, or as
+ * {@link EntityChangedEvent}s after commit. When an event carries no committed state (deletions,
+ * changes made on another node), the row id is queued and re-read on the next lookup.
+ */
+@Component
+public class SysconfigRegistry {
+
+  private final SysconfigRepository sysconfigRepository;
+  private final Set<UUID> pendingIds = ConcurrentHashMap.newKeySet();
+  private final AtomicLong reloadGeneration = new AtomicLong();
+  private volatile Snapshot snapshot = new Snapshot(0, -1, Map.of(), Map.of());
+
+  public SysconfigRegistry(SysconfigRepository sysconfigRepository) {
+    this.sysconfigRepository = sysconfigRepository;
+  }
+
+  public Optional<SysconfigDTO> findActiveById(UUID id) {
+    return Optional.ofNullable(current().byId().get(id));
+  }
+
+  public Optional<SysconfigDTO> findByKey(String key) {
+    return Optional.ofNullable(current().byKey().get(key));
+  }
+
+  public long version() {
+    return current().version();
+  }
+
+  /** Write-through: publish the state that the caller has just saved. */
+  public synchronized void put(Sysconfig sysconfig) {
+    snapshot = snapshot.with(sysconfig.getId(), toDTO(sysconfig));
+  }
+
+  @EventListener
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (!event.concerns(Sysconfig.class)) {
+      return;
+    }
+    if (event.entity() instanceof Sysconfig sysconfig) {
+      put(sysconfig);
+    } else if (event.id() instanceof UUID id) {
+      pendingIds.add(id);
+    } else {
+      reloadGeneration.incrementAndGet();
+    }
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current.reloadGeneration() == reloadGeneration.get() && pendingIds.isEmpty()) {
+      return current;
+    }
+    synchronized (this) {
+      long target = reloadGeneration.get();
+      if (snapshot.reloadGeneration() != target) {
+        pendingIds.clear();
+        Map<UUID, SysconfigDTO> byId = new HashMap<>();
+        for (Sysconfig sysconfig : sysconfigRepository.findAllActive()) {
+          byId.put(sysconfig.getId(), toDTO(sysconfig));
+        }
+        snapshot = Snapshot.of(snapshot.version() + 1, target, byId);
+      } else if (!pendingIds.isEmpty()) {
+        Set<UUID> ids = new HashSet<>(pendingIds);
+        pendingIds.removeAll(ids);
+        Map<UUID, SysconfigDTO> byId = new HashMap<>(snapshot.byId());
+        ids.forEach(byId::remove);
+        for (Sysconfig sysconfig : sysconfigRepository.findAllById(ids)) {
+          SysconfigDTO dto = toDTO(sysconfig);
+          if (dto != null) {
+            byId.put(dto.id(), dto);
+          }
+        }
+        snapshot = Snapshot.of(snapshot.version() + 1, target, byId);
+      }
+      return snapshot;
+    }
+  }
+
+  /* Soft-deleted rows are mapped to null, i.e. removed from the snapshot */
+  private SysconfigDTO toDTO(Sysconfig sysconfig) {
+    if (sysconfig.getDeletedAt() != null) {
+      return null;
+    }
+    return new SysconfigDTO(sysconfig.getId(), sysconfig.getKey(), sysconfig.getValue());
+  }
+
+  private record Snapshot(
+      long version,
+      long reloadGeneration,
+      Map<UUID, SysconfigDTO> byId,
+      Map<String, SysconfigDTO> byKey) {
+
+    private static Snapshot of(long version, long reloadGeneration, Map<UUID, SysconfigDTO> byId) {
+      Map<String, SysconfigDTO> byKey = new HashMap<>();
+      byId.values().forEach(dto -> byKey.merge(dto.key(), dto, (a, b) -> a));
+      return new Snapshot(version, reloadGeneration, Map.copyOf(byId), Map.copyOf(byKey));
+    }
+
+    private Snapshot with(UUID id, SysconfigDTO dto) {
+      Map<UUID, SysconfigDTO> copy = new HashMap<>(byId);
+      if (dto == null) {
+        copy.remove(id);
+      } else {
+        copy.put(id, dto);
+      }
+      return of(version + 1, reloadGeneration, copy);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.fw.irongate.caches;
+
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.repositories.WarehouseUserRepository;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user cache of the warehouses a user is mapped to through <code>warehouses_users</code>.<br>
+ * A user's set is loaded with one id-only query on first use and then answers every membership
+ * check from memory. Any committed change to {@link WarehouseUser} or {@link Warehouse} drops the
+ * whole cache (membership edits are rare, and an updated row does not tell us its previous user);
+ * a change to a {@link User} drops that user only.<br>
+ * A load that races with an invalidation is returned to its caller but not cached.
+ */
+@Component
+public class WarehouseAccessService {
+
+  private final WarehouseUserRepository warehouseUserRepository;
+  private final Map<UUID, Set<UUID>> warehouseIdsByUserId = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  public WarehouseAccessService(WarehouseUserRepository warehouseUserRepository) {
+    this.warehouseUserRepository = warehouseUserRepository;
+  }
+
+  /** Ids of the active warehouses the user is mapped to; empty if none. */
+  public Set<UUID> getWarehouseIds(UUID userId) {
+    Set<UUID> warehouseIds = warehouseIdsByUserId.get(userId);
+    if (warehouseIds != null) {
+      return warehouseIds;
+    }
+    long loadedAt = generation.get();
+    warehouseIds = Set.copyOf(warehouseUserRepository.findActiveWarehouseIdsByUserId(userId));
+    if (generation.get() == loadedAt) {
+      warehouseIdsByUserId.put(userId, warehouseIds);
+    }
+    return warehouseIds;
+  }
+
+  public boolean isMember(UUID userId, UUID warehouseId) {
+    return getWarehouseIds(userId).contains(warehouseId);
+  }
+
+  /* before listeners that re-read this cache, e.g. StreamDashboardUseCase */
+  @EventListener
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (event.concerns(WarehouseUser.class) || event.concerns(Warehouse.class)) {
+      generation.incrementAndGet();
+      warehouseIdsByUserId.clear();
+    } else if (event.concerns(User.class) && event.id() instanceof UUID userId) {
+      generation.incrementAndGet();
+      warehouseIdsByUserId.remove(userId);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.fw.irongate.configurations;
+
+import static com.fw.irongate.constants.SystemConstants.JSON_SERVICE_BUSY;
+import static com.fw.irongate.constants.SystemConstants.JSON_TOO_MANY_REQUESTS;
+
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.utils.AdaptiveConcurrencyLimiter;
+import com.fw.irongate.utils.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission control for <code>/api/**</code>, placed right after {@link JwtFilter} so the caller
+ * is already known.<br>
+ * (1) Every authenticated user has a token bucket; an empty bucket answers 429.<br>
+ * (2) Heavy endpoints (<code>admission_control.heavy_paths</code>, the dashboard charts and the
+ * filter queries by default) also have a bucket per endpoint (429), and they share one
+ * {@link AdaptiveConcurrencyLimiter} sized below the connection pool (503). This keeps a burst of
+ * expensive queries from taking every connection, so cheap calls still get one.<br>
+ * Anonymous requests pass through untouched; Spring Security rejects them further down.<br>
+ * Rejections are counted in <code>irongate.admission.rejected</code> by reason, and the limiter
+ * state is exported as gauges.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final Map<UUID, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+  private final Map<String, TokenBucket> endpointBuckets = new ConcurrentHashMap<>();
+  private final boolean enabled;
+  private final List<String> heavyPaths;
+  private final int userCapacity;
+  private final double userRefillPerSecond;
+  private final int endpointCapacity;
+  private final double endpointRefillPerSecond;
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+  private final Counter userRateRejections;
+  private final Counter endpointRateRejections;
+  private final Counter concurrencyRejections;
+
+  public AdmissionControlFilter(
+      MeterRegistry meterRegistry,
+      @Value("${admission_control.enabled:true}") boolean enabled,
+      @Value("${admission_control.heavy_paths:/api/dashboard/charts,/api/*/filter}")
+          String[] heavyPaths,
+      @Value("${admission_control.user_bucket.capacity:60}") int userCapacity,
+      @Value("${admission_control.user_bucket.refill_per_second:20}") double userRefillPerSecond,
+      @Value("${admission_control.endpoint_bucket.capacity:200}") int endpointCapacity,
+      @Value("${admission_control.endpoint_bucket.refill_per_second:100}")
+          double endpointRefillPerSecond,
+      @Value("${admission_control.concurrency.initial_limit:4}") int initialLimit,
+      @Value("${admission_control.concurrency.min_limit:1}") int minLimit,
+      @Value("${admission_control.concurrency.max_limit:8}") int maxLimit,
+      @Value("${admission_control.concurrency.tolerance:2.0}") double tolerance) {
+    this.enabled = enabled;
+    this.heavyPaths = Arrays.stream(heavyPaths).map(String::trim).toList();
+    this.userCapacity = userCapacity;
+    this.userRefillPerSecond = userRefillPerSecond;
+    this.endpointCapacity = endpointCapacity;
+    this.endpointRefillPerSecond = endpointRefillPerSecond;
+    this.concurrencyLimiter =
+        new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance);
+    this.userRateRejections = rejectionCounter(meterRegistry, "user_rate");
+    this.endpointRateRejections = rejectionCounter(meterRegistry, "endpoint_rate");
+    this.concurrencyRejections = rejectionCounter(meterRegistry, "concurrency");
+    Gauge.builder(
+            "irongate.admission.concurrency.limit",
+            concurrencyLimiter,
+            AdaptiveConcurrencyLimiter::getLimit)
+        .register(meterRegistry);
+    Gauge.builder(
+            "irongate.admission.concurrency.in_flight",
+            concurrencyLimiter,
+            AdaptiveConcurrencyLimiter::getInFlight)
+        .register(meterRegistry);
+    Gauge.builder("irongate.admission.user_buckets", userBuckets, Map::size)
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws IOException, ServletException {
+    JwtClaimDTO jwtClaimDTO = currentUser();
+    if (jwtClaimDTO == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (!userBuckets
+        .computeIfAbsent(
+            jwtClaimDTO.userId(), id -> new TokenBucket(userCapacity, userRefillPerSecond))
+        .tryAcquire()) {
+      userRateRejections.increment();
+      reject(response, HttpStatus.TOO_MANY_REQUESTS.value(), JSON_TOO_MANY_REQUESTS);
+      return;
+    }
+    String uri = request.getRequestURI();
+    if (!isHeavy(uri)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    if (!endpointBuckets
+        .computeIfAbsent(uri, key -> new TokenBucket(endpointCapacity, endpointRefillPerSecond))
+        .tryAcquire()) {
+      endpointRateRejections.increment();
+      reject(response, HttpStatus.TOO_MANY_REQUESTS.value(), JSON_TOO_MANY_REQUESTS);
+      return;
+    }
+    if (!concurrencyLimiter.tryAcquire()) {
+      concurrencyRejections.increment();
+      reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, JSON_SERVICE_BUSY);
+      return;
+    }
+    long startedAt = System.nanoTime();
+    boolean completed = false;
+    try {
+      filterChain.doFilter(request, response);
+      completed = true;
+    } finally {
+      if (completed) {
+        concurrencyLimiter.release(System.nanoTime() - startedAt);
+      } else {
+        concurrencyLimiter.release();
+      }
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled || !request.getRequestURI().startsWith("/api/");
+  }
+
+  /** Drops the buckets of users that have been idle long enough for them to refill. */
+  @Scheduled(fixedDelayString = "${admission_control.evict_interval_in_millisecond:60000}")
+  public void evictIdleBuckets() {
+    long now = System.nanoTime();
+    userBuckets.values().removeIf(bucket -> bucket.isFull(now));
+  }
+
+  private boolean isHeavy(String uri) {
+    for (String heavyPath : heavyPaths) {
+      if (pathMatcher.match(heavyPath, uri)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private JwtClaimDTO currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof JwtClaimDTO claims) {
+      return claims;
+    }
+    return null;
+  }
+
+  private void reject(HttpServletResponse response, int status, String json) throws IOException {
+    response.setStatus(status);
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getWriter().write(json);
+  }
+
+  private static Counter rejectionCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("irongate.admission.rejected")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
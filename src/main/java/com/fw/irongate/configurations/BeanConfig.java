@@ -6,14 +6,18 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import java.security.SecureRandom;
+import com.fw.irongate.utils.PooledPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -28,8 +32,17 @@ public class BeanConfig {
   }
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder(12, new SecureRandom());
+  public PasswordEncoder passwordEncoder(
+      MeterRegistry meterRegistry,
+      @Value("${password_hashing.strength:12}") int strength,
+      @Value("${password_hashing.threads:0}") int threads,
+      @Value("${password_hashing.queue_capacity:64}") int queueCapacity,
+      @Value("${password_hashing.timeout_in_millisecond:3000}") long timeoutInMillisecond) {
+    /* By default leave half of the cores to the rest of the application */
+    int poolSize =
+        threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    return new PooledPasswordEncoder(
+        strength, poolSize, queueCapacity, timeoutInMillisecond, meterRegistry);
   }
 
   @Bean
@@ -48,10 +61,39 @@ public class BeanConfig {
     return threadPoolTaskScheduler;
   }
 
+  /**
+   * <code>server.http2.enabled</code> makes Tomcat speak h2c on plain HTTP and h2 through ALPN when
+   * <code>server.ssl</code> is configured. Every open dashboard tab then holds one stream of a
+   * shared connection instead of one of the six HTTP/1.1 connections a browser allows per origin,
+   * so the streams are capped by <code>http2.max_concurrent_streams</code> per connection instead.
+   */
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2Customizer(
+      @Value("${http2.max_concurrent_streams:200}") int maxConcurrentStreams) {
+    return factory ->
+        factory.addConnectorCustomizers(
+            connector -> {
+              for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol http2Protocol) {
+                  http2Protocol.setMaxConcurrentStreams(maxConcurrentStreams);
+                }
+              }
+            });
+  }
+
   @Bean
   public FilterRegistrationBean<JwtFilter> jwtFilterRegistration(JwtFilter filter) {
     FilterRegistrationBean<JwtFilter> registration = new FilterRegistrationBean<>(filter);
     registration.setEnabled(false);
     return registration;
   }
+
+  @Bean
+  public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+      AdmissionControlFilter filter) {
+    FilterRegistrationBean<AdmissionControlFilter> registration =
+        new FilterRegistrationBean<>(filter);
+    registration.setEnabled(false);
+    return registration;
+  }
 }
@@ -1,6 +1,8 @@
 package com.fw.irongate.configurations;
 
+import com.fw.irongate.utils.PasswordHashingUnavailableException;
 import com.fw.irongate.web.responses.ErrorResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -24,4 +26,13 @@ public class ExceptionControllerAdvice {
         .body(
             new ErrorResponse(e.getBindingResult().getAllErrors().getFirst().getDefaultMessage()));
   }
+
+  @ExceptionHandler({PasswordHashingUnavailableException.class})
+  @ResponseBody
+  public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(
+      PasswordHashingUnavailableException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header("Retry-After", "1")
+        .body(new ErrorResponse(e.getMessage()));
+  }
 }
@@ -7,13 +7,15 @@ import static com.fw.irongate.constants.SystemConstants.JSON_NO_PERMISSION;
 import static com.fw.irongate.constants.SystemConstants.JSON_UNAUTHORIZED;
 import static com.fw.irongate.constants.SystemConstants.SYSTEM;
 
+import com.fw.irongate.caches.PermissionMatrix;
+import com.fw.irongate.caches.RevokedTokenIndex;
+import com.fw.irongate.caches.SessionStore;
+import com.fw.irongate.caches.SysconfigRegistry;
 import com.fw.irongate.models.dto.JwtClaimDTO;
-import com.fw.irongate.models.entities.Sysconfig;
-import com.fw.irongate.repositories.PermissionRepository;
-import com.fw.irongate.repositories.RevokedTokenRepository;
-import com.fw.irongate.repositories.SysconfigRepository;
+import com.fw.irongate.models.dto.SysconfigDTO;
 import com.fw.irongate.utils.CookieUtil;
 import com.fw.irongate.utils.JwtUtil;
+import com.fw.irongate.utils.TokenDigest;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -40,21 +42,24 @@ public class JwtFilter extends OncePerRequestFilter {
   private static final Logger log = LoggerFactory.getLogger(JwtFilter.class);
   private final JwtUtil jwtUtil;
   private final CookieUtil cookieUtil;
-  private final SysconfigRepository sysconfigRepository;
-  private final PermissionRepository permissionRepository;
-  private final RevokedTokenRepository revokedTokenRepository;
+  private final SysconfigRegistry sysconfigRegistry;
+  private final PermissionMatrix permissionMatrix;
+  private final RevokedTokenIndex revokedTokenIndex;
+  private final SessionStore sessionStore;
 
   public JwtFilter(
       JwtUtil jwtUtil,
       CookieUtil cookieUtil,
-      SysconfigRepository sysconfigRepository,
-      PermissionRepository permissionRepository,
-      RevokedTokenRepository revokedTokenRepository) {
+      SysconfigRegistry sysconfigRegistry,
+      PermissionMatrix permissionMatrix,
+      RevokedTokenIndex revokedTokenIndex,
+      SessionStore sessionStore) {
     this.jwtUtil = jwtUtil;
     this.cookieUtil = cookieUtil;
-    this.sysconfigRepository = sysconfigRepository;
-    this.permissionRepository = permissionRepository;
-    this.revokedTokenRepository = revokedTokenRepository;
+    this.sysconfigRegistry = sysconfigRegistry;
+    this.permissionMatrix = permissionMatrix;
+    this.revokedTokenIndex = revokedTokenIndex;
+    this.sessionStore = sessionStore;
   }
 
   @Override
@@ -72,30 +77,42 @@ public class JwtFilter extends OncePerRequestFilter {
               .findFirst()
               .orElse(null);
       if (jwt != null && !jwt.isBlank()) {
-        JwtClaimDTO jwtClaimDTO = jwtUtil.validateJwt(jwt);
-        if (jwtClaimDTO == null) {
-          setResponseStatusAndJson(
-              response, HttpServletResponse.SC_UNAUTHORIZED, JSON_UNAUTHORIZED);
-          return;
-        }
-        if (revokedTokenRepository.existsByJwt(jwt)) {
-          ResponseCookie cookie = cookieUtil.createEmptyCookie();
-          response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-          setResponseStatusAndJson(
-              response, HttpServletResponse.SC_UNAUTHORIZED, JSON_UNAUTHORIZED);
-          log.warn(USER_ALREADY_LOGGED_OUT, jwtClaimDTO.email());
-          return;
+        TokenDigest digest = TokenDigest.of(jwt);
+        JwtClaimDTO jwtClaimDTO;
+        if (sessionStore.isEnabled()) {
+          /* Opaque session mode: the cookie value is a session id, not a JWT */
+          jwtClaimDTO = sessionStore.get(digest);
+          if (jwtClaimDTO == null) {
+            ResponseCookie cookie = cookieUtil.createEmptyCookie();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            setResponseStatusAndJson(
+                response, HttpServletResponse.SC_UNAUTHORIZED, JSON_UNAUTHORIZED);
+            return;
+          }
+        } else {
+          jwtClaimDTO = jwtUtil.validateJwt(jwt, digest);
+          if (jwtClaimDTO == null) {
+            setResponseStatusAndJson(
+                response, HttpServletResponse.SC_UNAUTHORIZED, JSON_UNAUTHORIZED);
+            return;
+          }
+          if (revokedTokenIndex.isRevoked(digest)) {
+            ResponseCookie cookie = cookieUtil.createEmptyCookie();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+            setResponseStatusAndJson(
+                response, HttpServletResponse.SC_UNAUTHORIZED, JSON_UNAUTHORIZED);
+            log.warn(USER_ALREADY_LOGGED_OUT, jwtClaimDTO.email());
+            return;
+          }
         }
-        Optional<Sysconfig> optSysconfig =
-            sysconfigRepository.findOneActiveById(jwtClaimDTO.roleId());
+        Optional<SysconfigDTO> optSysconfig =
+            sysconfigRegistry.findActiveById(jwtClaimDTO.roleId());
         if (optSysconfig.isEmpty()) {
           setResponseStatusAndJson(response, HttpServletResponse.SC_BAD_REQUEST, JSON_INVALID_ROLE);
           return;
-        } else if (!optSysconfig.get().getKey().equals(SYSTEM)
+        } else if (!optSysconfig.get().key().equals(SYSTEM)
             && uri.startsWith("/api/")
-            && permissionRepository
-                .findAllActiveByRoleIdAndResourcePath(jwtClaimDTO.roleId(), uri)
-                .isEmpty()) {
+            && !permissionMatrix.isAllowed(jwtClaimDTO.roleId(), uri)) {
           setResponseStatusAndJson(response, HttpServletResponse.SC_FORBIDDEN, JSON_NO_PERMISSION);
           return;
         }
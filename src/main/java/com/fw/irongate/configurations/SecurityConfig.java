@@ -1,5 +1,6 @@
 package com.fw.irongate.configurations;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,9 +24,11 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
   private final JwtFilter jwtFilter;
+  private final AdmissionControlFilter admissionControlFilter;
 
-  public SecurityConfig(JwtFilter jwtFilter) {
+  public SecurityConfig(JwtFilter jwtFilter, AdmissionControlFilter admissionControlFilter) {
     this.jwtFilter = jwtFilter;
+    this.admissionControlFilter = admissionControlFilter;
   }
 
   @Bean
@@ -43,7 +46,11 @@ public class SecurityConfig {
             session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(
             auth ->
-                auth.requestMatchers("/")
+                /* the request was authorized when it started; when an SSE stream ends, the */
+                /* async dispatch runs without the JwtFilter and would be denied */
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR)
+                    .permitAll()
+                    .requestMatchers("/")
                     .permitAll()
                     .requestMatchers(
                         "/index.html",
@@ -62,6 +69,7 @@ public class SecurityConfig {
                     .anyRequest()
                     .permitAll());
     httpSecurity.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+    httpSecurity.addFilterAfter(admissionControlFilter, JwtFilter.class);
     return httpSecurity.build();
   }
 }
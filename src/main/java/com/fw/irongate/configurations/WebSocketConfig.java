@@ -0,0 +1,29 @@
+package com.fw.irongate.configurations;
+
+import com.fw.irongate.web.api.DashboardWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket handshakes are not covered by {@link CorsConfig}; the same origins are allowed here.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+  private final DashboardWebSocketHandler dashboardWebSocketHandler;
+
+  public WebSocketConfig(DashboardWebSocketHandler dashboardWebSocketHandler) {
+    this.dashboardWebSocketHandler = dashboardWebSocketHandler;
+  }
+
+  @SuppressWarnings("NullableProblems")
+  @Override
+  public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+    registry
+        .addHandler(dashboardWebSocketHandler, "/api/dashboard/ws")
+        .setAllowedOrigins("http://localhost:5173", "https://gloomyafternoon.xyz");
+  }
+}
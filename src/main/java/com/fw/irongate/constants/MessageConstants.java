@@ -17,4 +17,7 @@ public interface MessageConstants {
   String PRODUCT_QUANTITY_REQUIREMENT_NOT_FULFILLED =
       "Product(s) quantity requirement not fulfilled";
   String WAREHOUSE_NOT_FOUND = "Warehouse not found";
+  String INVALID_ROLLUP_RANGE = "The range must start before it ends";
+  String INVALID_ROLLUP_GRANULARITY = "Granularity must be HOUR or DAY";
+  String PASSWORD_HASHING_BUSY = "Too many sign-in attempts in progress, please retry shortly";
 }
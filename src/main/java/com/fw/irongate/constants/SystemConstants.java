@@ -16,10 +16,14 @@ public interface SystemConstants {
   String JSON_UNAUTHORIZED = "{\"error\":\"Unauthorized\"}";
   String JSON_INVALID_ROLE = "{\"error\":\"Invalid role\"}";
   String JSON_NO_PERMISSION = "{\"error\":\"No Permission\"}";
+  String JSON_TOO_MANY_REQUESTS = "{\"error\":\"Too many requests\"}";
+  String JSON_SERVICE_BUSY = "{\"error\":\"Service busy\"}";
 
   String EVENT_ORDER_CREATED = "ORDER_CREATED";
   String EVENT_ORDER_UPDATED = "ORDER_UPDATED";
   String EVENT_SHIPMENT_CREATED = "SHIPMENT_CREATED";
   String EVENT_SHIPMENT_UPDATED = "SHIPMENT_UPDATED";
   String EVENT_STOCK_CREATED = "STOCK_CREATED";
+  String EVENT_RESYNC = "RESYNC";
+  String EVENT_CHARTS_UPDATED = "CHARTS_UPDATED";
 }
@@ -0,0 +1,12 @@
+package com.fw.irongate.models.dto;
+
+import java.math.BigDecimal;
+
+/** A bar of a dashboard chart before it is charted, without losing the cents of a revenue. */
+@SuppressWarnings("unused")
+public record AggregateDTO(String label, BigDecimal amount) {
+
+  public AggregateDTO(String label, Long amount) {
+    this(label, BigDecimal.valueOf(amount));
+  }
+}
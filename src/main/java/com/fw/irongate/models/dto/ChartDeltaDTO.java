@@ -0,0 +1,27 @@
+package com.fw.irongate.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/**
+ * The chart sections that changed since the previous version; unchanged sections are left out.
+ * <br>
+ * A client at <code>version - 1</code> replaces the sections present here; a client at <code>
+ * version</code> has nothing to do; any other gap means it missed a delta and refetches the full
+ * charts.<br>
+ * This is the server half only: the bundled client (<code>static/assets</code>) still refetches
+ * the charts on every event and ignores the delta and {@link DashboardChartsDTO#version()}, so
+ * clients must be updated before deltas cut any chart load.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ChartDeltaDTO(
+    long version,
+    List<ChartDataDTO> ordersByStatus,
+    List<ChartDataDTO> shipmentsByStatus,
+    List<ChartDataDTO> top5RevenueByWarehouse,
+    List<ChartDataDTO> topSellingProducts) {
+
+  public ChartDeltaDTO(long version) {
+    this(version, null, null, null, null);
+  }
+}
@@ -2,8 +2,16 @@ package com.fw.irongate.models.dto;
 
 import java.util.List;
 
+/**
+ * @param version the last chart delta pushed on the dashboard stream before this snapshot was
+ *     read; deltas after it apply on top
+ * @param staleSections the sections (ChartSection names) whose query missed its deadline and that
+ *     are repeated from the previous snapshot; empty when every section is current
+ */
 public record DashboardChartsDTO(
+    long version,
     List<ChartDataDTO> ordersByStatus,
     List<ChartDataDTO> shipmentsByStatus,
     List<ChartDataDTO> top5RevenueByWarehouse,
-    List<ChartDataDTO> topSellingProducts) {}
+    List<ChartDataDTO> topSellingProducts,
+    List<String> staleSections) {}
@@ -1,3 +1,41 @@
 package com.fw.irongate.models.dto;
 
-public record DashboardEventDTO(String type) {}
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.util.UUID;
+
+/**
+ * @param type the event type, e.g. ORDER_CREATED
+ * @param category routes the event to the roles allowed to see it
+ * @param warehouseId routes the event to the members of this warehouse; null for every warehouse
+ * @param count how many events of this type it stands for (see the coalescing window in
+ *     StreamDashboardUseCase)
+ * @param delta the chart changes this event caused; absent when chart deltas are disabled or could
+ *     not be computed, in which case the client refetches the charts
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DashboardEventDTO(
+    String type,
+    DashboardEventCategory category,
+    UUID warehouseId,
+    int count,
+    ChartDeltaDTO delta) {
+
+  /** An event for every connected dashboard. */
+  public DashboardEventDTO(String type) {
+    this(type, DashboardEventCategory.SYSTEM, null);
+  }
+
+  public DashboardEventDTO(String type, DashboardEventCategory category, UUID warehouseId) {
+    this(type, category, warehouseId, 1);
+  }
+
+  public DashboardEventDTO(
+      String type, DashboardEventCategory category, UUID warehouseId, int count) {
+    this(type, category, warehouseId, count, null);
+  }
+
+  public DashboardEventDTO withDelta(ChartDeltaDTO delta) {
+    return new DashboardEventDTO(type, category, warehouseId, count, delta);
+  }
+}
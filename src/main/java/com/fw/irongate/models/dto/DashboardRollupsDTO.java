@@ -0,0 +1,15 @@
+package com.fw.irongate.models.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * @param from the first bucket of the range
+ * @param to the end of the range (exclusive)
+ */
+public record DashboardRollupsDTO(
+    String granularity,
+    Instant from,
+    Instant to,
+    List<OrderRollupDTO> orders,
+    List<ProductRollupDTO> products) {}
@@ -0,0 +1,18 @@
+package com.fw.irongate.models.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param bucket the start of the bucket (UTC)
+ * @param orders the orders of the warehouse that entered <code>status</code> in the bucket
+ * @param revenue their total price
+ */
+public record OrderRollupDTO(
+    Instant bucket,
+    UUID warehouseId,
+    String warehouseName,
+    String status,
+    long orders,
+    BigDecimal revenue) {}
@@ -0,0 +1,12 @@
+package com.fw.irongate.models.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param bucket the start of the bucket (UTC)
+ * @param units the units sold in orders completed in the bucket, over every warehouse
+ */
+public record ProductRollupDTO(
+    Instant bucket, UUID productId, String productName, long units, BigDecimal revenue) {}
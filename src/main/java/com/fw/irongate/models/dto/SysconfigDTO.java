@@ -0,0 +1,5 @@
+package com.fw.irongate.models.dto;
+
+import java.util.UUID;
+
+public record SysconfigDTO(UUID id, String key, String value) {}
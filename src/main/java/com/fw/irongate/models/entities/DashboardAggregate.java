@@ -0,0 +1,57 @@
+package com.fw.irongate.models.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+
+/**
+ * One bar of a dashboard chart, kept up to date by the use cases that change it instead of being
+ * recomputed from the orders and shipments on every read. <code>section</code> is a {@link
+ * com.fw.irongate.usecases.get_dashboard_charts.ChartSection} name and <code>label</code> the bar
+ * (a status, a warehouse name or a product name).
+ */
+@SuppressWarnings("unused")
+@Table(
+    name = "dashboard_aggregates",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "dashboard_aggregates_section_label_key",
+            columnNames = {"section", "label"}))
+@Entity
+public class DashboardAggregate extends BaseEntity {
+
+  @Column(name = "section", nullable = false)
+  private String section;
+
+  @Column(name = "label", nullable = false)
+  private String label;
+
+  @Column(name = "amount", nullable = false, precision = 22, scale = 2)
+  private BigDecimal amount;
+
+  public String getSection() {
+    return section;
+  }
+
+  public void setSection(String section) {
+    this.section = section;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public void setLabel(String label) {
+    this.label = label;
+  }
+
+  public BigDecimal getAmount() {
+    return amount;
+  }
+
+  public void setAmount(BigDecimal amount) {
+    this.amount = amount;
+  }
+}
@@ -0,0 +1,48 @@
+package com.fw.irongate.models.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.util.UUID;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A dashboard event too large for a <code>NOTIFY</code> payload; the notification then carries
+ * only this row's id. Rows are short-lived, see {@link
+ * com.fw.irongate.usecases.stream_dashboard.PostgresDashboardEventTransport}.<br>
+ * Persistable for the same reason as {@link RevokedToken}.
+ */
+@Table(name = "dashboard_event_payloads")
+@Entity
+public class DashboardEventPayload extends BaseEntity implements Persistable<UUID> {
+
+  @Transient private boolean isNew = true;
+
+  @Column(name = "payload", nullable = false, columnDefinition = "text")
+  private String payload;
+
+  @SuppressWarnings("unused")
+  public DashboardEventPayload() {}
+
+  public DashboardEventPayload(String payload) {
+    this.payload = payload;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostPersist
+  @PostLoad
+  void markNotNew() {
+    this.isNew = false;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+}
@@ -0,0 +1,94 @@
+package com.fw.irongate.models.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The orders of one warehouse that entered <code>status</code> during a bucket, and their total
+ * price. <code>granularity</code> is a {@link com.fw.irongate.models.enums.RollupGranularity}
+ * name: HOUR rows are written as orders change and folded into DAY rows once they are old enough.
+ */
+@SuppressWarnings("unused")
+@Table(
+    name = "order_rollups",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "order_rollups_bucket_warehouse_status_key",
+            columnNames = {"granularity", "bucket_start", "warehouse_id", "status"}))
+@Entity
+public class OrderRollup extends BaseEntity {
+
+  @Column(name = "granularity", nullable = false)
+  private String granularity;
+
+  @Column(name = "bucket_start", nullable = false)
+  private Instant bucketStart;
+
+  @JoinColumn(name = "warehouse_id", nullable = false)
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Warehouse warehouse;
+
+  @Column(name = "status", nullable = false)
+  private String status;
+
+  @Column(name = "order_count", nullable = false)
+  private Long orderCount;
+
+  @Column(name = "revenue", nullable = false, precision = 22, scale = 2)
+  private BigDecimal revenue;
+
+  public String getGranularity() {
+    return granularity;
+  }
+
+  public void setGranularity(String granularity) {
+    this.granularity = granularity;
+  }
+
+  public Instant getBucketStart() {
+    return bucketStart;
+  }
+
+  public void setBucketStart(Instant bucketStart) {
+    this.bucketStart = bucketStart;
+  }
+
+  public Warehouse getWarehouse() {
+    return warehouse;
+  }
+
+  public void setWarehouse(Warehouse warehouse) {
+    this.warehouse = warehouse;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public Long getOrderCount() {
+    return orderCount;
+  }
+
+  public void setOrderCount(Long orderCount) {
+    this.orderCount = orderCount;
+  }
+
+  public BigDecimal getRevenue() {
+    return revenue;
+  }
+
+  public void setRevenue(BigDecimal revenue) {
+    this.revenue = revenue;
+  }
+}
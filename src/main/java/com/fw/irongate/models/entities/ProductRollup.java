@@ -0,0 +1,82 @@
+package com.fw.irongate.models.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The units of one product sold (in orders completed) during a bucket, over every warehouse, and
+ * their revenue. Compacted like {@link OrderRollup}.
+ */
+@SuppressWarnings("unused")
+@Table(
+    name = "product_rollups",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "product_rollups_bucket_product_key",
+            columnNames = {"granularity", "bucket_start", "product_id"}))
+@Entity
+public class ProductRollup extends BaseEntity {
+
+  @Column(name = "granularity", nullable = false)
+  private String granularity;
+
+  @Column(name = "bucket_start", nullable = false)
+  private Instant bucketStart;
+
+  @JoinColumn(name = "product_id", nullable = false)
+  @ManyToOne(fetch = FetchType.LAZY)
+  private Product product;
+
+  @Column(name = "units", nullable = false)
+  private Long units;
+
+  @Column(name = "revenue", nullable = false, precision = 22, scale = 2)
+  private BigDecimal revenue;
+
+  public String getGranularity() {
+    return granularity;
+  }
+
+  public void setGranularity(String granularity) {
+    this.granularity = granularity;
+  }
+
+  public Instant getBucketStart() {
+    return bucketStart;
+  }
+
+  public void setBucketStart(Instant bucketStart) {
+    this.bucketStart = bucketStart;
+  }
+
+  public Product getProduct() {
+    return product;
+  }
+
+  public void setProduct(Product product) {
+    this.product = product;
+  }
+
+  public Long getUnits() {
+    return units;
+  }
+
+  public void setUnits(Long units) {
+    this.units = units;
+  }
+
+  public BigDecimal getRevenue() {
+    return revenue;
+  }
+
+  public void setRevenue(BigDecimal revenue) {
+    this.revenue = revenue;
+  }
+}
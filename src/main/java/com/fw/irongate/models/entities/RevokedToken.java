@@ -28,8 +28,9 @@ public class RevokedToken extends BaseEntity implements Persistable<UUID> {
 
   @Transient private boolean isNew = true;
 
-  @Column(name = "jwt", nullable = false, unique = true, length = 1000)
-  private String jwt;
+  /** SHA-256 of the raw token, see {@link com.fw.irongate.utils.TokenDigest}. */
+  @Column(name = "jwt_digest", nullable = false, unique = true, length = 32)
+  private byte[] jwtDigest;
 
   @Column(name = "expired_at", nullable = false)
   private Instant expiredAt;
@@ -37,8 +38,8 @@ public class RevokedToken extends BaseEntity implements Persistable<UUID> {
   @SuppressWarnings("unused")
   public RevokedToken() {}
 
-  public RevokedToken(String jwt, Instant expiredAt) {
-    this.jwt = jwt;
+  public RevokedToken(byte[] jwtDigest, Instant expiredAt) {
+    this.jwtDigest = jwtDigest;
     this.expiredAt = expiredAt;
   }
 
@@ -53,11 +54,15 @@ public class RevokedToken extends BaseEntity implements Persistable<UUID> {
     this.isNew = false;
   }
 
-  public String getJwt() {
-    return jwt;
+  public byte[] getJwtDigest() {
+    return jwtDigest;
   }
 
-  public void setJwt(String jwt) {
-    this.jwt = jwt;
+  public void setJwtDigest(byte[] jwtDigest) {
+    this.jwtDigest = jwtDigest;
+  }
+
+  public Instant getExpiredAt() {
+    return expiredAt;
   }
 }
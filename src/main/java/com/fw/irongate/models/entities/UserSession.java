@@ -0,0 +1,104 @@
+package com.fw.irongate.models.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Persisted copy of an opaque session, only written when <code>auth.session.persistent</code> is
+ * enabled so that sessions survive a restart.<br>
+ * Only the SHA-256 of the session id is stored; see RevokedToken for why this implements
+ * Persistable.
+ */
+@Table(name = "user_sessions")
+@Entity
+public class UserSession extends BaseEntity implements Persistable<UUID> {
+
+  @Transient private boolean isNew = true;
+
+  @Column(name = "session_digest", nullable = false, unique = true, length = 32)
+  private byte[] sessionDigest;
+
+  @Column(name = "user_id", nullable = false)
+  private UUID userId;
+
+  @Column(name = "email", nullable = false)
+  private String email;
+
+  @Column(name = "role_id", nullable = false)
+  private UUID roleId;
+
+  @Column(name = "role_name", nullable = false)
+  private String roleName;
+
+  @Column(name = "full_name", nullable = false)
+  private String fullName;
+
+  @Column(name = "expired_at", nullable = false)
+  private Instant expiredAt;
+
+  @SuppressWarnings("unused")
+  public UserSession() {}
+
+  public UserSession(
+      byte[] sessionDigest,
+      UUID userId,
+      String email,
+      UUID roleId,
+      String roleName,
+      String fullName,
+      Instant expiredAt) {
+    this.sessionDigest = sessionDigest;
+    this.userId = userId;
+    this.email = email;
+    this.roleId = roleId;
+    this.roleName = roleName;
+    this.fullName = fullName;
+    this.expiredAt = expiredAt;
+  }
+
+  @Override
+  public boolean isNew() {
+    return isNew;
+  }
+
+  @PostPersist
+  @PostLoad
+  void markNotNew() {
+    this.isNew = false;
+  }
+
+  public byte[] getSessionDigest() {
+    return sessionDigest;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public UUID getRoleId() {
+    return roleId;
+  }
+
+  public String getRoleName() {
+    return roleName;
+  }
+
+  public String getFullName() {
+    return fullName;
+  }
+
+  public Instant getExpiredAt() {
+    return expiredAt;
+  }
+}
@@ -0,0 +1,9 @@
+package com.fw.irongate.models.enums;
+
+/** Decides which roles receive a dashboard event; SYSTEM events go to everyone. */
+public enum DashboardEventCategory {
+  ORDER,
+  SHIPMENT,
+  STOCK,
+  SYSTEM
+}
@@ -0,0 +1,27 @@
+package com.fw.irongate.models.enums;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/** The width of an order or product rollup bucket; buckets start on UTC boundaries. */
+public enum RollupGranularity {
+  HOUR(ChronoUnit.HOURS),
+  DAY(ChronoUnit.DAYS);
+
+  private final ChronoUnit unit;
+
+  RollupGranularity(ChronoUnit unit) {
+    this.unit = unit;
+  }
+
+  /** The start of the bucket holding <code>instant</code>. */
+  public Instant bucketOf(Instant instant) {
+    return instant.truncatedTo(unit);
+  }
+
+  /** The first bucket boundary at or after <code>instant</code>. */
+  public Instant ceilingOf(Instant instant) {
+    Instant start = bucketOf(instant);
+    return start.equals(instant) ? start : start.plus(1, unit);
+  }
+}
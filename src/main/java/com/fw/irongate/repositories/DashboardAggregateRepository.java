@@ -0,0 +1,55 @@
+package com.fw.irongate.repositories;
+
+import com.fw.irongate.models.dto.AggregateDTO;
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.entities.DashboardAggregate;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface DashboardAggregateRepository extends JpaRepository<DashboardAggregate, UUID> {
+
+  /* bars that dropped to zero are kept, but not charted */
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.ChartDataDTO(a.label, a.amount) "
+          + "FROM DashboardAggregate a "
+          + "WHERE a.section = ?1 AND a.amount > 0 AND a.deletedAt IS NULL "
+          + "ORDER BY a.amount DESC, a.label")
+  List<ChartDataDTO> findChart(String section, Pageable pageable);
+
+  /** Every charted bar of the section, unsorted and without rounding the amounts. */
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.AggregateDTO(a.label, a.amount) "
+          + "FROM DashboardAggregate a "
+          + "WHERE a.section = ?1 AND a.amount > 0 AND a.deletedAt IS NULL")
+  List<AggregateDTO> findAggregates(String section);
+
+  /** Adds <code>amount</code> (possibly negative) to the bar, creating it on first use. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO dashboard_aggregates "
+              + "(id, created_at, created_by, updated_at, updated_by, section, label, amount) "
+              + "VALUES (gen_random_uuid(), now(), ?4, now(), ?4, ?1, ?2, ?3) "
+              + "ON CONFLICT (section, label) DO UPDATE "
+              + "SET amount = dashboard_aggregates.amount + excluded.amount, "
+              + "updated_at = excluded.updated_at, updated_by = excluded.updated_by",
+      nativeQuery = true)
+  void add(String section, String label, BigDecimal amount, String updatedBy);
+
+  /**
+   * Blocks every {@link #add} until the calling transaction ends; transactions already holding
+   * rows of this table are waited for.
+   */
+  @Modifying
+  @Query(value = "LOCK TABLE dashboard_aggregates IN EXCLUSIVE MODE", nativeQuery = true)
+  void lockExclusively();
+
+  @Modifying
+  @Query("DELETE FROM DashboardAggregate a")
+  void deleteAllRows();
+}
@@ -0,0 +1,18 @@
+package com.fw.irongate.repositories;
+
+import com.fw.irongate.models.entities.DashboardEventPayload;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface DashboardEventPayloadRepository
+    extends JpaRepository<DashboardEventPayload, UUID> {
+
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM DashboardEventPayload p WHERE p.createdAt <= ?1")
+  int deleteCreatedBefore(ZonedDateTime before);
+}
@@ -1,6 +1,6 @@
 package com.fw.irongate.repositories;
 
-import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.AggregateDTO;
 import com.fw.irongate.models.entities.Order;
 import java.util.List;
 import java.util.Optional;
@@ -17,18 +17,30 @@ public interface OrderRepository
           "SELECT o FROM Order o JOIN FETCH o.orderProducts JOIN FETCH o.orderProducts.product JOIN FETCH o.warehouse WHERE o.id = ?1")
   Optional<Order> findByIdWithRelations(UUID id);
 
+  /**
+   * Ids split into consecutive ranges of <code>chunkSize</code> rows, each as its first and last
+   * id (inclusive).
+   */
   @Query(
-      "SELECT new com.fw.irongate.models.dto.ChartDataDTO(o.status, COUNT(o)) "
+      value =
+          "SELECT MIN(CAST(id AS text) COLLATE \"C\"), MAX(CAST(id AS text) COLLATE \"C\") "
+              + "FROM (SELECT id, (ROW_NUMBER() OVER (ORDER BY id) - 1) / ?1 AS chunk FROM orders) ids "
+              + "GROUP BY chunk "
+              + "ORDER BY chunk",
+      nativeQuery = true)
+  List<Object[]> findIdRanges(int chunkSize);
+
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.AggregateDTO(o.status, COUNT(o)) "
           + "FROM Order o "
-          + "WHERE o.deletedAt IS NULL "
+          + "WHERE o.id BETWEEN ?1 AND ?2 AND o.deletedAt IS NULL "
           + "GROUP BY o.status")
-  List<ChartDataDTO> countOrdersByStatus();
+  List<AggregateDTO> countOrdersByStatus(UUID firstId, UUID lastId);
 
   @Query(
-      "SELECT new com.fw.irongate.models.dto.ChartDataDTO(o.warehouse.name, SUM(o.totalPrice)) "
+      "SELECT new com.fw.irongate.models.dto.AggregateDTO(o.warehouse.name, SUM(o.totalPrice)) "
           + "FROM Order o "
-          + "WHERE o.status = 'COMPLETED' AND o.deletedAt IS NULL "
-          + "GROUP BY o.warehouse.name "
-          + "ORDER BY SUM(o.totalPrice) DESC")
-  List<ChartDataDTO> findTopRevenueByWarehouse(org.springframework.data.domain.Pageable pageable);
+          + "WHERE o.id BETWEEN ?1 AND ?2 AND o.status = 'COMPLETED' AND o.deletedAt IS NULL "
+          + "GROUP BY o.warehouse.name")
+  List<AggregateDTO> sumRevenueByWarehouse(UUID firstId, UUID lastId);
 }
@@ -0,0 +1,78 @@
+package com.fw.irongate.repositories;
+
+import com.fw.irongate.models.dto.OrderRollupDTO;
+import com.fw.irongate.models.entities.OrderRollup;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, UUID> {
+
+  /** The rows of one granularity starting in [from, to), of every warehouse when it is null. */
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.OrderRollupDTO("
+          + "r.bucketStart, r.warehouse.id, r.warehouse.name, r.status, r.orderCount, r.revenue) "
+          + "FROM OrderRollup r "
+          + "WHERE r.granularity = ?1 AND r.bucketStart >= ?2 AND r.bucketStart < ?3 "
+          + "AND (?4 IS NULL OR r.warehouse.id = ?4) AND r.deletedAt IS NULL")
+  List<OrderRollupDTO> findRange(String granularity, Instant from, Instant to, UUID warehouseId);
+
+  /** Adds to the bucket's row, creating it on first use. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO order_rollups "
+              + "(id, created_at, created_by, updated_at, updated_by, "
+              + "granularity, bucket_start, warehouse_id, status, order_count, revenue) "
+              + "VALUES (gen_random_uuid(), now(), ?7, now(), ?7, ?1, ?2, ?3, ?4, ?5, ?6) "
+              + "ON CONFLICT (granularity, bucket_start, warehouse_id, status) DO UPDATE "
+              + "SET order_count = order_rollups.order_count + excluded.order_count, "
+              + "revenue = order_rollups.revenue + excluded.revenue, "
+              + "updated_at = excluded.updated_at, updated_by = excluded.updated_by",
+      nativeQuery = true)
+  void add(
+      String granularity,
+      Instant bucketStart,
+      UUID warehouseId,
+      String status,
+      long orders,
+      BigDecimal revenue,
+      String updatedBy);
+
+  /** Adds the HOUR rows starting before <code>before</code> to their (UTC) DAY rows. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO order_rollups "
+              + "(id, created_at, created_by, updated_at, updated_by, "
+              + "granularity, bucket_start, warehouse_id, status, order_count, revenue) "
+              + "SELECT gen_random_uuid(), now(), ?2, now(), ?2, 'DAY', "
+              + "date_trunc('day', bucket_start, 'UTC') AS bucket_day, warehouse_id, status, "
+              + "sum(order_count), sum(revenue) "
+              + "FROM order_rollups "
+              + "WHERE granularity = 'HOUR' AND bucket_start < ?1 "
+              + "GROUP BY bucket_day, warehouse_id, status "
+              + "ON CONFLICT (granularity, bucket_start, warehouse_id, status) DO UPDATE "
+              + "SET order_count = order_rollups.order_count + excluded.order_count, "
+              + "revenue = order_rollups.revenue + excluded.revenue, "
+              + "updated_at = excluded.updated_at, updated_by = excluded.updated_by",
+      nativeQuery = true)
+  int foldHoursIntoDays(Instant before, String updatedBy);
+
+  /**
+   * Takes the transaction-level advisory lock <code>key</code>, or returns false at once when
+   * another transaction, on any node, holds it.
+   */
+  @Query(value = "SELECT pg_try_advisory_xact_lock(?1)", nativeQuery = true)
+  boolean tryAdvisoryLock(long key);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM order_rollups WHERE granularity = 'HOUR' AND bucket_start < ?1",
+      nativeQuery = true)
+  int deleteHoursBefore(Instant before);
+}
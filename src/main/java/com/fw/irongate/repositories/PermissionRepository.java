@@ -10,20 +10,6 @@ import org.springframework.data.jpa.repository.Query;
 public interface PermissionRepository
     extends JpaRepository<Permission, UUID>, JpaSpecificationExecutor<Permission> {
 
-  @Query(
-      value =
-          "SELECT p FROM Permission p "
-              + "JOIN FETCH p.role r "
-              + "JOIN FETCH p.resourcePath rp "
-              + "JOIN FETCH r.sysconfigType rst "
-              + "JOIN FETCH rp.sysconfigType rpst "
-              + "WHERE r.id = ?1 AND "
-              + "rp.value = ?2 AND "
-              + "p.deletedAt IS NULL AND "
-              + "r.deletedAt IS NULL AND "
-              + "rp.deletedAt IS NULL")
-  List<Permission> findAllActiveByRoleIdAndResourcePath(UUID roleId, String resourcePath);
-
   @Query(
       value =
           "SELECT p FROM Permission p "
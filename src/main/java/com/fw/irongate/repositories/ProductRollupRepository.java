@@ -0,0 +1,70 @@
+package com.fw.irongate.repositories;
+
+import com.fw.irongate.models.dto.ProductRollupDTO;
+import com.fw.irongate.models.entities.ProductRollup;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ProductRollupRepository extends JpaRepository<ProductRollup, UUID> {
+
+  /** The rows of one granularity starting in [from, to). */
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.ProductRollupDTO("
+          + "r.bucketStart, r.product.id, r.product.name, r.units, r.revenue) "
+          + "FROM ProductRollup r "
+          + "WHERE r.granularity = ?1 AND r.bucketStart >= ?2 AND r.bucketStart < ?3 "
+          + "AND r.deletedAt IS NULL")
+  List<ProductRollupDTO> findRange(String granularity, Instant from, Instant to);
+
+  /** Adds to the bucket's row, creating it on first use. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO product_rollups "
+              + "(id, created_at, created_by, updated_at, updated_by, "
+              + "granularity, bucket_start, product_id, units, revenue) "
+              + "VALUES (gen_random_uuid(), now(), ?6, now(), ?6, ?1, ?2, ?3, ?4, ?5) "
+              + "ON CONFLICT (granularity, bucket_start, product_id) DO UPDATE "
+              + "SET units = product_rollups.units + excluded.units, "
+              + "revenue = product_rollups.revenue + excluded.revenue, "
+              + "updated_at = excluded.updated_at, updated_by = excluded.updated_by",
+      nativeQuery = true)
+  void add(
+      String granularity,
+      Instant bucketStart,
+      UUID productId,
+      long units,
+      BigDecimal revenue,
+      String updatedBy);
+
+  /** Adds the HOUR rows starting before <code>before</code> to their (UTC) DAY rows. */
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO product_rollups "
+              + "(id, created_at, created_by, updated_at, updated_by, "
+              + "granularity, bucket_start, product_id, units, revenue) "
+              + "SELECT gen_random_uuid(), now(), ?2, now(), ?2, 'DAY', "
+              + "date_trunc('day', bucket_start, 'UTC') AS bucket_day, product_id, "
+              + "sum(units), sum(revenue) "
+              + "FROM product_rollups "
+              + "WHERE granularity = 'HOUR' AND bucket_start < ?1 "
+              + "GROUP BY bucket_day, product_id "
+              + "ON CONFLICT (granularity, bucket_start, product_id) DO UPDATE "
+              + "SET units = product_rollups.units + excluded.units, "
+              + "revenue = product_rollups.revenue + excluded.revenue, "
+              + "updated_at = excluded.updated_at, updated_by = excluded.updated_by",
+      nativeQuery = true)
+  int foldHoursIntoDays(Instant before, String updatedBy);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM product_rollups WHERE granularity = 'HOUR' AND bucket_start < ?1",
+      nativeQuery = true)
+  int deleteHoursBefore(Instant before);
+}
@@ -1,10 +1,30 @@
 package com.fw.irongate.repositories;
 
 import com.fw.irongate.models.entities.RevokedToken;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
 
-  boolean existsByJwt(String jwt);
+  boolean existsByJwtDigest(byte[] jwtDigest);
+
+  List<RevokedToken> findAllByExpiredAtAfter(Instant now);
+
+  /**
+   * Deletes at most <code>chunkSize</code> rows that expired before <code>now</code>, in its own
+   * transaction, so a large backlog never holds locks or bloats WAL in one statement.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM revoked_tokens WHERE id IN "
+              + "(SELECT id FROM revoked_tokens WHERE expired_at <= ?1 LIMIT ?2)",
+      nativeQuery = true)
+  int deleteExpiredChunk(Instant now, int chunkSize);
 }
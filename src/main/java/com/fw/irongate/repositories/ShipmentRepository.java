@@ -1,6 +1,6 @@
 package com.fw.irongate.repositories;
 
-import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.AggregateDTO;
 import com.fw.irongate.models.entities.Shipment;
 import java.util.List;
 import java.util.Optional;
@@ -31,10 +31,23 @@ public interface ShipmentRepository
               + "sh.deletedAt IS NULL")
   Optional<Shipment> findByStatusAndAssignedTo(String status, String assignedTo);
 
+  /**
+   * Ids split into consecutive ranges of <code>chunkSize</code> rows, each as its first and last
+   * id (inclusive).
+   */
   @Query(
-      "SELECT new com.fw.irongate.models.dto.ChartDataDTO(s.status, COUNT(s)) "
+      value =
+          "SELECT MIN(CAST(id AS text) COLLATE \"C\"), MAX(CAST(id AS text) COLLATE \"C\") "
+              + "FROM (SELECT id, (ROW_NUMBER() OVER (ORDER BY id) - 1) / ?1 AS chunk FROM shipments) ids "
+              + "GROUP BY chunk "
+              + "ORDER BY chunk",
+      nativeQuery = true)
+  List<Object[]> findIdRanges(int chunkSize);
+
+  @Query(
+      "SELECT new com.fw.irongate.models.dto.AggregateDTO(s.status, COUNT(s)) "
           + "FROM Shipment s "
-          + "WHERE s.deletedAt IS NULL "
+          + "WHERE s.id BETWEEN ?1 AND ?2 AND s.deletedAt IS NULL "
           + "GROUP BY s.status")
-  List<ChartDataDTO> countShipmentsByStatus();
+  List<AggregateDTO> countShipmentsByStatus(UUID firstId, UUID lastId);
 }
@@ -1,6 +1,7 @@
 package com.fw.irongate.repositories;
 
 import com.fw.irongate.models.entities.Sysconfig;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,9 +9,9 @@ import org.springframework.data.jpa.repository.Query;
 
 public interface SysconfigRepository extends JpaRepository<Sysconfig, UUID> {
 
-  @Query(value = "SELECT s FROM Sysconfig s WHERE s.id = ?1 AND s.deletedAt IS NULL")
-  Optional<Sysconfig> findOneActiveById(UUID id);
-
   @Query(value = "SELECT s FROM Sysconfig s WHERE s.key = ?1 AND s.deletedAt IS NULL")
   Optional<Sysconfig> findByKey(String key);
+
+  @Query(value = "SELECT s FROM Sysconfig s WHERE s.deletedAt IS NULL")
+  List<Sysconfig> findAllActive();
 }
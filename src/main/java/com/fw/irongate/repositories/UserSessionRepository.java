@@ -0,0 +1,25 @@
+package com.fw.irongate.repositories;
+
+import com.fw.irongate.models.entities.UserSession;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UserSessionRepository extends JpaRepository<UserSession, UUID> {
+
+  List<UserSession> findAllByExpiredAtAfter(Instant now);
+
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM UserSession s WHERE s.sessionDigest = ?1")
+  int deleteBySessionDigest(byte[] sessionDigest);
+
+  @Modifying
+  @Transactional
+  @Query(value = "DELETE FROM UserSession s WHERE s.expiredAt <= ?1")
+  int deleteExpired(Instant now);
+}
@@ -9,7 +9,16 @@ import org.springframework.data.jpa.repository.Query;
 @SuppressWarnings("JavadocDeclaration")
 public interface WarehouseUserRepository extends JpaRepository<WarehouseUser, UUID> {
 
-  List<WarehouseUser> findAllByUserId(UUID userId);
+  @Query(
+      value =
+          "SELECT w.id FROM WarehouseUser wu "
+              + "JOIN wu.warehouse w "
+              + "JOIN wu.user u "
+              + "WHERE u.id = ?1 AND "
+              + "wu.deletedAt IS NULL AND "
+              + "w.deletedAt IS NULL AND "
+              + "u.deletedAt IS NULL")
+  List<UUID> findActiveWarehouseIdsByUserId(UUID userId);
 
   /**
    * The query using an explicit join condition (<code>JOIN FETCH User u ON wu.user.id = u.id</code>) instead
@@ -20,21 +29,8 @@ public interface WarehouseUserRepository extends JpaRepository<WarehouseUser, UU
    * scope), the proxy is uninitialized, causing the exception.
    *
    * @param warehouseId
-   * @param userId
    * @return
    */
-  @Query(
-      value =
-          "SELECT wu FROM WarehouseUser wu "
-              + "JOIN FETCH wu.warehouse w "
-              + "JOIN FETCH wu.user u "
-              + "WHERE w.id = ?1 AND "
-              + "u.id = ?2 AND "
-              + "wu.deletedAt IS NULL AND "
-              + "w.deletedAt IS NULL AND "
-              + "u.deletedAt IS NULL")
-  List<WarehouseUser> findByWarehouseIdAndUserId(UUID warehouseId, UUID userId);
-
   @Query(
       value =
           "SELECT wu FROM WarehouseUser wu "
@@ -13,8 +13,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 public class OrderSpecification {
 
-  public static Specification<Order> getSpecification(
-      FilterOrderRequest request, List<UUID> warehouseIds) {
+  public static Specification<Order> getSpecification(FilterOrderRequest request, UUID userId) {
     return (root, query, criteriaBuilder) -> {
       assert query != null;
       if (Long.class != query.getResultType()) {
@@ -61,8 +60,10 @@ public class OrderSpecification {
             criteriaBuilder.like(criteriaBuilder.lower(root.get("status")), searchPattern);
         predicates.add(statusMatch);
       }
-      if (warehouseIds != null && !warehouseIds.isEmpty()) {
-        predicates.add(root.get("warehouse").get("id").in(warehouseIds));
+      if (userId != null) {
+        predicates.add(
+            WarehouseMembership.of(
+                root.get("warehouse").get("id"), userId, query, criteriaBuilder));
       }
       return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     };
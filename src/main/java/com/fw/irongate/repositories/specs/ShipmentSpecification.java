@@ -11,7 +11,7 @@ import org.springframework.data.jpa.domain.Specification;
 public class ShipmentSpecification {
 
   public static Specification<Shipment> getSpecification(
-      FilterShipmentRequest request, List<UUID> warehouseIds) {
+      FilterShipmentRequest request, UUID userId) {
     return (root, query, criteriaBuilder) -> {
       assert query != null;
       if (Long.class != query.getResultType()) {
@@ -69,8 +69,10 @@ public class ShipmentSpecification {
             criteriaBuilder.like(criteriaBuilder.lower(root.get("assignedTo")), searchPattern);
         predicates.add(assignedToMatch);
       }
-      if (warehouseIds != null && !warehouseIds.isEmpty()) {
-        predicates.add(root.get("stock").get("warehouse").get("id").in(warehouseIds));
+      if (userId != null) {
+        predicates.add(
+            WarehouseMembership.of(
+                root.get("stock").get("warehouse").get("id"), userId, query, criteriaBuilder));
       }
       return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     };
@@ -10,8 +10,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 public class StockSpecification {
 
-  public static Specification<Stock> getSpecification(
-      FilterStockRequest request, List<UUID> warehouseIds) {
+  public static Specification<Stock> getSpecification(FilterStockRequest request, UUID userId) {
     return (root, query, criteriaBuilder) -> {
       assert query != null;
       if (Long.class != query.getResultType()) {
@@ -37,8 +36,10 @@ public class StockSpecification {
         predicates.add(
             criteriaBuilder.lessThanOrEqualTo(root.get("quantity"), request.maxQuantity()));
       }
-      if (warehouseIds != null && !warehouseIds.isEmpty()) {
-        predicates.add(root.get("warehouse").get("id").in(warehouseIds));
+      if (userId != null) {
+        predicates.add(
+            WarehouseMembership.of(
+                root.get("warehouse").get("id"), userId, query, criteriaBuilder));
       }
       return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
     };
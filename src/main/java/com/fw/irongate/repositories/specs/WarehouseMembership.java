@@ -0,0 +1,33 @@
+package com.fw.irongate.repositories.specs;
+
+import com.fw.irongate.models.entities.WarehouseUser;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.UUID;
+
+/**
+ * Scopes a query to the warehouses a user is mapped to, as a correlated membership subquery on
+ * <code>warehouses_users</code> rather than an <code>IN (...)</code> list of ids, so the SQL stays
+ * the same size no matter how many warehouses the user covers.
+ */
+final class WarehouseMembership {
+
+  private WarehouseMembership() {}
+
+  static Predicate of(
+      Path<?> warehouseId, UUID userId, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+    Subquery<Integer> subquery = query.subquery(Integer.class);
+    Root<WarehouseUser> wu = subquery.from(WarehouseUser.class);
+    subquery
+        .select(criteriaBuilder.literal(1))
+        .where(
+            criteriaBuilder.equal(wu.get("warehouse").get("id"), warehouseId),
+            criteriaBuilder.equal(wu.get("user").get("id"), userId),
+            criteriaBuilder.isNull(wu.get("deletedAt")));
+    return criteriaBuilder.exists(subquery);
+  }
+}
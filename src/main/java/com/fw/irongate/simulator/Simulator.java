@@ -3,20 +3,22 @@ package com.fw.irongate.simulator;
 import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_CREATED;
 import static com.fw.irongate.constants.SystemConstants.SIMULATION_RUN_FLAG;
 
+import com.fw.irongate.caches.SysconfigRegistry;
 import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.dto.SysconfigDTO;
 import com.fw.irongate.models.entities.Order;
 import com.fw.irongate.models.entities.OrderProduct;
 import com.fw.irongate.models.entities.Product;
-import com.fw.irongate.models.entities.Sysconfig;
 import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.OrderStatus;
 import com.fw.irongate.repositories.OrderProductRepository;
 import com.fw.irongate.repositories.OrderRepository;
 import com.fw.irongate.repositories.ProductRepository;
-import com.fw.irongate.repositories.SysconfigRepository;
 import com.fw.irongate.repositories.WarehouseRepository;
 import com.fw.irongate.usecases.UseCase;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +27,7 @@ import java.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
 
 @UseCase
 public class Simulator {
@@ -46,8 +49,9 @@ public class Simulator {
   private final WarehouseRepository warehouseRepository;
   private final OrderRepository orderRepository;
   private final OrderProductRepository orderProductRepository;
-  private final SysconfigRepository sysconfigRepository;
-  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final SysconfigRegistry sysconfigRegistry;
+  private final DashboardEventOutbox dashboardEventOutbox;
+  private final ChartAggregates chartAggregates;
   private final Random random;
 
   public Simulator(
@@ -55,25 +59,29 @@ public class Simulator {
       WarehouseRepository warehouseRepository,
       OrderRepository orderRepository,
       OrderProductRepository orderProductRepository,
-      SysconfigRepository sysconfigRepository,
-      StreamDashboardUseCase streamDashboardUseCase) {
+      SysconfigRegistry sysconfigRegistry,
+      DashboardEventOutbox dashboardEventOutbox,
+      ChartAggregates chartAggregates) {
     this.productRepository = productRepository;
     this.warehouseRepository = warehouseRepository;
     this.orderRepository = orderRepository;
     this.orderProductRepository = orderProductRepository;
-    this.sysconfigRepository = sysconfigRepository;
-    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.sysconfigRegistry = sysconfigRegistry;
+    this.dashboardEventOutbox = dashboardEventOutbox;
+    this.chartAggregates = chartAggregates;
     this.random = new Random();
   }
 
+  /* the order, its products and the chart aggregates are committed together */
+  @Transactional
   @Scheduled(cron = "0 */2 * * * *")
   public void task() {
-    Optional<Sysconfig> optSysconfig = sysconfigRepository.findByKey(SIMULATION_RUN_FLAG);
+    Optional<SysconfigDTO> optSysconfig = sysconfigRegistry.findByKey(SIMULATION_RUN_FLAG);
     if (optSysconfig.isEmpty()) {
       return;
     }
-    Sysconfig sysconfig = optSysconfig.get();
-    if (!sysconfig.getValue().equals("true")) {
+    SysconfigDTO sysconfig = optSysconfig.get();
+    if (!sysconfig.value().equals("true")) {
       return;
     }
     if (productRepository.findAll().isEmpty()) {
@@ -114,7 +122,10 @@ public class Simulator {
             .reduce(BigDecimal.ZERO, BigDecimal::add));
     orderRepository.save(order);
     orderProductRepository.saveAll(orderProducts);
-    streamDashboardUseCase.broadcast(new DashboardEventDTO(EVENT_ORDER_CREATED));
+    chartAggregates.orderCreated(order);
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_ORDER_CREATED, DashboardEventCategory.ORDER, order.getWarehouse().getId()));
   }
 
   private Product getRandomProduct() {
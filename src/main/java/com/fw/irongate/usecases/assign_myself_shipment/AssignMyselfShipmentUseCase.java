@@ -6,21 +6,23 @@ import static com.fw.irongate.constants.MessageConstants.SHIPMENT_NOT_FOUND;
 import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
 import static com.fw.irongate.constants.SystemConstants.OK;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Shipment;
-import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.ShipmentStatus;
 import com.fw.irongate.repositories.ShipmentRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.usecases.UseCase;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.MessageResponse;
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Important Limitation:<br>
@@ -35,21 +37,28 @@ import org.springframework.scheduling.TaskScheduler;
 public class AssignMyselfShipmentUseCase {
 
   private final ShipmentRepository shipmentRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
   private final TaskScheduler taskScheduler;
-  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final DashboardEventOutbox dashboardEventOutbox;
+  private final ChartAggregates chartAggregates;
+  private final TransactionTemplate transactionTemplate;
 
   public AssignMyselfShipmentUseCase(
       ShipmentRepository shipmentRepository,
-      WarehouseUserRepository warehouseUserRepository,
+      WarehouseAccessService warehouseAccessService,
       TaskScheduler taskScheduler,
-      StreamDashboardUseCase streamDashboardUseCase) {
+      DashboardEventOutbox dashboardEventOutbox,
+      ChartAggregates chartAggregates,
+      TransactionTemplate transactionTemplate) {
     this.shipmentRepository = shipmentRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
     this.taskScheduler = taskScheduler;
-    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.dashboardEventOutbox = dashboardEventOutbox;
+    this.chartAggregates = chartAggregates;
+    this.transactionTemplate = transactionTemplate;
   }
 
+  @Transactional
   public MessageResponse handle(JwtClaimDTO jwtClaimDTO, UUID shipmentId) {
     /* check if the shipment exists */
     Optional<Shipment> optShipment = shipmentRepository.findByIdWithRelations(shipmentId);
@@ -63,10 +72,8 @@ public class AssignMyselfShipmentUseCase {
     }
     /* check if the user picking up the shipment (a.k.a the driver) */
     /* is a driver belongs to the origin warehouse */
-    List<WarehouseUser> warehouseUsers =
-        warehouseUserRepository.findByWarehouseIdAndUserId(
-            shipment.getStock().getWarehouse().getId(), jwtClaimDTO.userId());
-    if (warehouseUsers.isEmpty()) {
+    if (!warehouseAccessService.isMember(
+        jwtClaimDTO.userId(), shipment.getStock().getWarehouse().getId())) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
     /* check if the driver is currently assigned to */
@@ -82,19 +89,35 @@ public class AssignMyselfShipmentUseCase {
     shipment.setAssignedTo(jwtClaimDTO.email());
     shipment.setStatus(ShipmentStatus.IN_DELIVERY.name());
     shipmentRepository.save(shipment);
+    chartAggregates.shipmentStatusChanged(shipment, ShipmentStatus.PENDING.name());
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_SHIPMENT_UPDATED,
+            DashboardEventCategory.SHIPMENT,
+            shipment.getStock().getWarehouse().getId()));
+    /* the scheduler calls this object directly, not through its transactional proxy */
     taskScheduler.schedule(
-        () -> progressShipmentToNextState(shipment.getId()), Instant.now().plusSeconds(10));
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> progressShipmentToNextState(shipment.getId())),
+        Instant.now().plusSeconds(10));
     return new MessageResponse(OK);
   }
 
   public void progressShipmentToNextState(UUID shipmentId) {
-    Optional<Shipment> optShipment = shipmentRepository.findById(shipmentId);
+    Optional<Shipment> optShipment = shipmentRepository.findByIdWithRelations(shipmentId);
     if (optShipment.isEmpty()) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
     Shipment shipment = optShipment.get();
+    String previousStatus = shipment.getStatus();
     shipment.setStatus(ShipmentStatus.ALMOST_THERE.name());
     shipmentRepository.save(shipment);
-    streamDashboardUseCase.broadcast(new DashboardEventDTO(EVENT_SHIPMENT_UPDATED));
+    chartAggregates.shipmentStatusChanged(shipment, previousStatus);
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_SHIPMENT_UPDATED,
+            DashboardEventCategory.SHIPMENT,
+            shipment.getStock().getWarehouse().getId()));
   }
 }
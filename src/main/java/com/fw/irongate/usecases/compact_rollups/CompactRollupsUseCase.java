@@ -0,0 +1,62 @@
+package com.fw.irongate.usecases.compact_rollups;
+
+import com.fw.irongate.models.enums.RollupGranularity;
+import com.fw.irongate.repositories.OrderRollupRepository;
+import com.fw.irongate.repositories.ProductRollupRepository;
+import com.fw.irongate.usecases.UseCase;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Folds the HOUR rollups of every (UTC) day that ended more than <code>
+ * rollups.hourly_retention_in_hour</code> ago into DAY rows, and deletes them, in one transaction.
+ * The rollup tables then hold a bounded number of hourly rows plus one row per day, whatever the
+ * order history.<br>
+ * Orders only ever write the current hour, so nothing writes the hours being folded. Compactions
+ * are serialized across nodes by an advisory lock taken at the start of the transaction; a node
+ * that finds it held skips its run, since the holder folds the same hours.
+ */
+@UseCase
+public class CompactRollupsUseCase {
+
+  private static final Logger log = LoggerFactory.getLogger(CompactRollupsUseCase.class);
+  private static final String COMPACTED_BY = "system";
+  /* arbitrary, only has to differ from other advisory lock keys */
+  private static final long COMPACTION_LOCK = 0x726f6c6c757073L;
+  private final OrderRollupRepository orderRollupRepository;
+  private final ProductRollupRepository productRollupRepository;
+  private final Duration hourlyRetention;
+
+  public CompactRollupsUseCase(
+      OrderRollupRepository orderRollupRepository,
+      ProductRollupRepository productRollupRepository,
+      @Value("${rollups.hourly_retention_in_hour:48}") long hourlyRetentionInHour) {
+    this.orderRollupRepository = orderRollupRepository;
+    this.productRollupRepository = productRollupRepository;
+    this.hourlyRetention = Duration.ofHours(hourlyRetentionInHour);
+  }
+
+  @Transactional
+  @Scheduled(fixedDelayString = "${rollups.compaction_interval_in_millisecond:3600000}")
+  public int handle() {
+    if (!orderRollupRepository.tryAdvisoryLock(COMPACTION_LOCK)) {
+      log.debug("Rollup compaction already running on another node, skipped");
+      return 0;
+    }
+    Instant before = RollupGranularity.DAY.bucketOf(Instant.now().minus(hourlyRetention));
+    orderRollupRepository.foldHoursIntoDays(before, COMPACTED_BY);
+    productRollupRepository.foldHoursIntoDays(before, COMPACTED_BY);
+    int compacted =
+        orderRollupRepository.deleteHoursBefore(before)
+            + productRollupRepository.deleteHoursBefore(before);
+    if (compacted > 0) {
+      log.info("Compacted {} hourly rollups before {}", compacted, before);
+    }
+    return compacted;
+  }
+}
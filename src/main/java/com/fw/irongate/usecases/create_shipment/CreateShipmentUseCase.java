@@ -6,23 +6,23 @@ import static com.fw.irongate.constants.MessageConstants.OPERATION_NOT_PERMITTED
 import static com.fw.irongate.constants.MessageConstants.STOCK_NOT_FOUND;
 import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_CREATED;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Shipment;
 import com.fw.irongate.models.entities.Stock;
 import com.fw.irongate.models.entities.Warehouse;
-import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.ShipmentStatus;
 import com.fw.irongate.repositories.CounterRepository;
 import com.fw.irongate.repositories.ShipmentRepository;
 import com.fw.irongate.repositories.StockRepository;
 import com.fw.irongate.repositories.WarehouseRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.usecases.UseCase;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.IdResponse;
 import java.time.ZonedDateTime;
-import java.util.List;
 import java.util.Optional;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,25 +30,28 @@ import org.springframework.transaction.annotation.Transactional;
 public class CreateShipmentUseCase {
 
   private final StockRepository stockRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
   private final WarehouseRepository warehouseRepository;
   private final ShipmentRepository shipmentRepository;
   private final CounterRepository counterRepository;
-  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final DashboardEventOutbox dashboardEventOutbox;
+  private final ChartAggregates chartAggregates;
 
   public CreateShipmentUseCase(
       StockRepository stockRepository,
-      WarehouseUserRepository warehouseUserRepository,
+      WarehouseAccessService warehouseAccessService,
       WarehouseRepository warehouseRepository,
       ShipmentRepository shipmentRepository,
       CounterRepository counterRepository,
-      StreamDashboardUseCase streamDashboardUseCase) {
+      DashboardEventOutbox dashboardEventOutbox,
+      ChartAggregates chartAggregates) {
     this.stockRepository = stockRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
     this.warehouseRepository = warehouseRepository;
     this.shipmentRepository = shipmentRepository;
     this.counterRepository = counterRepository;
-    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.dashboardEventOutbox = dashboardEventOutbox;
+    this.chartAggregates = chartAggregates;
   }
 
   @Transactional
@@ -62,10 +65,7 @@ public class CreateShipmentUseCase {
     /* check if there is warehouses_users mapping */
     /* between the warehouse related to the given stock (source warehouse) */
     /* and the user requesting the shipment */
-    List<WarehouseUser> warehouseUsers =
-        warehouseUserRepository.findByWarehouseIdAndUserId(
-            stock.getWarehouse().getId(), jwtClaimDTO.userId());
-    if (warehouseUsers.isEmpty()) {
+    if (!warehouseAccessService.isMember(jwtClaimDTO.userId(), stock.getWarehouse().getId())) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
     /* check if (quantity - allocated) in the stock satisfies */
@@ -93,11 +93,14 @@ public class CreateShipmentUseCase {
     shipment.setStatus(ShipmentStatus.PENDING.name());
     shipment.setCode(generateShipmentCode(stock.getWarehouse(), optDestWarehouse.get()));
     shipment = shipmentRepository.save(shipment);
-    /* send event to frontend */
-    streamDashboardUseCase.broadcast(new DashboardEventDTO(EVENT_SHIPMENT_CREATED));
+    chartAggregates.shipmentCreated(shipment);
     /* increment stock.allocated */
     stock.setAllocated(stock.getAllocated() + shipment.getQuantity());
     stockRepository.save(stock);
+    /* send event to frontend once the shipment and the allocation are committed */
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_SHIPMENT_CREATED, DashboardEventCategory.SHIPMENT, stock.getWarehouse().getId()));
     return new IdResponse(shipment.getId());
   }
 
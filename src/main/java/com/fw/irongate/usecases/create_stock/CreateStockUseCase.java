@@ -4,37 +4,40 @@ import static com.fw.irongate.constants.MessageConstants.OPERATION_NOT_PERMITTED
 import static com.fw.irongate.constants.MessageConstants.PRODUCT_NOT_FOUND;
 import static com.fw.irongate.constants.SystemConstants.EVENT_STOCK_CREATED;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Product;
 import com.fw.irongate.models.entities.Stock;
-import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.repositories.ProductRepository;
 import com.fw.irongate.repositories.StockRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
+import com.fw.irongate.repositories.WarehouseRepository;
 import com.fw.irongate.usecases.UseCase;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.IdResponse;
-import java.util.List;
 import java.util.Optional;
 
 @UseCase
 public class CreateStockUseCase {
 
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
+  private final WarehouseRepository warehouseRepository;
   private final ProductRepository productRepository;
   private final StockRepository stockRepository;
-  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final DashboardEventOutbox dashboardEventOutbox;
 
   public CreateStockUseCase(
-      WarehouseUserRepository warehouseUserRepository,
+      WarehouseAccessService warehouseAccessService,
+      WarehouseRepository warehouseRepository,
       ProductRepository productRepository,
       StockRepository stockRepository,
-      StreamDashboardUseCase streamDashboardUseCase) {
-    this.warehouseUserRepository = warehouseUserRepository;
+      DashboardEventOutbox dashboardEventOutbox) {
+    this.warehouseAccessService = warehouseAccessService;
+    this.warehouseRepository = warehouseRepository;
     this.productRepository = productRepository;
     this.stockRepository = stockRepository;
-    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.dashboardEventOutbox = dashboardEventOutbox;
   }
 
   public IdResponse handle(JwtClaimDTO jwtClaimDTO, CreateStockRequest request) {
@@ -42,13 +45,9 @@ public class CreateStockUseCase {
     /* - the warehouse exists; */
     /* - the user exists; */
     /* - the user is allowed to create stock in that warehouse */
-    List<WarehouseUser> warehouseUsers =
-        warehouseUserRepository.findByWarehouseIdAndUserId(
-            request.warehouseId(), jwtClaimDTO.userId());
-    if (warehouseUsers.isEmpty()) {
+    if (!warehouseAccessService.isMember(jwtClaimDTO.userId(), request.warehouseId())) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
-    WarehouseUser wu = warehouseUsers.getFirst();
     /* check if the product exists */
     Optional<Product> optProduct = productRepository.findById(request.productId());
     if (optProduct.isEmpty()) {
@@ -57,7 +56,7 @@ public class CreateStockUseCase {
     /* check if the requested stock exists */
     Optional<Stock> optStock =
         stockRepository.findByWarehouseIdAndProductId(
-            wu.getWarehouse().getId(), optProduct.get().getId());
+            request.warehouseId(), optProduct.get().getId());
     Stock stock;
     if (optStock.isPresent()) {
       /* if it does, update the existing stock */
@@ -71,12 +70,15 @@ public class CreateStockUseCase {
       stock.setCreatedBy(jwtClaimDTO.email());
       stock.setUpdatedBy(jwtClaimDTO.email());
       stock.setProduct(optProduct.get());
-      stock.setWarehouse(wu.getWarehouse());
+      /* membership was verified above, a reference is enough for the foreign key */
+      stock.setWarehouse(warehouseRepository.getReferenceById(request.warehouseId()));
       stock.setQuantity(request.quantity().intValue());
       stock = stockRepository.save(stock);
     }
     /* send event to frontend */
-    streamDashboardUseCase.broadcast(new DashboardEventDTO(EVENT_STOCK_CREATED));
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_STOCK_CREATED, DashboardEventCategory.STOCK, request.warehouseId()));
     return new IdResponse(stock.getId());
   }
 }
@@ -2,19 +2,16 @@ package com.fw.irongate.usecases.filter_order;
 
 import static com.fw.irongate.constants.MessageConstants.NOT_TIED_TO_WAREHOUSE;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.OrderDTO;
 import com.fw.irongate.models.dto.OrderProductDTO;
 import com.fw.irongate.models.entities.Order;
-import com.fw.irongate.models.entities.Warehouse;
-import com.fw.irongate.models.entities.WarehouseUser;
 import com.fw.irongate.repositories.OrderRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.repositories.specs.OrderSpecification;
 import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.web.responses.PaginatedResponse;
 import java.util.List;
-import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,28 +21,23 @@ import org.springframework.data.domain.Sort;
 public class FilterOrderUseCase {
 
   private final OrderRepository orderRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
 
   public FilterOrderUseCase(
-      OrderRepository orderRepository, WarehouseUserRepository warehouseUserRepository) {
+      OrderRepository orderRepository, WarehouseAccessService warehouseAccessService) {
     this.orderRepository = orderRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
   }
 
   public PaginatedResponse<OrderDTO> handle(JwtClaimDTO jwtClaimDTO, FilterOrderRequest request) {
-    List<UUID> warehouseIds =
-        warehouseUserRepository.findAllByUserId(jwtClaimDTO.userId()).stream()
-            .map(WarehouseUser::getWarehouse)
-            .map(Warehouse::getId)
-            .toList();
-    if (warehouseIds.isEmpty()) {
+    if (warehouseAccessService.getWarehouseIds(jwtClaimDTO.userId()).isEmpty()) {
       throw new IllegalArgumentException(NOT_TIED_TO_WAREHOUSE);
     }
     Pageable pageable =
         PageRequest.of(request.page(), request.size(), Sort.by("createdAt").descending());
     Page<Order> orderPage =
         orderRepository.findAll(
-            OrderSpecification.getSpecification(request, warehouseIds), pageable);
+            OrderSpecification.getSpecification(request, jwtClaimDTO.userId()), pageable);
     List<OrderDTO> dtos =
         orderPage.getContent().stream()
             .map(
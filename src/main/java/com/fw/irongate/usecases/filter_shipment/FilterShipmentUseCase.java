@@ -2,18 +2,15 @@ package com.fw.irongate.usecases.filter_shipment;
 
 import static com.fw.irongate.constants.MessageConstants.NOT_TIED_TO_WAREHOUSE;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.ShipmentDTO;
 import com.fw.irongate.models.entities.Shipment;
-import com.fw.irongate.models.entities.Warehouse;
-import com.fw.irongate.models.entities.WarehouseUser;
 import com.fw.irongate.repositories.ShipmentRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.repositories.specs.ShipmentSpecification;
 import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.web.responses.PaginatedResponse;
 import java.util.List;
-import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,29 +20,24 @@ import org.springframework.data.domain.Sort;
 public class FilterShipmentUseCase {
 
   private final ShipmentRepository shipmentRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
 
   public FilterShipmentUseCase(
-      ShipmentRepository shipmentRepository, WarehouseUserRepository warehouseUserRepository) {
+      ShipmentRepository shipmentRepository, WarehouseAccessService warehouseAccessService) {
     this.shipmentRepository = shipmentRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
   }
 
   public PaginatedResponse<ShipmentDTO> handle(
       JwtClaimDTO jwtClaimDTO, FilterShipmentRequest request) {
-    List<UUID> warehouseIds =
-        warehouseUserRepository.findAllByUserId(jwtClaimDTO.userId()).stream()
-            .map(WarehouseUser::getWarehouse)
-            .map(Warehouse::getId)
-            .toList();
-    if (warehouseIds.isEmpty()) {
+    if (warehouseAccessService.getWarehouseIds(jwtClaimDTO.userId()).isEmpty()) {
       throw new IllegalArgumentException(NOT_TIED_TO_WAREHOUSE);
     }
     Pageable pageable =
         PageRequest.of(request.page(), request.size(), Sort.by("createdAt").descending());
     Page<Shipment> shipmentPage =
         shipmentRepository.findAll(
-            ShipmentSpecification.getSpecification(request, warehouseIds), pageable);
+            ShipmentSpecification.getSpecification(request, jwtClaimDTO.userId()), pageable);
     List<ShipmentDTO> shipmentDTOList =
         shipmentPage.getContent().stream()
             .map(
@@ -2,18 +2,15 @@ package com.fw.irongate.usecases.filter_stock;
 
 import static com.fw.irongate.constants.MessageConstants.NOT_TIED_TO_WAREHOUSE;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.StockDTO;
 import com.fw.irongate.models.entities.Stock;
-import com.fw.irongate.models.entities.Warehouse;
-import com.fw.irongate.models.entities.WarehouseUser;
 import com.fw.irongate.repositories.StockRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.repositories.specs.StockSpecification;
 import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.web.responses.PaginatedResponse;
 import java.util.List;
-import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,28 +20,23 @@ import org.springframework.data.domain.Sort;
 public class FilterStockUseCase {
 
   private final StockRepository stockRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
 
   public FilterStockUseCase(
-      StockRepository stockRepository, WarehouseUserRepository warehouseUserRepository) {
+      StockRepository stockRepository, WarehouseAccessService warehouseAccessService) {
     this.stockRepository = stockRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
   }
 
   public PaginatedResponse<StockDTO> handle(JwtClaimDTO jwtClaimDTO, FilterStockRequest request) {
-    List<UUID> warehouseIds =
-        warehouseUserRepository.findAllByUserId(jwtClaimDTO.userId()).stream()
-            .map(WarehouseUser::getWarehouse)
-            .map(Warehouse::getId)
-            .toList();
-    if (warehouseIds.isEmpty()) {
+    if (warehouseAccessService.getWarehouseIds(jwtClaimDTO.userId()).isEmpty()) {
       throw new IllegalArgumentException(NOT_TIED_TO_WAREHOUSE);
     }
     Pageable pageable =
         PageRequest.of(request.page(), request.size(), Sort.by("createdAt").descending());
     Page<Stock> stockPage =
         stockRepository.findAll(
-            StockSpecification.getSpecification(request, warehouseIds), pageable);
+            StockSpecification.getSpecification(request, jwtClaimDTO.userId()), pageable);
     List<StockDTO> stockDTOList =
         stockPage.getContent().stream()
             .map(
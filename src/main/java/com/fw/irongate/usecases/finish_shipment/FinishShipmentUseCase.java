@@ -3,15 +3,20 @@ package com.fw.irongate.usecases.finish_shipment;
 import static com.fw.irongate.constants.MessageConstants.INVALID_STATE;
 import static com.fw.irongate.constants.MessageConstants.OPERATION_NOT_PERMITTED;
 import static com.fw.irongate.constants.MessageConstants.SHIPMENT_NOT_FOUND;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
 import static com.fw.irongate.constants.SystemConstants.OK;
 
+import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Shipment;
 import com.fw.irongate.models.entities.Stock;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.ShipmentStatus;
 import com.fw.irongate.repositories.ShipmentRepository;
 import com.fw.irongate.repositories.StockRepository;
 import com.fw.irongate.usecases.UseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.MessageResponse;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,11 +27,18 @@ public class FinishShipmentUseCase {
 
   private final ShipmentRepository shipmentRepository;
   private final StockRepository stockRepository;
+  private final ChartAggregates chartAggregates;
+  private final DashboardEventOutbox dashboardEventOutbox;
 
   public FinishShipmentUseCase(
-      ShipmentRepository shipmentRepository, StockRepository stockRepository) {
+      ShipmentRepository shipmentRepository,
+      StockRepository stockRepository,
+      ChartAggregates chartAggregates,
+      DashboardEventOutbox dashboardEventOutbox) {
     this.shipmentRepository = shipmentRepository;
     this.stockRepository = stockRepository;
+    this.chartAggregates = chartAggregates;
+    this.dashboardEventOutbox = dashboardEventOutbox;
   }
 
   @Transactional
@@ -56,7 +68,11 @@ public class FinishShipmentUseCase {
     shipment.setStatus(ShipmentStatus.DELIVERED.name());
     shipment.setUpdatedBy(jwtClaimDTO.email());
     shipmentRepository.save(shipment);
+    chartAggregates.shipmentStatusChanged(shipment, ShipmentStatus.ALMOST_THERE.name());
     updateNewStockInDestWarehouse(jwtClaimDTO, shipment);
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_SHIPMENT_UPDATED, DashboardEventCategory.SHIPMENT, stock.getWarehouse().getId()));
     return new MessageResponse(OK);
   }
 
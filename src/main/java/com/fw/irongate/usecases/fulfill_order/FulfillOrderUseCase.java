@@ -6,17 +6,18 @@ import static com.fw.irongate.constants.MessageConstants.PRODUCT_QUANTITY_REQUIR
 import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_UPDATED;
 import static com.fw.irongate.constants.SystemConstants.OK;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Order;
 import com.fw.irongate.models.entities.Stock;
-import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.OrderStatus;
 import com.fw.irongate.repositories.OrderRepository;
 import com.fw.irongate.repositories.StockRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.usecases.UseCase;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.MessageResponse;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,19 +29,22 @@ import org.springframework.transaction.annotation.Transactional;
 public class FulfillOrderUseCase {
 
   private final OrderRepository orderRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
   private final StockRepository stockRepository;
-  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final DashboardEventOutbox dashboardEventOutbox;
+  private final ChartAggregates chartAggregates;
 
   public FulfillOrderUseCase(
       OrderRepository orderRepository,
-      WarehouseUserRepository warehouseUserRepository,
+      WarehouseAccessService warehouseAccessService,
       StockRepository stockRepository,
-      StreamDashboardUseCase streamDashboardUseCase) {
+      DashboardEventOutbox dashboardEventOutbox,
+      ChartAggregates chartAggregates) {
     this.orderRepository = orderRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
     this.stockRepository = stockRepository;
-    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.dashboardEventOutbox = dashboardEventOutbox;
+    this.chartAggregates = chartAggregates;
   }
 
   @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -59,10 +63,7 @@ public class FulfillOrderUseCase {
     }
     /* check if the user fulfilling the order tied */
     /* to the warehouse related to the order */
-    List<WarehouseUser> warehouseUsers =
-        warehouseUserRepository.findByWarehouseIdAndUserId(
-            order.getWarehouse().getId(), jwtClaimDTO.userId());
-    if (warehouseUsers.isEmpty()) {
+    if (!warehouseAccessService.isMember(jwtClaimDTO.userId(), order.getWarehouse().getId())) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
     /* check if the quantity in stock suffice */
@@ -101,8 +102,11 @@ public class FulfillOrderUseCase {
     order.setUpdatedBy(jwtClaimDTO.email());
     order.setStatus(OrderStatus.COMPLETED.name());
     orderRepository.save(order);
+    chartAggregates.orderStatusChanged(order, OrderStatus.PENDING.name());
     /* send event to frontend */
-    streamDashboardUseCase.broadcast(new DashboardEventDTO(EVENT_ORDER_UPDATED));
+    dashboardEventOutbox.add(
+        new DashboardEventDTO(
+            EVENT_ORDER_UPDATED, DashboardEventCategory.ORDER, order.getWarehouse().getId()));
     return new MessageResponse(OK);
   }
 }
@@ -0,0 +1,151 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import com.fw.irongate.models.entities.Order;
+import com.fw.irongate.models.entities.OrderProduct;
+import com.fw.irongate.models.entities.Shipment;
+import com.fw.irongate.models.enums.OrderStatus;
+import com.fw.irongate.models.enums.RollupGranularity;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
+import com.fw.irongate.repositories.OrderRollupRepository;
+import com.fw.irongate.repositories.ProductRollupRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the <code>dashboard_aggregates</code> rows in step with the orders and shipments, in the
+ * transaction of the use case that changes them (hence MANDATORY): a rolled back use case leaves
+ * the charts untouched. Each call is an upsert of a few rows, whatever the order history.<br>
+ * The rows of a call are always written in the same (section, label) order, so two transactions
+ * touching the same bars wait for each other instead of deadlocking.<br>
+ * The rows can be recomputed from scratch with {@link
+ * com.fw.irongate.usecases.rebuild_dashboard_aggregates.RebuildDashboardAggregatesUseCase}.<br>
+ * Orders also go into the current HOUR bucket of <code>order_rollups</code> (the status they
+ * enter) and, on completion, of <code>product_rollups</code>, after the chart bars and again in a
+ * fixed order. The buckets are folded into days by {@link
+ * com.fw.irongate.usecases.compact_rollups.CompactRollupsUseCase}.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class ChartAggregates {
+
+  private static final Comparator<Bar> BAR_ORDER =
+      Comparator.comparing(Bar::section).thenComparing(Bar::label);
+  private final DashboardAggregateRepository dashboardAggregateRepository;
+  private final OrderRollupRepository orderRollupRepository;
+  private final ProductRollupRepository productRollupRepository;
+  private final TopKSketches topKSketches;
+
+  public ChartAggregates(
+      DashboardAggregateRepository dashboardAggregateRepository,
+      OrderRollupRepository orderRollupRepository,
+      ProductRollupRepository productRollupRepository,
+      TopKSketches topKSketches) {
+    this.dashboardAggregateRepository = dashboardAggregateRepository;
+    this.orderRollupRepository = orderRollupRepository;
+    this.productRollupRepository = productRollupRepository;
+    this.topKSketches = topKSketches;
+  }
+
+  public void orderCreated(Order order) {
+    Map<Bar, BigDecimal> changes = new TreeMap<>(BAR_ORDER);
+    add(changes, ChartSection.ORDERS_BY_STATUS, order.getStatus(), BigDecimal.ONE);
+    apply(changes, order.getUpdatedBy());
+    rollUp(order, false);
+  }
+
+  /** To be called once the order carries its new status; completion books its sales. */
+  public void orderStatusChanged(Order order, String previousStatus) {
+    Map<Bar, BigDecimal> changes = new TreeMap<>(BAR_ORDER);
+    add(changes, ChartSection.ORDERS_BY_STATUS, previousStatus, BigDecimal.ONE.negate());
+    add(changes, ChartSection.ORDERS_BY_STATUS, order.getStatus(), BigDecimal.ONE);
+    if (order.getStatus().equals(OrderStatus.COMPLETED.name())) {
+      add(
+          changes,
+          ChartSection.TOP_REVENUE_BY_WAREHOUSE,
+          order.getWarehouse().getName(),
+          order.getTotalPrice());
+      for (OrderProduct orderProduct : order.getOrderProducts()) {
+        add(
+            changes,
+            ChartSection.TOP_SELLING_PRODUCTS,
+            orderProduct.getProduct().getName(),
+            BigDecimal.valueOf(orderProduct.getQuantity()));
+      }
+      topKSketches.orderCompleted(order);
+    }
+    apply(changes, order.getUpdatedBy());
+    rollUp(order, order.getStatus().equals(OrderStatus.COMPLETED.name()));
+  }
+
+  public void shipmentCreated(Shipment shipment) {
+    Map<Bar, BigDecimal> changes = new TreeMap<>(BAR_ORDER);
+    add(changes, ChartSection.SHIPMENTS_BY_STATUS, shipment.getStatus(), BigDecimal.ONE);
+    apply(changes, shipment.getUpdatedBy());
+  }
+
+  /** To be called once the shipment carries its new status. */
+  public void shipmentStatusChanged(Shipment shipment, String previousStatus) {
+    Map<Bar, BigDecimal> changes = new TreeMap<>(BAR_ORDER);
+    add(changes, ChartSection.SHIPMENTS_BY_STATUS, previousStatus, BigDecimal.ONE.negate());
+    add(changes, ChartSection.SHIPMENTS_BY_STATUS, shipment.getStatus(), BigDecimal.ONE);
+    apply(changes, shipment.getUpdatedBy());
+  }
+
+  private static void add(
+      Map<Bar, BigDecimal> changes, ChartSection section, String label, BigDecimal amount) {
+    changes.merge(new Bar(section.name(), label), amount, BigDecimal::add);
+  }
+
+  private void apply(Map<Bar, BigDecimal> changes, String updatedBy) {
+    changes.forEach(
+        (bar, amount) -> {
+          if (amount.signum() != 0) {
+            dashboardAggregateRepository.add(bar.section(), bar.label(), amount, updatedBy);
+          }
+        });
+  }
+
+  private void rollUp(Order order, boolean sold) {
+    String hour = RollupGranularity.HOUR.name();
+    Instant bucket = RollupGranularity.HOUR.bucketOf(Instant.now());
+    orderRollupRepository.add(
+        hour,
+        bucket,
+        order.getWarehouse().getId(),
+        order.getStatus(),
+        1,
+        order.getTotalPrice(),
+        order.getUpdatedBy());
+    if (!sold) {
+      return;
+    }
+    Map<UUID, Sale> sales = new TreeMap<>();
+    for (OrderProduct orderProduct : order.getOrderProducts()) {
+      BigDecimal quantity = BigDecimal.valueOf(orderProduct.getQuantity());
+      sales.merge(
+          orderProduct.getProduct().getId(),
+          new Sale(orderProduct.getQuantity(), orderProduct.getPrice().multiply(quantity)),
+          Sale::plus);
+    }
+    sales.forEach(
+        (productId, sale) ->
+            productRollupRepository.add(
+                hour, bucket, productId, sale.units(), sale.revenue(), order.getUpdatedBy()));
+  }
+
+  private record Bar(String section, String label) {}
+
+  private record Sale(long units, BigDecimal revenue) {
+
+    Sale plus(Sale other) {
+      return new Sale(units + other.units, revenue.add(other.revenue));
+    }
+  }
+}
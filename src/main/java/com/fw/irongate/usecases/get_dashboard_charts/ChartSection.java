@@ -0,0 +1,29 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_CREATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_CREATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/** The independently refreshable parts of {@link com.fw.irongate.models.dto.DashboardChartsDTO}. */
+public enum ChartSection {
+  ORDERS_BY_STATUS,
+  SHIPMENTS_BY_STATUS,
+  TOP_REVENUE_BY_WAREHOUSE,
+  TOP_SELLING_PRODUCTS;
+
+  /** The sections a dashboard event can change; unknown types (e.g. stock) change none. */
+  public static Set<ChartSection> affectedBy(String eventType) {
+    return switch (eventType) {
+      case EVENT_ORDER_CREATED, EVENT_ORDER_UPDATED -> EnumSet.of(
+          ORDERS_BY_STATUS, TOP_REVENUE_BY_WAREHOUSE, TOP_SELLING_PRODUCTS);
+      case EVENT_SHIPMENT_CREATED, EVENT_SHIPMENT_UPDATED -> EnumSet.of(SHIPMENTS_BY_STATUS);
+      case EVENT_RESYNC -> EnumSet.allOf(ChartSection.class);
+      default -> EnumSet.noneOf(ChartSection.class);
+    };
+  }
+}
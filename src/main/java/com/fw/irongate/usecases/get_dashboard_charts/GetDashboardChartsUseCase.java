@@ -1,38 +1,288 @@
 package com.fw.irongate.usecases.get_dashboard_charts;
 
 import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
 import com.fw.irongate.models.dto.DashboardChartsDTO;
-import com.fw.irongate.repositories.OrderProductRepository;
-import com.fw.irongate.repositories.OrderRepository;
-import com.fw.irongate.repositories.ShipmentRepository;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
 import com.fw.irongate.usecases.UseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Full chart snapshots for GET /api/dashboard/charts, and versioned deltas for the dashboard
+ * stream.<br>
+ * Every section is read from the <code>dashboard_aggregates</code> rows maintained by {@link
+ * ChartAggregates}, an index range scan of a handful of rows instead of a GROUP BY over the whole
+ * order history.<br>
+ * {@link #computeDelta(Set)} re-queries only the requested sections, compares them with what the
+ * previous delta pushed and bumps the version only when something changed. It runs once per
+ * (coalesced) event on this node, however many dashboards are connected.<br>
+ * {@link #handle()} serves a cached snapshot, since every dashboard refetches the same charts on
+ * load and after events. Concurrent misses share a single load (single-flight). The snapshot is
+ * dropped by {@link #invalidate(Set)} (called for every dashboard event reaching this node, before
+ * it is delivered) and whenever a delta bumps the version, and is never served older than <code>
+ * dashboard_charts.cache.max_staleness_in_millisecond</code>, which bounds how long an event lost
+ * between nodes leaves it stale.<br>
+ * A load runs the four section queries at once on virtual threads, each in a read-only transaction
+ * whose timeout becomes the statement timeout, and waits for them until <code>
+ * dashboard_charts.query.timeout_in_millisecond</code>. A section that misses the deadline (or
+ * fails) is answered from the previous snapshot and listed in <code>staleSections</code>; such a
+ * partial snapshot is never served from the cache.<br>
+ * With <code>top_k.enabled</code> the two top sections come from {@link TopKSketches} instead.
+ */
 @UseCase
 public class GetDashboardChartsUseCase {
 
-  private final OrderRepository orderRepository;
-  private final ShipmentRepository shipmentRepository;
-  private final OrderProductRepository orderProductRepository;
+  private static final Logger log = LoggerFactory.getLogger(GetDashboardChartsUseCase.class);
+  private static final Pageable TOP_5 = PageRequest.of(0, 5);
+  private final DashboardAggregateRepository dashboardAggregateRepository;
+  private final TopKSketches topKSketches;
+  private final TransactionTemplate queryTransaction;
+  private final ExecutorService queryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+  private final long queryTimeoutInNanos;
+  private final Map<ChartSection, Timer> queryTimers = new EnumMap<>(ChartSection.class);
+  private final Map<ChartSection, Counter> staleCounters = new EnumMap<>(ChartSection.class);
+  /* guarded by this */
+  private final Map<ChartSection, List<ChartDataDTO>> pushed = new EnumMap<>(ChartSection.class);
+  private volatile long version;
+  /* bumped by every invalidation; a snapshot is only served to callers that arrived after the */
+  /* load it came from started */
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+  private final AtomicReference<Load> loading = new AtomicReference<>();
+  private final long maxStalenessInNanos;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter coalesced;
 
   public GetDashboardChartsUseCase(
-      OrderRepository orderRepository,
-      ShipmentRepository shipmentRepository,
-      OrderProductRepository orderProductRepository) {
-    this.orderRepository = orderRepository;
-    this.shipmentRepository = shipmentRepository;
-    this.orderProductRepository = orderProductRepository;
+      DashboardAggregateRepository dashboardAggregateRepository,
+      TopKSketches topKSketches,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${dashboard_charts.cache.max_staleness_in_millisecond:30000}")
+          long maxStalenessInMillisecond,
+      @Value("${dashboard_charts.query.timeout_in_millisecond:2000}")
+          long queryTimeoutInMillisecond) {
+    this.dashboardAggregateRepository = dashboardAggregateRepository;
+    this.topKSketches = topKSketches;
+    this.queryTransaction = new TransactionTemplate(transactionManager);
+    this.queryTransaction.setReadOnly(true);
+    /* transaction timeouts are whole seconds; the deadline below is the exact one */
+    this.queryTransaction.setTimeout(
+        (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(queryTimeoutInMillisecond + 999)));
+    this.queryTimeoutInNanos = TimeUnit.MILLISECONDS.toNanos(queryTimeoutInMillisecond);
+    this.maxStalenessInNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessInMillisecond);
+    for (ChartSection section : ChartSection.values()) {
+      queryTimers.put(
+          section,
+          meterRegistry.timer("irongate.dashboard.charts.query", "section", section.name()));
+      staleCounters.put(
+          section,
+          meterRegistry.counter("irongate.dashboard.charts.stale", "section", section.name()));
+    }
+    this.hits = meterRegistry.counter("irongate.dashboard.charts.cache", "outcome", "hit");
+    this.misses = meterRegistry.counter("irongate.dashboard.charts.cache", "outcome", "miss");
+    this.coalesced =
+        meterRegistry.counter("irongate.dashboard.charts.cache", "outcome", "coalesced");
   }
 
   public DashboardChartsDTO handle() {
-    List<ChartDataDTO> ordersByStatus = orderRepository.countOrdersByStatus();
-    List<ChartDataDTO> shipmentsByStatus = shipmentRepository.countShipmentsByStatus();
-    List<ChartDataDTO> top5RevenueByWarehouse =
-        orderRepository.findTopRevenueByWarehouse(PageRequest.of(0, 5));
-    List<ChartDataDTO> topSellingProducts =
-        orderProductRepository.findTopSellingProducts(PageRequest.of(0, 5));
-    return new DashboardChartsDTO(
-        ordersByStatus, shipmentsByStatus, top5RevenueByWarehouse, topSellingProducts);
+    while (true) {
+      long wanted = generation.get();
+      Snapshot current = snapshot.get();
+      if (current != null
+          && current.generation() >= wanted
+          && current.charts().staleSections().isEmpty()
+          && System.nanoTime() - current.loadedAtNanos() < maxStalenessInNanos) {
+        hits.increment();
+        return current.charts();
+      }
+      Load running = loading.get();
+      if (running != null && running.generation() >= wanted) {
+        coalesced.increment();
+        return await(running);
+      }
+      /* none running, or one that started before the latest invalidation: start a new one */
+      Load mine = new Load(wanted, new CompletableFuture<>());
+      if (loading.compareAndSet(running, mine)) {
+        misses.increment();
+        return load(mine);
+      }
+    }
   }
+
+  /** Drops the cached snapshot if the sections (of an event) are part of it. */
+  public void invalidate(Set<ChartSection> sections) {
+    if (!sections.isEmpty()) {
+      generation.incrementAndGet();
+    }
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  /** Returns the sections that changed under a new version, or the current version if none did. */
+  public synchronized ChartDeltaDTO computeDelta(Set<ChartSection> sections) {
+    Map<ChartSection, List<ChartDataDTO>> changed = new EnumMap<>(ChartSection.class);
+    for (ChartSection section : sections) {
+      List<ChartDataDTO> data = query(section);
+      if (!Objects.equals(pushed.get(section), data)) {
+        changed.put(section, data);
+      }
+    }
+    if (changed.isEmpty()) {
+      return new ChartDeltaDTO(version);
+    }
+    pushed.putAll(changed);
+    version++;
+    /* a snapshot must not carry a version older than its data */
+    generation.incrementAndGet();
+    return new ChartDeltaDTO(
+        version,
+        changed.get(ChartSection.ORDERS_BY_STATUS),
+        changed.get(ChartSection.SHIPMENTS_BY_STATUS),
+        changed.get(ChartSection.TOP_REVENUE_BY_WAREHOUSE),
+        changed.get(ChartSection.TOP_SELLING_PRODUCTS));
+  }
+
+  private DashboardChartsDTO load(Load mine) {
+    long startedAt = System.nanoTime();
+    try {
+      /* read before querying: a delta computed meanwhile is still applied by the client */
+      long current = version;
+      Map<ChartSection, Future<List<ChartDataDTO>>> queries = new EnumMap<>(ChartSection.class);
+      for (ChartSection section : ChartSection.values()) {
+        queries.put(
+            section,
+            isSketched(section)
+                ? CompletableFuture.completedFuture(query(section))
+                : queryExecutor.submit(() -> queryTransaction.execute(tx -> query(section))));
+      }
+      long deadline = startedAt + queryTimeoutInNanos;
+      Snapshot fallback = snapshot.get();
+      Map<ChartSection, List<ChartDataDTO>> sections = new EnumMap<>(ChartSection.class);
+      List<String> staleSections = new ArrayList<>();
+      for (Map.Entry<ChartSection, Future<List<ChartDataDTO>>> query : queries.entrySet()) {
+        ChartSection section = query.getKey();
+        try {
+          sections.put(
+              section,
+              query
+                  .getValue()
+                  .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException | ExecutionException e) {
+          /* the statement timeout ends the query itself */
+          query.getValue().cancel(true);
+          log.warn("Chart section {} served stale: {}", section, e.toString());
+          staleCounters.get(section).increment();
+          staleSections.add(section.name());
+          sections.put(
+              section, fallback == null ? List.of() : sectionOf(fallback.charts(), section));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          queries.values().forEach(pending -> pending.cancel(true));
+          throw new IllegalStateException("Interrupted while loading dashboard charts", e);
+        }
+      }
+      DashboardChartsDTO charts =
+          new DashboardChartsDTO(
+              current,
+              sections.get(ChartSection.ORDERS_BY_STATUS),
+              sections.get(ChartSection.SHIPMENTS_BY_STATUS),
+              sections.get(ChartSection.TOP_REVENUE_BY_WAREHOUSE),
+              sections.get(ChartSection.TOP_SELLING_PRODUCTS),
+              staleSections);
+      Snapshot loaded = new Snapshot(charts, mine.generation(), startedAt);
+      /* a slower load that started earlier must not replace a newer snapshot */
+      snapshot.accumulateAndGet(
+          loaded,
+          (previous, next) ->
+              previous == null || next.generation() >= previous.generation() ? next : previous);
+      mine.result().complete(charts);
+      return charts;
+    } catch (RuntimeException e) {
+      mine.result().completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.compareAndSet(mine, null);
+    }
+  }
+
+  private static DashboardChartsDTO await(Load running) {
+    try {
+      return running.result().join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private List<ChartDataDTO> query(ChartSection section) {
+    if (isSketched(section)) {
+      return topKSketches.top(section, TOP_5.getPageSize());
+    }
+    Pageable pageable =
+        switch (section) {
+          case ORDERS_BY_STATUS, SHIPMENTS_BY_STATUS -> Pageable.unpaged();
+          case TOP_REVENUE_BY_WAREHOUSE, TOP_SELLING_PRODUCTS -> TOP_5;
+        };
+    return queryTimers
+        .get(section)
+        .record(() -> dashboardAggregateRepository.findChart(section.name(), pageable));
+  }
+
+  private boolean isSketched(ChartSection section) {
+    return topKSketches.isEnabled()
+        && (section == ChartSection.TOP_REVENUE_BY_WAREHOUSE
+            || section == ChartSection.TOP_SELLING_PRODUCTS);
+  }
+
+  private static List<ChartDataDTO> sectionOf(DashboardChartsDTO charts, ChartSection section) {
+    return switch (section) {
+      case ORDERS_BY_STATUS -> charts.ordersByStatus();
+      case SHIPMENTS_BY_STATUS -> charts.shipmentsByStatus();
+      case TOP_REVENUE_BY_WAREHOUSE -> charts.top5RevenueByWarehouse();
+      case TOP_SELLING_PRODUCTS -> charts.topSellingProducts();
+    };
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    queryExecutor.shutdownNow();
+  }
+
+  /** Charts as of an invalidation generation, from a load started at <code>loadedAtNanos</code>. */
+  private record Snapshot(DashboardChartsDTO charts, long generation, long loadedAtNanos) {}
+
+  /** A load in progress; callers that need at most <code>generation</code> wait for it. */
+  private record Load(long generation, CompletableFuture<DashboardChartsDTO> result) {}
 }
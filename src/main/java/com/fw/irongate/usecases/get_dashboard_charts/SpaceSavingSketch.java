@@ -0,0 +1,95 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The heaviest labels of a stream of positive amounts, in at most <code>capacity</code> counters
+ * (weighted Space-Saving).<br>
+ * A label without a counter takes over the smallest one when all are in use: its count starts at
+ * that counter's count plus the amount, and the inherited part is kept as its error. So for every
+ * {@link Estimate} the true total lies in [count - error, count], every error is at most {@link
+ * #errorBound()} (the smallest count, itself at most the total of the stream divided by the
+ * capacity), and every label whose true total exceeds that bound holds a counter. With no more
+ * labels than counters, counts are exact.<br>
+ * The counters are kept sorted, so {@link #add} costs O(log capacity) and {@link #top} O(k).
+ */
+final class SpaceSavingSketch {
+
+  private static final Comparator<Counter> HEAVIEST_FIRST =
+      Comparator.comparing((Counter counter) -> counter.count)
+          .reversed()
+          .thenComparing(counter -> counter.label);
+  private final int capacity;
+  /* guarded by this */
+  private final Map<String, Counter> counters = new HashMap<>();
+  private final TreeSet<Counter> sorted = new TreeSet<>(HEAVIEST_FIRST);
+
+  SpaceSavingSketch(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+  }
+
+  synchronized void add(String label, BigDecimal amount) {
+    if (amount.signum() <= 0) {
+      return;
+    }
+    Counter counter = counters.get(label);
+    if (counter != null) {
+      /* re-inserted, the set is sorted by the mutable count */
+      sorted.remove(counter);
+      counter.count = counter.count.add(amount);
+    } else if (counters.size() < capacity) {
+      counter = new Counter(label, amount, BigDecimal.ZERO);
+      counters.put(label, counter);
+    } else {
+      Counter smallest = sorted.pollLast();
+      counters.remove(smallest.label);
+      counter = new Counter(label, smallest.count.add(amount), smallest.count);
+      counters.put(label, counter);
+    }
+    sorted.add(counter);
+  }
+
+  /** The <code>k</code> largest counts, heaviest first. */
+  synchronized List<Estimate> top(int k) {
+    List<Estimate> top = new ArrayList<>(Math.min(k, sorted.size()));
+    for (Iterator<Counter> it = sorted.iterator(); it.hasNext() && top.size() < k; ) {
+      Counter counter = it.next();
+      top.add(new Estimate(counter.label, counter.count, counter.error));
+    }
+    return top;
+  }
+
+  /** The largest error any estimate can carry. */
+  synchronized BigDecimal errorBound() {
+    return counters.size() < capacity ? BigDecimal.ZERO : sorted.last().count;
+  }
+
+  /**
+   * @param count an upper bound of the label's true total
+   * @param error how much of <code>count</code> may belong to labels evicted before it
+   */
+  record Estimate(String label, BigDecimal count, BigDecimal error) {}
+
+  private static final class Counter {
+
+    private final String label;
+    private BigDecimal count;
+    private final BigDecimal error;
+
+    private Counter(String label, BigDecimal count, BigDecimal error) {
+      this.label = label;
+      this.count = count;
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import com.fw.irongate.models.dto.AggregateDTO;
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.entities.Order;
+import com.fw.irongate.models.entities.OrderProduct;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory {@link SpaceSavingSketch}es of the revenue per warehouse and the units sold per
+ * product, answering the top sections of the charts without a query when <code>top_k.enabled
+ * </code>.<br>
+ * An order completed on this node is added once its transaction has committed. The sketches are
+ * rebuilt from the exact <code>dashboard_aggregates</code> rows at startup, after every rebuild
+ * of those rows and every <code>top_k.reconcile_interval_in_millisecond</code>, which also brings
+ * in the sales completed on other nodes; between reconciliations those are missing, so enable it
+ * on a single node (dashboard_stream.transport LOCAL) or with a short interval. A sale committing
+ * while a reconciliation runs may be counted twice or not at all until the next one.<br>
+ * With no more warehouses (or products) than <code>top_k.capacity</code> a rebuilt sketch is exact.
+ */
+@Component
+public class TopKSketches {
+
+  private static final Logger log = LoggerFactory.getLogger(TopKSketches.class);
+  private final DashboardAggregateRepository dashboardAggregateRepository;
+  private final int capacity;
+  private final boolean enabled;
+  /* replaced whole by a reconciliation */
+  private volatile Map<ChartSection, SpaceSavingSketch> sketches;
+
+  public TopKSketches(
+      DashboardAggregateRepository dashboardAggregateRepository,
+      @Value("${top_k.capacity:1000}") int capacity,
+      @Value("${top_k.enabled:false}") boolean enabled) {
+    this.dashboardAggregateRepository = dashboardAggregateRepository;
+    this.capacity = capacity;
+    this.enabled = enabled;
+    this.sketches = emptySketches();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** To be called in the transaction completing the order; counted only if it commits. */
+  public void orderCompleted(Order order) {
+    if (!enabled) {
+      return;
+    }
+    /* read now, the lazy products cannot be loaded after the commit */
+    List<Sale> sales = new ArrayList<>();
+    sales.add(
+        new Sale(
+            ChartSection.TOP_REVENUE_BY_WAREHOUSE,
+            order.getWarehouse().getName(),
+            order.getTotalPrice()));
+    for (OrderProduct orderProduct : order.getOrderProducts()) {
+      sales.add(
+          new Sale(
+              ChartSection.TOP_SELLING_PRODUCTS,
+              orderProduct.getProduct().getName(),
+              BigDecimal.valueOf(orderProduct.getQuantity())));
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      add(sales);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            add(sales);
+          }
+        });
+  }
+
+  /** The <code>k</code> heaviest bars of a top section, by their upper bound. */
+  public List<ChartDataDTO> top(ChartSection section, int k) {
+    return sketches.get(section).top(k).stream()
+        .map(estimate -> new ChartDataDTO(estimate.label(), estimate.count()))
+        .toList();
+  }
+
+  /* a startup rebuild of the aggregates reconciles again once it is done */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reconcile();
+  }
+
+  @Scheduled(
+      fixedDelayString = "${top_k.reconcile_interval_in_millisecond:60000}",
+      initialDelayString = "${top_k.reconcile_interval_in_millisecond:60000}")
+  public void reconcile() {
+    if (!enabled) {
+      return;
+    }
+    Map<ChartSection, SpaceSavingSketch> rebuilt = emptySketches();
+    rebuilt.forEach(
+        (section, sketch) -> {
+          /* the whole section, exact: one row per warehouse or product */
+          for (AggregateDTO bar : dashboardAggregateRepository.findAggregates(section.name())) {
+            sketch.add(bar.label(), bar.amount());
+          }
+        });
+    sketches = rebuilt;
+    log.debug(
+        "Reconciled top-K sketches, error bounds {} / {}",
+        rebuilt.get(ChartSection.TOP_REVENUE_BY_WAREHOUSE).errorBound(),
+        rebuilt.get(ChartSection.TOP_SELLING_PRODUCTS).errorBound());
+  }
+
+  private void add(List<Sale> sales) {
+    Map<ChartSection, SpaceSavingSketch> current = sketches;
+    for (Sale sale : sales) {
+      current.get(sale.section()).add(sale.label(), sale.amount());
+    }
+  }
+
+  private Map<ChartSection, SpaceSavingSketch> emptySketches() {
+    Map<ChartSection, SpaceSavingSketch> empty = new EnumMap<>(ChartSection.class);
+    empty.put(ChartSection.TOP_REVENUE_BY_WAREHOUSE, new SpaceSavingSketch(capacity));
+    empty.put(ChartSection.TOP_SELLING_PRODUCTS, new SpaceSavingSketch(capacity));
+    return empty;
+  }
+
+  private record Sale(ChartSection section, String label, BigDecimal amount) {}
+}
@@ -0,0 +1,12 @@
+package com.fw.irongate.usecases.get_dashboard_rollups;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * @param to the end of the range (exclusive), now when null
+ * @param granularity HOUR or DAY, DAY when null
+ * @param warehouseId restricts the orders to one warehouse, all of them when null
+ */
+public record GetDashboardRollupsRequest(
+    Instant from, Instant to, String granularity, UUID warehouseId) {}
@@ -0,0 +1,147 @@
+package com.fw.irongate.usecases.get_dashboard_rollups;
+
+import static com.fw.irongate.constants.MessageConstants.INVALID_ROLLUP_GRANULARITY;
+import static com.fw.irongate.constants.MessageConstants.INVALID_ROLLUP_RANGE;
+
+import com.fw.irongate.models.dto.DashboardRollupsDTO;
+import com.fw.irongate.models.dto.OrderRollupDTO;
+import com.fw.irongate.models.dto.ProductRollupDTO;
+import com.fw.irongate.models.enums.RollupGranularity;
+import com.fw.irongate.repositories.OrderRollupRepository;
+import com.fw.irongate.repositories.ProductRollupRepository;
+import com.fw.irongate.usecases.UseCase;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Orders and revenue per warehouse, and units sold per product, over time, for GET
+ * /api/dashboard/rollups.<br>
+ * Reads the <code>order_rollups</code> and <code>product_rollups</code> rows of the range instead
+ * of the orders: the hourly rows of the last days (bounded by the compaction) plus one daily row
+ * per day, warehouse and status (or product), so the cost grows with the days asked for, not with
+ * the orders placed in them.<br>
+ * The range is widened to whole buckets of the requested granularity, and hourly rows are merged
+ * into them. Days that were already compacted have no hours left: at HOUR granularity they come
+ * back as a single bucket at midnight, and only when the range covers the whole day, so no bucket
+ * starts before <code>from</code> or ends after <code>to</code>.<br>
+ * The daily and hourly rows are read from one snapshot, so a compaction committing in between
+ * cannot hide the day it folds from both reads.
+ */
+@UseCase
+public class GetDashboardRollupsUseCase {
+
+  private static final Comparator<OrderRollupDTO> ORDER_ROLLUP_ORDER =
+      Comparator.comparing(OrderRollupDTO::bucket)
+          .thenComparing(OrderRollupDTO::warehouseName)
+          .thenComparing(OrderRollupDTO::status);
+  private static final Comparator<ProductRollupDTO> PRODUCT_ROLLUP_ORDER =
+      Comparator.comparing(ProductRollupDTO::bucket).thenComparing(ProductRollupDTO::productName);
+  private final OrderRollupRepository orderRollupRepository;
+  private final ProductRollupRepository productRollupRepository;
+
+  public GetDashboardRollupsUseCase(
+      OrderRollupRepository orderRollupRepository,
+      ProductRollupRepository productRollupRepository) {
+    this.orderRollupRepository = orderRollupRepository;
+    this.productRollupRepository = productRollupRepository;
+  }
+
+  @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+  public DashboardRollupsDTO handle(GetDashboardRollupsRequest request) {
+    RollupGranularity granularity = parse(request.granularity());
+    Instant to = request.to() == null ? Instant.now() : request.to();
+    if (request.from() == null || !request.from().isBefore(to)) {
+      throw new IllegalArgumentException(INVALID_ROLLUP_RANGE);
+    }
+    Instant from = granularity.bucketOf(request.from());
+    to = granularity.ceilingOf(to);
+    /* the days lying wholly inside the range, equal to it at DAY granularity */
+    Instant fromDay = RollupGranularity.DAY.ceilingOf(from);
+    Instant toDay = RollupGranularity.DAY.bucketOf(to);
+    List<OrderRollupDTO> orderRows = new ArrayList<>();
+    orderRows.addAll(
+        orderRollupRepository.findRange(
+            RollupGranularity.DAY.name(), fromDay, toDay, request.warehouseId()));
+    orderRows.addAll(
+        orderRollupRepository.findRange(
+            RollupGranularity.HOUR.name(), from, to, request.warehouseId()));
+    List<ProductRollupDTO> productRows = new ArrayList<>();
+    productRows.addAll(
+        productRollupRepository.findRange(RollupGranularity.DAY.name(), fromDay, toDay));
+    productRows.addAll(productRollupRepository.findRange(RollupGranularity.HOUR.name(), from, to));
+    return new DashboardRollupsDTO(
+        granularity.name(),
+        from,
+        to,
+        mergeOrders(orderRows, granularity),
+        mergeProducts(productRows, granularity));
+  }
+
+  private static RollupGranularity parse(String granularity) {
+    if (granularity == null) {
+      return RollupGranularity.DAY;
+    }
+    try {
+      return RollupGranularity.valueOf(granularity);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(INVALID_ROLLUP_GRANULARITY);
+    }
+  }
+
+  private static List<OrderRollupDTO> mergeOrders(
+      List<OrderRollupDTO> rows, RollupGranularity granularity) {
+    Map<OrderKey, OrderRollupDTO> merged = new LinkedHashMap<>();
+    for (OrderRollupDTO row : rows) {
+      Instant bucket = granularity.bucketOf(row.bucket());
+      merged.merge(
+          new OrderKey(bucket, row.warehouseId(), row.status()),
+          new OrderRollupDTO(
+              bucket,
+              row.warehouseId(),
+              row.warehouseName(),
+              row.status(),
+              row.orders(),
+              row.revenue()),
+          (a, b) ->
+              new OrderRollupDTO(
+                  bucket,
+                  a.warehouseId(),
+                  a.warehouseName(),
+                  a.status(),
+                  a.orders() + b.orders(),
+                  a.revenue().add(b.revenue())));
+    }
+    return merged.values().stream().sorted(ORDER_ROLLUP_ORDER).toList();
+  }
+
+  private static List<ProductRollupDTO> mergeProducts(
+      List<ProductRollupDTO> rows, RollupGranularity granularity) {
+    Map<ProductKey, ProductRollupDTO> merged = new LinkedHashMap<>();
+    for (ProductRollupDTO row : rows) {
+      Instant bucket = granularity.bucketOf(row.bucket());
+      merged.merge(
+          new ProductKey(bucket, row.productId()),
+          new ProductRollupDTO(
+              bucket, row.productId(), row.productName(), row.units(), row.revenue()),
+          (a, b) ->
+              new ProductRollupDTO(
+                  bucket,
+                  a.productId(),
+                  a.productName(),
+                  a.units() + b.units(),
+                  a.revenue().add(b.revenue())));
+    }
+    return merged.values().stream().sorted(PRODUCT_ROLLUP_ORDER).toList();
+  }
+
+  private record OrderKey(Instant bucket, UUID warehouseId, String status) {}
+
+  private record ProductKey(Instant bucket, UUID productId) {}
+}
@@ -3,8 +3,8 @@ package com.fw.irongate.usecases.get_simulation_flag;
 import static com.fw.irongate.constants.SystemConstants.ERROR;
 import static com.fw.irongate.constants.SystemConstants.SIMULATION_RUN_FLAG;
 
-import com.fw.irongate.models.entities.Sysconfig;
-import com.fw.irongate.repositories.SysconfigRepository;
+import com.fw.irongate.caches.SysconfigRegistry;
+import com.fw.irongate.models.dto.SysconfigDTO;
 import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.web.responses.MessageResponse;
 import java.util.Optional;
@@ -12,18 +12,18 @@ import java.util.Optional;
 @UseCase
 public class GetSimulationFlagUseCase {
 
-  private final SysconfigRepository sysconfigRepository;
+  private final SysconfigRegistry sysconfigRegistry;
 
-  public GetSimulationFlagUseCase(SysconfigRepository sysconfigRepository) {
-    this.sysconfigRepository = sysconfigRepository;
+  public GetSimulationFlagUseCase(SysconfigRegistry sysconfigRegistry) {
+    this.sysconfigRegistry = sysconfigRegistry;
   }
 
   public MessageResponse handle() {
-    Optional<Sysconfig> optSysconfig = sysconfigRepository.findByKey(SIMULATION_RUN_FLAG);
+    Optional<SysconfigDTO> optSysconfig = sysconfigRegistry.findByKey(SIMULATION_RUN_FLAG);
     if (optSysconfig.isEmpty()) {
       throw new IllegalArgumentException(ERROR);
     }
-    Sysconfig sysconfig = optSysconfig.get();
-    return new MessageResponse(sysconfig.getValue());
+    SysconfigDTO sysconfig = optSysconfig.get();
+    return new MessageResponse(sysconfig.value());
   }
 }
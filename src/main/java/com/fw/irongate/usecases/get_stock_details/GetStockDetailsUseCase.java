@@ -3,14 +3,12 @@ package com.fw.irongate.usecases.get_stock_details;
 import static com.fw.irongate.constants.MessageConstants.OPERATION_NOT_PERMITTED;
 import static com.fw.irongate.constants.MessageConstants.STOCK_NOT_FOUND;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.StockDTO;
 import com.fw.irongate.models.entities.Stock;
-import com.fw.irongate.models.entities.WarehouseUser;
 import com.fw.irongate.repositories.StockRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.usecases.UseCase;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,12 +16,12 @@ import java.util.UUID;
 public class GetStockDetailsUseCase {
 
   private final StockRepository stockRepository;
-  private final WarehouseUserRepository warehouseUserRepository;
+  private final WarehouseAccessService warehouseAccessService;
 
   public GetStockDetailsUseCase(
-      StockRepository stockRepository, WarehouseUserRepository warehouseUserRepository) {
+      StockRepository stockRepository, WarehouseAccessService warehouseAccessService) {
     this.stockRepository = stockRepository;
-    this.warehouseUserRepository = warehouseUserRepository;
+    this.warehouseAccessService = warehouseAccessService;
   }
 
   public StockDTO handle(JwtClaimDTO jwtClaimDTO, UUID id) {
@@ -33,10 +31,8 @@ public class GetStockDetailsUseCase {
       throw new IllegalArgumentException(STOCK_NOT_FOUND);
     }
     /* check if user has mapping to the warehouse related to the stock */
-    List<WarehouseUser> warehouseUsers =
-        warehouseUserRepository.findByWarehouseIdAndUserId(
-            optStock.get().getWarehouse().getId(), jwtClaimDTO.userId());
-    if (warehouseUsers.isEmpty()) {
+    if (!warehouseAccessService.isMember(
+        jwtClaimDTO.userId(), optStock.get().getWarehouse().getId())) {
       throw new IllegalArgumentException(OPERATION_NOT_PERMITTED);
     }
     /* actual fetch */
@@ -1,5 +1,7 @@
 package com.fw.irongate.usecases.login;
 
+import com.fw.irongate.caches.SessionStore;
+import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.SecurityUserDTO;
 import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.utils.CookieUtil;
@@ -15,12 +17,17 @@ public class LoginUseCase {
   private final AuthenticationManager authenticationManager;
   private final CookieUtil cookieUtil;
   private final JwtUtil jwtUtil;
+  private final SessionStore sessionStore;
 
   public LoginUseCase(
-      AuthenticationManager authenticationManager, CookieUtil cookieUtil, JwtUtil jwtUtil) {
+      AuthenticationManager authenticationManager,
+      CookieUtil cookieUtil,
+      JwtUtil jwtUtil,
+      SessionStore sessionStore) {
     this.authenticationManager = authenticationManager;
     this.cookieUtil = cookieUtil;
     this.jwtUtil = jwtUtil;
+    this.sessionStore = sessionStore;
   }
 
   public ResponseCookie handle(LoginRequest request) {
@@ -28,6 +35,17 @@ public class LoginUseCase {
         authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.email(), request.password()));
     SecurityUserDTO securityUserDTO = (SecurityUserDTO) (authentication.getPrincipal());
+    if (sessionStore.isEnabled()) {
+      String sessionId =
+          sessionStore.create(
+              new JwtClaimDTO(
+                  securityUserDTO.id(),
+                  securityUserDTO.email(),
+                  securityUserDTO.roleId(),
+                  securityUserDTO.roleName(),
+                  securityUserDTO.fullName()));
+      return cookieUtil.createFreshCookie(sessionId);
+    }
     String jwt =
         jwtUtil.generateJwt(
             securityUserDTO.id().toString(),
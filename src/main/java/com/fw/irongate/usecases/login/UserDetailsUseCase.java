@@ -10,11 +10,12 @@ import java.util.List;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 @UseCase
-public class UserDetailsUseCase implements UserDetailsService {
+public class UserDetailsUseCase implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserRepository userRepository;
 
@@ -32,6 +33,25 @@ public class UserDetailsUseCase implements UserDetailsService {
         userRepository
             .findOneActiveByEmail(email)
             .orElseThrow(() -> new UsernameNotFoundException(USER_EMAIL_NOT_FOUND));
+    return toSecurityUserDTO(user);
+  }
+
+  /**
+   * Called by the authentication provider after a successful login whose stored hash was made
+   * with a different BCrypt cost than the one configured (see PooledPasswordEncoder).
+   */
+  @Override
+  public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+    User user =
+        userRepository
+            .findOneActiveByEmail(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException(USER_EMAIL_NOT_FOUND));
+    user.setPasswordHash(newPasswordHash);
+    user.setUpdatedBy(user.getEmail());
+    return toSecurityUserDTO(userRepository.save(user));
+  }
+
+  private SecurityUserDTO toSecurityUserDTO(User user) {
     List<GrantedAuthority> authorities =
         List.of(new SimpleGrantedAuthority(user.getRole().getValue()));
     return new SecurityUserDTO(
@@ -2,6 +2,8 @@ package com.fw.irongate.usecases.logout;
 
 import static com.fw.irongate.constants.MessageConstants.USER_ALREADY_LOGGED_OUT;
 
+import com.fw.irongate.caches.RevokedTokenIndex;
+import com.fw.irongate.caches.SessionStore;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.RevokedToken;
 import com.fw.irongate.repositories.RevokedTokenRepository;
@@ -9,6 +11,7 @@ import com.fw.irongate.usecases.UseCase;
 import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
 import com.fw.irongate.utils.CookieUtil;
 import com.fw.irongate.utils.JwtUtil;
+import com.fw.irongate.utils.TokenDigest;
 import java.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,16 +22,22 @@ public class LogoutUseCase {
 
   private static final Logger log = LoggerFactory.getLogger(LogoutUseCase.class);
   private final RevokedTokenRepository revokedTokenRepository;
+  private final RevokedTokenIndex revokedTokenIndex;
+  private final SessionStore sessionStore;
   private final JwtUtil jwtUtil;
   private final CookieUtil cookieUtil;
   private final StreamDashboardUseCase streamDashboardUseCase;
 
   public LogoutUseCase(
       RevokedTokenRepository revokedTokenRepository,
+      RevokedTokenIndex revokedTokenIndex,
+      SessionStore sessionStore,
       JwtUtil jwtUtil,
       CookieUtil cookieUtil,
       StreamDashboardUseCase streamDashboardUseCase) {
     this.revokedTokenRepository = revokedTokenRepository;
+    this.revokedTokenIndex = revokedTokenIndex;
+    this.sessionStore = sessionStore;
     this.jwtUtil = jwtUtil;
     this.cookieUtil = cookieUtil;
     this.streamDashboardUseCase = streamDashboardUseCase;
@@ -36,11 +45,18 @@ public class LogoutUseCase {
 
   public ResponseCookie handle(JwtClaimDTO jwtClaimDTO, String jwt) {
     try {
+      if (sessionStore.isEnabled()) {
+        sessionStore.remove(TokenDigest.of(jwt));
+        streamDashboardUseCase.removeUser(jwtClaimDTO.userId().toString());
+        return cookieUtil.createEmptyCookie();
+      }
       Instant expiredAt = jwtUtil.extractExpiration(jwt);
-      RevokedToken revokedToken = new RevokedToken(jwt, expiredAt);
+      TokenDigest digest = TokenDigest.of(jwt);
+      RevokedToken revokedToken = new RevokedToken(digest.toBytes(), expiredAt);
       revokedToken.setCreatedBy(jwtClaimDTO.email());
       revokedToken.setUpdatedBy(jwtClaimDTO.email());
       revokedTokenRepository.save(revokedToken);
+      revokedTokenIndex.revoke(digest, expiredAt);
       streamDashboardUseCase.removeUser(jwtClaimDTO.userId().toString());
     } catch (Exception e) {
       log.warn(USER_ALREADY_LOGGED_OUT, jwtClaimDTO.email());
@@ -0,0 +1,44 @@
+package com.fw.irongate.usecases.purge_revoked_tokens;
+
+import com.fw.irongate.repositories.RevokedTokenRepository;
+import com.fw.irongate.usecases.UseCase;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * A revocation is only meaningful until the token's own <code>exp</code>; after that the JWT
+ * verifier rejects the token anyway. This deletes such rows in bounded chunks, each in its own
+ * transaction, so the table and its indexes stay small.
+ */
+@UseCase
+public class PurgeRevokedTokensUseCase {
+
+  private static final Logger log = LoggerFactory.getLogger(PurgeRevokedTokensUseCase.class);
+  private final RevokedTokenRepository revokedTokenRepository;
+  private final int chunkSize;
+
+  public PurgeRevokedTokensUseCase(
+      RevokedTokenRepository revokedTokenRepository,
+      @Value("${revocation.purge_chunk_size:1000}") int chunkSize) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.chunkSize = chunkSize;
+  }
+
+  @Scheduled(fixedDelayString = "${revocation.db_purge_interval_in_millisecond:3600000}")
+  public int handle() {
+    Instant now = Instant.now();
+    int total = 0;
+    int deleted;
+    do {
+      deleted = revokedTokenRepository.deleteExpiredChunk(now, chunkSize);
+      total += deleted;
+    } while (deleted == chunkSize);
+    if (total > 0) {
+      log.info("Purged {} expired revoked tokens", total);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,236 @@
+package com.fw.irongate.usecases.rebuild_dashboard_aggregates;
+
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static com.fw.irongate.constants.SystemConstants.OK;
+
+import com.fw.irongate.models.dto.AggregateDTO;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.entities.DashboardAggregate;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
+import com.fw.irongate.repositories.OrderProductRepository;
+import com.fw.irongate.repositories.OrderRepository;
+import com.fw.irongate.repositories.ShipmentRepository;
+import com.fw.irongate.usecases.UseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartSection;
+import com.fw.irongate.usecases.get_dashboard_charts.TopKSketches;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
+import com.fw.irongate.web.responses.MessageResponse;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomputes every <code>dashboard_aggregates</code> row from the orders and shipments, e.g. after
+ * the table was introduced (done at startup while it is empty) or to repair drift.<br>
+ * The orders and shipments are split into id ranges of <code>
+ * dashboard_aggregates.rebuild.chunk_size</code> rows, aggregated by <code>
+ * dashboard_aggregates.rebuild.parallelism</code> threads, and the merged totals replace the rows
+ * in one transaction.<br>
+ * That transaction locks the table before the first chunk is read. A use case committing earlier is
+ * counted by the chunks; one still running blocks on its first upsert until the rebuild has
+ * committed, and then applies its change on top. No change is lost or counted twice.<br>
+ * The blocked use cases keep their connections, so the chunk threads open theirs before the lock
+ * is taken and only start reading once it is held; they never wait on a pool drained by writers
+ * queued behind the lock. Keep the parallelism below the pool size.<br>
+ * Connected dashboards get a RESYNC event afterwards, and the {@link TopKSketches} are rebuilt.
+ */
+@UseCase
+public class RebuildDashboardAggregatesUseCase {
+
+  private static final Logger log =
+      LoggerFactory.getLogger(RebuildDashboardAggregatesUseCase.class);
+  private static final String REBUILT_BY = "system";
+  private final DashboardAggregateRepository dashboardAggregateRepository;
+  private final OrderRepository orderRepository;
+  private final ShipmentRepository shipmentRepository;
+  private final OrderProductRepository orderProductRepository;
+  private final DashboardEventOutbox dashboardEventOutbox;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate chunkTransaction;
+  private final TopKSketches topKSketches;
+  private final int chunkSize;
+  private final int parallelism;
+  private final boolean rebuildOnStartup;
+
+  public RebuildDashboardAggregatesUseCase(
+      DashboardAggregateRepository dashboardAggregateRepository,
+      OrderRepository orderRepository,
+      ShipmentRepository shipmentRepository,
+      OrderProductRepository orderProductRepository,
+      DashboardEventOutbox dashboardEventOutbox,
+      TransactionTemplate transactionTemplate,
+      TopKSketches topKSketches,
+      @Value("${dashboard_aggregates.rebuild.chunk_size:10000}") int chunkSize,
+      @Value("${dashboard_aggregates.rebuild.parallelism:4}") int parallelism,
+      @Value("${dashboard_aggregates.rebuild.on_startup:true}") boolean rebuildOnStartup) {
+    this.dashboardAggregateRepository = dashboardAggregateRepository;
+    this.orderRepository = orderRepository;
+    this.shipmentRepository = shipmentRepository;
+    this.orderProductRepository = orderProductRepository;
+    this.dashboardEventOutbox = dashboardEventOutbox;
+    this.transactionTemplate = transactionTemplate;
+    this.chunkTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.chunkTransaction.setReadOnly(true);
+    this.topKSketches = topKSketches;
+    this.chunkSize = chunkSize;
+    this.parallelism = parallelism;
+    this.rebuildOnStartup = rebuildOnStartup;
+  }
+
+  public MessageResponse handle() {
+    long startedAt = System.currentTimeMillis();
+    Integer rows = transactionTemplate.execute(status -> rebuild());
+    topKSketches.reconcile();
+    log.info(
+        "Rebuilt {} dashboard aggregates in {} ms", rows, System.currentTimeMillis() - startedAt);
+    return new MessageResponse(OK);
+  }
+
+  /** Backfills the table the first time the application runs with it. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    if (rebuildOnStartup
+        && dashboardAggregateRepository.count() == 0
+        && (orderRepository.count() > 0 || shipmentRepository.count() > 0)) {
+      handle();
+    }
+  }
+
+  private int rebuild() {
+    int workers = Math.max(1, parallelism);
+    CountDownLatch connected = new CountDownLatch(workers);
+    CountDownLatch locked = new CountDownLatch(1);
+    Queue<Callable<Map<ChartSection, List<AggregateDTO>>>> chunks = new ConcurrentLinkedQueue<>();
+    Map<ChartSection, Map<String, BigDecimal>> totals = new EnumMap<>(ChartSection.class);
+    /* the chunks run outside this transaction, each worker on its own connection */
+    try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+      List<Future<List<Map<ChartSection, List<AggregateDTO>>>>> results = new ArrayList<>();
+      for (int i = 0; i < workers; i++) {
+        results.add(executor.submit(() -> aggregateChunks(connected, locked, chunks)));
+      }
+      try {
+        connected.await();
+        dashboardAggregateRepository.lockExclusively();
+        for (Object[] range : orderRepository.findIdRanges(chunkSize)) {
+          UUID firstId = UUID.fromString((String) range[0]);
+          UUID lastId = UUID.fromString((String) range[1]);
+          chunks.add(() -> aggregateOrders(firstId, lastId));
+        }
+        for (Object[] range : shipmentRepository.findIdRanges(chunkSize)) {
+          UUID firstId = UUID.fromString((String) range[0]);
+          UUID lastId = UUID.fromString((String) range[1]);
+          chunks.add(
+              () ->
+                  Map.of(
+                      ChartSection.SHIPMENTS_BY_STATUS,
+                      shipmentRepository.countShipmentsByStatus(firstId, lastId)));
+        }
+      } finally {
+        /* also on failure, so that no worker is left waiting */
+        locked.countDown();
+      }
+      for (Future<List<Map<ChartSection, List<AggregateDTO>>>> result : results) {
+        for (Map<ChartSection, List<AggregateDTO>> chunk : result.get()) {
+          chunk.forEach(
+              (section, aggregates) -> {
+                Map<String, BigDecimal> sectionTotals =
+                    totals.computeIfAbsent(section, key -> new HashMap<>());
+                aggregates.forEach(
+                    aggregate ->
+                        sectionTotals.merge(
+                            aggregate.label(), aggregate.amount(), BigDecimal::add));
+              });
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while rebuilding dashboard aggregates", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed to rebuild dashboard aggregates", e.getCause());
+    }
+    dashboardAggregateRepository.deleteAllRows();
+    List<DashboardAggregate> aggregates = new ArrayList<>();
+    totals.forEach(
+        (section, sectionTotals) ->
+            sectionTotals.forEach(
+                (label, amount) -> aggregates.add(newAggregate(section, label, amount))));
+    dashboardAggregateRepository.saveAll(aggregates);
+    /* sent once the new rows are committed */
+    dashboardEventOutbox.add(new DashboardEventDTO(EVENT_RESYNC));
+    return aggregates.size();
+  }
+
+  /**
+   * Opens a read-only transaction, which holds a connection, then waits for the table lock and
+   * aggregates chunks until none is left.
+   */
+  private List<Map<ChartSection, List<AggregateDTO>>> aggregateChunks(
+      CountDownLatch connected,
+      CountDownLatch locked,
+      Queue<Callable<Map<ChartSection, List<AggregateDTO>>>> chunks) {
+    try {
+      return chunkTransaction.execute(
+          status -> {
+            /* beginning the transaction has already taken a connection from the pool */
+            connected.countDown();
+            List<Map<ChartSection, List<AggregateDTO>>> aggregated = new ArrayList<>();
+            try {
+              locked.await();
+              for (Callable<Map<ChartSection, List<AggregateDTO>>> chunk = chunks.poll();
+                  chunk != null;
+                  chunk = chunks.poll()) {
+                aggregated.add(chunk.call());
+              }
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new IllegalStateException("Interrupted while waiting for the table lock", e);
+            } catch (Exception e) {
+              throw new IllegalStateException("Failed to aggregate a chunk", e);
+            }
+            return aggregated;
+          });
+    } finally {
+      /* a worker that could not connect must not hold up the rebuild */
+      connected.countDown();
+    }
+  }
+
+  private Map<ChartSection, List<AggregateDTO>> aggregateOrders(UUID firstId, UUID lastId) {
+    return Map.of(
+        ChartSection.ORDERS_BY_STATUS,
+        orderRepository.countOrdersByStatus(firstId, lastId),
+        ChartSection.TOP_REVENUE_BY_WAREHOUSE,
+        orderRepository.sumRevenueByWarehouse(firstId, lastId),
+        ChartSection.TOP_SELLING_PRODUCTS,
+        orderProductRepository.sumUnitsSoldByProduct(firstId, lastId));
+  }
+
+  private static DashboardAggregate newAggregate(
+      ChartSection section, String label, BigDecimal amount) {
+    DashboardAggregate aggregate = new DashboardAggregate();
+    aggregate.setCreatedBy(REBUILT_BY);
+    aggregate.setUpdatedBy(REBUILT_BY);
+    aggregate.setSection(section.name());
+    aggregate.setLabel(label);
+    aggregate.setAmount(amount);
+    return aggregate;
+  }
+}
@@ -0,0 +1,233 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import static com.fw.irongate.constants.SystemConstants.EVENT_CHARTS_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_CREATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_ORDER_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_CREATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_STOCK_CREATED;
+
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary frames of the dashboard WebSocket channel. Every frame starts with its kind:<br>
+ * - EVENT (server): varint sequence, type, category ordinal, flags, [warehouse id as 16 bytes],
+ * varint count, [delta].<br>
+ * - HELLO (server): the stream epoch, sent once on connect; resume with <code>
+ * ?lastEventId=&lt;epoch&gt;-&lt;sequence&gt;</code>.<br>
+ * - ACK (client): varint sequence; acknowledges every event up to and including it.<br>
+ * A type is one byte indexing {@link #TYPES}, or 0 followed by the type as a string. Strings are a
+ * varint byte length and UTF-8. A delta is a varint version, a byte with one bit per section
+ * present, and per section a varint item count and label/value pairs (values are 8-byte doubles,
+ * NaN for null).<br>
+ * An event without a delta is about 25 bytes, against about 120 for the same SSE frame.
+ */
+public final class DashboardBinaryCodec {
+
+  public static final byte EVENT = 1;
+  public static final byte HELLO = 2;
+  public static final byte ACK = 16;
+  /* append only, the index is the wire code */
+  private static final List<String> TYPES =
+      List.of(
+          "",
+          EVENT_ORDER_CREATED,
+          EVENT_ORDER_UPDATED,
+          EVENT_SHIPMENT_CREATED,
+          EVENT_SHIPMENT_UPDATED,
+          EVENT_STOCK_CREATED,
+          EVENT_RESYNC,
+          EVENT_CHARTS_UPDATED);
+  private static final int HAS_WAREHOUSE = 1;
+  private static final int HAS_DELTA = 2;
+  private static final DashboardEventCategory[] CATEGORIES = DashboardEventCategory.values();
+
+  private DashboardBinaryCodec() {}
+
+  public static ByteBuffer encodeEvent(long sequence, DashboardEventDTO event) {
+    Output out = new Output(32);
+    out.write(EVENT);
+    out.writeVarLong(sequence);
+    int type = TYPES.indexOf(event.type());
+    if (type > 0) {
+      out.write(type);
+    } else {
+      out.write(0);
+      out.writeString(event.type());
+    }
+    out.write(event.category().ordinal());
+    out.write(
+        (event.warehouseId() != null ? HAS_WAREHOUSE : 0)
+            | (event.delta() != null ? HAS_DELTA : 0));
+    if (event.warehouseId() != null) {
+      out.writeLong(event.warehouseId().getMostSignificantBits());
+      out.writeLong(event.warehouseId().getLeastSignificantBits());
+    }
+    out.writeVarLong(event.count());
+    if (event.delta() != null) {
+      writeDelta(out, event.delta());
+    }
+    return out.toByteBuffer();
+  }
+
+  public static ByteBuffer encodeHello(String epoch) {
+    Output out = new Output(16);
+    out.write(HELLO);
+    out.writeString(epoch);
+    return out.toByteBuffer();
+  }
+
+  public static ByteBuffer encodeAck(long sequence) {
+    Output out = new Output(10);
+    out.write(ACK);
+    out.writeVarLong(sequence);
+    return out.toByteBuffer();
+  }
+
+  /** An EVENT frame with its sequence. */
+  public record Event(long sequence, DashboardEventDTO event) {}
+
+  public static Event decodeEvent(ByteBuffer buffer) {
+    expect(buffer, EVENT);
+    long sequence = readVarLong(buffer);
+    int type = buffer.get();
+    String typeName = type > 0 ? TYPES.get(type) : readString(buffer);
+    DashboardEventCategory category = CATEGORIES[buffer.get()];
+    int flags = buffer.get();
+    UUID warehouseId =
+        (flags & HAS_WAREHOUSE) != 0 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+    int count = (int) readVarLong(buffer);
+    ChartDeltaDTO delta = (flags & HAS_DELTA) != 0 ? readDelta(buffer) : null;
+    return new Event(
+        sequence, new DashboardEventDTO(typeName, category, warehouseId, count, delta));
+  }
+
+  public static String decodeHello(ByteBuffer buffer) {
+    expect(buffer, HELLO);
+    return readString(buffer);
+  }
+
+  public static long decodeAck(ByteBuffer buffer) {
+    expect(buffer, ACK);
+    return readVarLong(buffer);
+  }
+
+  private static void writeDelta(Output out, ChartDeltaDTO delta) {
+    List<List<ChartDataDTO>> sections = sections(delta);
+    out.writeVarLong(delta.version());
+    int present = 0;
+    for (int i = 0; i < sections.size(); i++) {
+      if (sections.get(i) != null) {
+        present |= 1 << i;
+      }
+    }
+    out.write(present);
+    for (List<ChartDataDTO> section : sections) {
+      if (section == null) {
+        continue;
+      }
+      out.writeVarLong(section.size());
+      for (ChartDataDTO item : section) {
+        out.writeString(item.label());
+        out.writeLong(Double.doubleToLongBits(item.value() != null ? item.value() : Double.NaN));
+      }
+    }
+  }
+
+  private static ChartDeltaDTO readDelta(ByteBuffer buffer) {
+    long version = readVarLong(buffer);
+    int present = buffer.get();
+    List<List<ChartDataDTO>> sections = new ArrayList<>(4);
+    for (int i = 0; i < 4; i++) {
+      if ((present & (1 << i)) == 0) {
+        sections.add(null);
+        continue;
+      }
+      int size = (int) readVarLong(buffer);
+      List<ChartDataDTO> section = new ArrayList<>(size);
+      for (int j = 0; j < size; j++) {
+        String label = readString(buffer);
+        double value = buffer.getDouble();
+        section.add(new ChartDataDTO(label, Double.isNaN(value) ? null : value));
+      }
+      sections.add(section);
+    }
+    return new ChartDeltaDTO(
+        version, sections.get(0), sections.get(1), sections.get(2), sections.get(3));
+  }
+
+  private static List<List<ChartDataDTO>> sections(ChartDeltaDTO delta) {
+    List<List<ChartDataDTO>> sections = new ArrayList<>(4);
+    sections.add(delta.ordersByStatus());
+    sections.add(delta.shipmentsByStatus());
+    sections.add(delta.top5RevenueByWarehouse());
+    sections.add(delta.topSellingProducts());
+    return sections;
+  }
+
+  private static void expect(ByteBuffer buffer, byte kind) {
+    byte actual = buffer.get();
+    if (actual != kind) {
+      throw new IllegalArgumentException("Expected frame kind " + kind + " but got " + actual);
+    }
+  }
+
+  private static long readVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[(int) readVarLong(buffer)];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static final class Output extends ByteArrayOutputStream {
+
+    Output(int size) {
+      super(size);
+    }
+
+    void writeVarLong(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    void writeLong(long value) {
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        write((int) (value >>> shift));
+      }
+    }
+
+    void writeString(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+    }
+  }
+}
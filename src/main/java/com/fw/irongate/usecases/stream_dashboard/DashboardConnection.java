@@ -0,0 +1,19 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import java.io.IOException;
+
+/**
+ * Where the frames of a {@link DashboardSubscriber} are written: an SSE response or a WebSocket.
+ */
+interface DashboardConnection {
+
+  /** Writes the frame; blocks until the transport has taken it. */
+  void send(DashboardFrame frame) throws IOException;
+
+  /** False while the client may not receive more frames yet; they wait in the queue. */
+  default boolean isReady() {
+    return true;
+  }
+
+  void close();
+}
@@ -0,0 +1,161 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the dashboard events of a use case until its transaction has committed.<br>
+ * {@link #add(DashboardEventDTO)} called inside a transaction only records the event; an
+ * after-completion synchronization hands the recorded events to the relay once the commit is
+ * durable, and drops them on rollback. Outside a transaction the event goes to the relay at once.
+ * So no browser refetches data that is not committed yet, and no SSE or NOTIFY I/O happens while
+ * the use case still holds row locks.<br>
+ * Events of the same type, category and warehouse are merged into one event carrying their count,
+ * first within a transaction and then within a relay batch: the relay is a single thread that takes
+ * up to <code>dashboard_stream.outbox.batch_size</code> events at a time and hands them to {@link
+ * StreamDashboardUseCase#broadcast(DashboardEventDTO)}.
+ */
+@Component
+public class DashboardEventOutbox {
+
+  private static final Logger log = LoggerFactory.getLogger(DashboardEventOutbox.class);
+  private final BlockingQueue<DashboardEventDTO> relayQueue;
+  private final StreamDashboardUseCase streamDashboardUseCase;
+  private final int batchSize;
+  private final Thread relay;
+  private final Counter published;
+  private final Counter rolledBack;
+  private final Counter dropped;
+  private final DistributionSummary batchSizes;
+
+  public DashboardEventOutbox(
+      StreamDashboardUseCase streamDashboardUseCase,
+      MeterRegistry meterRegistry,
+      @Value("${dashboard_stream.outbox.batch_size:100}") int batchSize,
+      @Value("${dashboard_stream.outbox.queue_capacity:10000}") int queueCapacity) {
+    this.streamDashboardUseCase = streamDashboardUseCase;
+    this.batchSize = batchSize;
+    this.relayQueue = new LinkedBlockingQueue<>(queueCapacity);
+    this.published = meterRegistry.counter("irongate.dashboard.outbox", "outcome", "published");
+    this.rolledBack = meterRegistry.counter("irongate.dashboard.outbox", "outcome", "rolled_back");
+    this.dropped = meterRegistry.counter("irongate.dashboard.outbox", "outcome", "dropped");
+    this.batchSizes =
+        DistributionSummary.builder("irongate.dashboard.outbox.batch_size").register(meterRegistry);
+    Gauge.builder("irongate.dashboard.outbox.pending", relayQueue, BlockingQueue::size)
+        .register(meterRegistry);
+    this.relay = new Thread(this::relay, "dashboard-outbox-relay");
+    this.relay.setDaemon(true);
+    this.relay.start();
+  }
+
+  /** Publishes the event after the current transaction commits, or now if there is none. */
+  public void add(DashboardEventDTO event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      enqueue(List.of(event));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<DashboardEventDTO> pending =
+        (List<DashboardEventDTO>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      pending = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(this, pending);
+      TransactionSynchronizationManager.registerSynchronization(new AfterCompletion(pending));
+    }
+    pending.add(event);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    relay.interrupt();
+  }
+
+  private void enqueue(Iterable<DashboardEventDTO> events) {
+    for (DashboardEventDTO event : events) {
+      if (!relayQueue.offer(event)) {
+        dropped.increment();
+        log.warn("Dashboard outbox is full, dropping {}", event.type());
+      }
+    }
+  }
+
+  private void relay() {
+    List<DashboardEventDTO> batch = new ArrayList<>(batchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(relayQueue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      relayQueue.drainTo(batch, batchSize - 1);
+      batchSizes.record(batch.size());
+      for (DashboardEventDTO event : merge(batch)) {
+        try {
+          streamDashboardUseCase.broadcast(event);
+          published.increment();
+        } catch (RuntimeException e) {
+          log.warn("Failed to publish dashboard event {}", event.type(), e);
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  private static Iterable<DashboardEventDTO> merge(List<DashboardEventDTO> batch) {
+    /* first occurrence keeps its place, later ones only add to its count */
+    Map<Key, DashboardEventDTO> merged = new LinkedHashMap<>();
+    for (DashboardEventDTO event : batch) {
+      merged.merge(
+          new Key(event.type(), event.category(), event.warehouseId()),
+          event,
+          (first, next) ->
+              new DashboardEventDTO(
+                  first.type(),
+                  first.category(),
+                  first.warehouseId(),
+                  first.count() + next.count()));
+    }
+    return merged.values();
+  }
+
+  private record Key(String type, DashboardEventCategory category, UUID warehouseId) {}
+
+  private class AfterCompletion implements TransactionSynchronization {
+
+    private final List<DashboardEventDTO> pending;
+
+    AfterCompletion(List<DashboardEventDTO> pending) {
+      this.pending = pending;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      TransactionSynchronizationManager.unbindResourceIfPossible(DashboardEventOutbox.this);
+      if (status == STATUS_COMMITTED) {
+        /* merged up front, the relay may wake up before the whole list is queued */
+        enqueue(merge(pending));
+      } else {
+        rolledBack.increment(pending.size());
+      }
+    }
+  }
+}
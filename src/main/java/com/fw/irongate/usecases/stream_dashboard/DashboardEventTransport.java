@@ -0,0 +1,19 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import java.util.function.Consumer;
+
+/**
+ * Carries dashboard events between the nodes of a deployment.<br>
+ * Each node publishes an event once; every node, the publishing one included, hands it to its own
+ * {@link StreamDashboardUseCase}, which delivers it to the connections it holds. Implementations
+ * are chosen with <code>dashboard_stream.transport</code>.
+ */
+public interface DashboardEventTransport {
+
+  /** Sends the event to every node. Must not block on the network. */
+  void publish(DashboardEventDTO event);
+
+  /** Sets the receiver of events for this node; called once at startup. */
+  void onEvent(Consumer<DashboardEventDTO> receiver);
+}
@@ -0,0 +1,72 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One message for the dashboard connections, whatever their protocol: an event with its sequence,
+ * or a control frame (heartbeat, connected). Each wire format is encoded lazily, at most once per
+ * frame however many connections it goes to; two threads racing on the first encoding produce
+ * equal results.
+ */
+final class DashboardFrame {
+
+  static final DashboardFrame HEARTBEAT = new DashboardFrame("heartbeat", 0, null, null, null);
+  static final DashboardFrame CONNECTED = new DashboardFrame("connected", 0, null, null, null);
+  /* control frames only */
+  private final String comment;
+  private final long sequence;
+  /* "<stream epoch>-<sequence>" */
+  private final String id;
+  private final DashboardEventDTO event;
+  private final String json;
+  private volatile Set<DataWithMediaType> sse;
+  private volatile ByteBuffer binary;
+
+  private DashboardFrame(
+      String comment, long sequence, String id, DashboardEventDTO event, String json) {
+    this.comment = comment;
+    this.sequence = sequence;
+    this.id = id;
+    this.event = event;
+    this.json = json;
+  }
+
+  static DashboardFrame event(String id, long sequence, DashboardEventDTO event, String json) {
+    return new DashboardFrame(null, sequence, id, event, json);
+  }
+
+  boolean isEvent() {
+    return event != null;
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  Set<DataWithMediaType> sse() {
+    Set<DataWithMediaType> encoded = sse;
+    if (encoded == null) {
+      encoded =
+          isEvent()
+              ? SseEmitter.event().id(id).data(json, MediaType.APPLICATION_JSON).build()
+              : SseEmitter.event().comment(comment).build();
+      sse = encoded;
+    }
+    return encoded;
+  }
+
+  /** Only for events; a fresh view per call, so connections do not share a buffer position. */
+  ByteBuffer binary() {
+    ByteBuffer encoded = binary;
+    if (encoded == null) {
+      encoded = DashboardBinaryCodec.encodeEvent(sequence, event);
+      binary = encoded;
+    }
+    return encoded.duplicate();
+  }
+}
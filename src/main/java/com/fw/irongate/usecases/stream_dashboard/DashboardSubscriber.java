@@ -0,0 +1,107 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One open dashboard connection (SSE or WebSocket) with its own bounded queue of frames, and the
+ * warehouses and event categories it receives.
+ */
+final class DashboardSubscriber {
+
+  private final String connectionId;
+  private final UUID userId;
+  private final UUID roleId;
+  private final DashboardConnection connection;
+  private final BlockingQueue<DashboardFrame> queue;
+  /* true while a drain task for this subscriber is scheduled or running */
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private final long createdAtMillis = System.currentTimeMillis();
+  /* 0 until the first frame has been written */
+  private volatile long lastSentAtMillis;
+  /* replaced when memberships or permissions change, see SubscriberIndex#update */
+  private volatile Set<UUID> warehouseIds;
+  /* SYSTEM roles: every warehouse, whatever the memberships */
+  private volatile boolean everyWarehouse;
+  private volatile Set<DashboardEventCategory> categories;
+
+  DashboardSubscriber(
+      String connectionId,
+      UUID userId,
+      UUID roleId,
+      DashboardConnection connection,
+      int queueCapacity,
+      Set<UUID> warehouseIds,
+      boolean everyWarehouse,
+      Set<DashboardEventCategory> categories) {
+    this.connectionId = connectionId;
+    this.userId = userId;
+    this.roleId = roleId;
+    this.connection = connection;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.warehouseIds = warehouseIds;
+    this.everyWarehouse = everyWarehouse;
+    this.categories = categories;
+  }
+
+  /** SYSTEM events and events without a warehouse reach every subscriber allowed the category. */
+  boolean isInterested(DashboardEventCategory category, UUID warehouseId) {
+    return categories.contains(category)
+        && (warehouseId == null || everyWarehouse || warehouseIds.contains(warehouseId));
+  }
+
+  String getConnectionId() {
+    return connectionId;
+  }
+
+  UUID getUserId() {
+    return userId;
+  }
+
+  UUID getRoleId() {
+    return roleId;
+  }
+
+  DashboardConnection getConnection() {
+    return connection;
+  }
+
+  BlockingQueue<DashboardFrame> getQueue() {
+    return queue;
+  }
+
+  AtomicBoolean getDraining() {
+    return draining;
+  }
+
+  long getCreatedAtMillis() {
+    return createdAtMillis;
+  }
+
+  long getLastSentAtMillis() {
+    return lastSentAtMillis;
+  }
+
+  void markSent() {
+    lastSentAtMillis = System.currentTimeMillis();
+  }
+
+  Set<UUID> getWarehouseIds() {
+    return warehouseIds;
+  }
+
+  boolean isEveryWarehouse() {
+    return everyWarehouse;
+  }
+
+  void setInterests(
+      Set<UUID> warehouseIds, boolean everyWarehouse, Set<DashboardEventCategory> categories) {
+    this.warehouseIds = warehouseIds;
+    this.everyWarehouse = everyWarehouse;
+    this.categories = categories;
+  }
+}
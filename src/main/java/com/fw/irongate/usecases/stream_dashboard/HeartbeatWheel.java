@@ -0,0 +1,48 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel for heartbeats: one revolution is one heartbeat interval, and every
+ * connection sits in the slot its connection id hashes to. Each tick visits a single slot, so the
+ * connections are spread evenly over the interval instead of all being written to at once, even
+ * when they all (re)connected at the same moment.
+ */
+final class HeartbeatWheel {
+
+  private final List<Set<DashboardSubscriber>> slots;
+  private int cursor;
+
+  HeartbeatWheel(int size) {
+    this.slots = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      slots.add(ConcurrentHashMap.newKeySet());
+    }
+  }
+
+  void add(DashboardSubscriber subscriber) {
+    slotOf(subscriber).add(subscriber);
+  }
+
+  void remove(DashboardSubscriber subscriber) {
+    slotOf(subscriber).remove(subscriber);
+  }
+
+  /** Returns the slot due now and moves the cursor to the next one. */
+  synchronized Set<DashboardSubscriber> advance() {
+    Set<DashboardSubscriber> slot = slots.get(cursor);
+    cursor = (cursor + 1) % slots.size();
+    return slot;
+  }
+
+  int size() {
+    return slots.size();
+  }
+
+  private Set<DashboardSubscriber> slotOf(DashboardSubscriber subscriber) {
+    return slots.get(Math.floorMod(subscriber.getConnectionId().hashCode(), slots.size()));
+  }
+}
@@ -0,0 +1,27 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Single-node transport: events never leave this JVM. */
+@Component
+@ConditionalOnProperty(
+    name = "dashboard_stream.transport",
+    havingValue = "LOCAL",
+    matchIfMissing = true)
+public class LocalDashboardEventTransport implements DashboardEventTransport {
+
+  private Consumer<DashboardEventDTO> receiver = event -> {};
+
+  @Override
+  public void publish(DashboardEventDTO event) {
+    receiver.accept(event);
+  }
+
+  @Override
+  public void onEvent(Consumer<DashboardEventDTO> receiver) {
+    this.receiver = receiver;
+  }
+}
@@ -0,0 +1,320 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static com.fw.irongate.constants.SystemConstants.SYSTEM;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.entities.DashboardEventPayload;
+import com.fw.irongate.repositories.DashboardEventPayloadRepository;
+import com.fw.irongate.utils.PgListenConnection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cross-node transport over Postgres <code>LISTEN/NOTIFY</code> on channel <code>
+ * irongate_dashboard</code>.<br>
+ * (1) Publish: the event is handed to the local receiver at once, then sent by a single publisher
+ * thread as <code>&lt;node&gt;|&lt;seq&gt;|J&lt;json&gt;</code>. A payload above <code>
+ * dashboard_stream.postgres.max_notify_payload_in_bytes</code> (Postgres rejects anything near 8000
+ * bytes) is stored in <code>dashboard_event_payloads</code> and sent as <code>
+ * &lt;node&gt;|&lt;seq&gt;|R&lt;row id&gt;</code> instead; rows are purged after <code>
+ * payload_retention_in_millisecond</code>. A failed send is retried once with the same sequence.
+ * <br>
+ * (2) Listen: a dedicated connection runs <code>LISTEN</code>. Messages from this node are skipped
+ * (they were delivered locally); for the others the highest sequence seen per node is kept, so a
+ * retried send that did go through the first time is delivered only once.<br>
+ * (3) Reconnect: notifications sent while disconnected are lost, so after every (re)connect the
+ * receiver gets a {@link com.fw.irongate.constants.SystemConstants#EVENT_RESYNC} event and the
+ * dashboards re-read every chart.
+ */
+@Component
+@ConditionalOnProperty(name = "dashboard_stream.transport", havingValue = "POSTGRES")
+public class PostgresDashboardEventTransport implements DashboardEventTransport {
+
+  static final String CHANNEL = "irongate_dashboard";
+  private static final Logger log = LoggerFactory.getLogger(PostgresDashboardEventTransport.class);
+  private static final int MAX_TRACKED_NODES = 1024;
+  private final String nodeId = UUID.randomUUID().toString();
+  /* only touched by the publisher thread */
+  private long sequence;
+  /* origin node -> highest sequence delivered; only touched by the listener thread */
+  private final Map<String, Long> lastSequences =
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+          return size() > MAX_TRACKED_NODES;
+        }
+      };
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSourceProperties dataSourceProperties;
+  private final DashboardEventPayloadRepository dashboardEventPayloadRepository;
+  private final ObjectMapper objectMapper;
+  private final int pollTimeoutInMillisecond;
+  private final long reconnectBackoffInMillisecond;
+  private final int maxNotifyPayloadInBytes;
+  private final long payloadRetentionInMillisecond;
+  private final ThreadPoolExecutor publisher;
+  private final Counter published;
+  private final Counter received;
+  private final Counter duplicates;
+  private final Counter dropped;
+  private final Counter largePayloads;
+  private final Counter reconnects;
+  private volatile Consumer<DashboardEventDTO> receiver = event -> {};
+  private volatile boolean running;
+  private Thread listener;
+
+  public PostgresDashboardEventTransport(
+      JdbcTemplate jdbcTemplate,
+      DataSourceProperties dataSourceProperties,
+      DashboardEventPayloadRepository dashboardEventPayloadRepository,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      @Value("${dashboard_stream.postgres.poll_timeout_in_millisecond:500}")
+          int pollTimeoutInMillisecond,
+      @Value("${dashboard_stream.postgres.reconnect_backoff_in_millisecond:1000}")
+          long reconnectBackoffInMillisecond,
+      @Value("${dashboard_stream.postgres.queue_capacity:10000}") int queueCapacity,
+      @Value("${dashboard_stream.postgres.max_notify_payload_in_bytes:7000}")
+          int maxNotifyPayloadInBytes,
+      @Value("${dashboard_stream.postgres.payload_retention_in_millisecond:60000}")
+          long payloadRetentionInMillisecond) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dataSourceProperties = dataSourceProperties;
+    this.dashboardEventPayloadRepository = dashboardEventPayloadRepository;
+    this.objectMapper = objectMapper;
+    this.pollTimeoutInMillisecond = pollTimeoutInMillisecond;
+    this.reconnectBackoffInMillisecond = reconnectBackoffInMillisecond;
+    this.maxNotifyPayloadInBytes = maxNotifyPayloadInBytes;
+    this.payloadRetentionInMillisecond = payloadRetentionInMillisecond;
+    this.publisher =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "dashboard-publisher");
+              thread.setDaemon(true);
+              return thread;
+            },
+            (runnable, executor) -> onPublishRejected());
+    this.published = messageCounter(meterRegistry, "published");
+    this.received = messageCounter(meterRegistry, "received");
+    this.duplicates = messageCounter(meterRegistry, "duplicate");
+    this.dropped = messageCounter(meterRegistry, "dropped");
+    this.largePayloads = meterRegistry.counter("irongate.dashboard.transport.large_payloads");
+    this.reconnects = meterRegistry.counter("irongate.dashboard.transport.reconnects");
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    listener = new Thread(this::listen, "dashboard-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    publisher.shutdown();
+    if (listener != null) {
+      listener.join(pollTimeoutInMillisecond * 4L);
+    }
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  @Override
+  public void publish(DashboardEventDTO event) {
+    receiver.accept(event);
+    if (!running) {
+      return;
+    }
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize dashboard event {}", event, e);
+      return;
+    }
+    publisher.execute(() -> send(json));
+  }
+
+  @Override
+  public void onEvent(Consumer<DashboardEventDTO> receiver) {
+    this.receiver = receiver;
+  }
+
+  @Scheduled(
+      fixedDelayString = "${dashboard_stream.postgres.payload_retention_in_millisecond:60000}")
+  public void purgePayloads() {
+    dashboardEventPayloadRepository.deleteCreatedBefore(
+        ZonedDateTime.now().minus(Duration.ofMillis(payloadRetentionInMillisecond)));
+  }
+
+  private void send(String json) {
+    /* numbered on the publisher thread, so sequences go out in order */
+    String header = nodeId + "|" + ++sequence + "|";
+    for (int attempt = 1; ; attempt++) {
+      try {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, header + body(header, json));
+        published.increment();
+        return;
+      } catch (RuntimeException e) {
+        if (attempt == 2 || !running) {
+          dropped.increment();
+          log.warn("Failed to publish dashboard event {}: {}", header, e.getMessage());
+          return;
+        }
+      }
+    }
+  }
+
+  private String body(String header, String json) {
+    if (header.length() + json.getBytes(StandardCharsets.UTF_8).length <= maxNotifyPayloadInBytes) {
+      return "J" + json;
+    }
+    DashboardEventPayload payload = new DashboardEventPayload(json);
+    payload.setCreatedBy(SYSTEM);
+    payload.setUpdatedBy(SYSTEM);
+    largePayloads.increment();
+    return "R" + dashboardEventPayloadRepository.save(payload).getId();
+  }
+
+  private void onPublishRejected() {
+    dropped.increment();
+    if (running) {
+      log.warn("Dashboard event queue is full, dropping message");
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection =
+          PgListenConnection.open(dataSourceProperties, "irongate-dashboard-" + nodeId)) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        log.info("Listening for dashboard events on {} as node {}", CHANNEL, nodeId);
+        /* anything sent before LISTEN took effect was missed */
+        deliver(new DashboardEventDTO(EVENT_RESYNC));
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutInMillisecond);
+          if (notifications != null) {
+            for (PGNotification notification : notifications) {
+              onNotification(notification.getParameter());
+            }
+          }
+        }
+      } catch (SQLException e) {
+        if (!running) {
+          return;
+        }
+        reconnects.increment();
+        log.warn("Dashboard listener disconnected, reconnecting: {}", e.getMessage());
+        try {
+          Thread.sleep(reconnectBackoffInMillisecond);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void onNotification(String payload) {
+    String[] parts = payload.split("\\|", 3);
+    if (parts.length != 3 || parts[0].equals(nodeId) || parts[2].isEmpty()) {
+      return;
+    }
+    long seq;
+    try {
+      seq = Long.parseLong(parts[1]);
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring malformed dashboard event {}", payload);
+      return;
+    }
+    Long last = lastSequences.get(parts[0]);
+    if (last != null && seq <= last) {
+      duplicates.increment();
+      return;
+    }
+    lastSequences.put(parts[0], seq);
+    Optional<String> json = resolve(parts[2]);
+    if (json.isEmpty()) {
+      dropped.increment();
+      return;
+    }
+    try {
+      DashboardEventDTO event = objectMapper.readValue(json.get(), DashboardEventDTO.class);
+      received.increment();
+      deliver(event);
+    } catch (JsonProcessingException e) {
+      log.warn("Ignoring malformed dashboard event {}", payload);
+    }
+  }
+
+  private Optional<String> resolve(String body) {
+    if (body.charAt(0) == 'J') {
+      return Optional.of(body.substring(1));
+    }
+    try {
+      return dashboardEventPayloadRepository
+          .findById(UUID.fromString(body.substring(1)))
+          .map(DashboardEventPayload::getPayload);
+    } catch (IllegalArgumentException | DataAccessException e) {
+      log.warn("Failed to load dashboard event payload {}: {}", body, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void deliver(DashboardEventDTO event) {
+    try {
+      receiver.accept(event);
+    } catch (RuntimeException e) {
+      /* a failing receiver must not stop the listener */
+      log.error("Failed to deliver dashboard event {}", event, e);
+    }
+  }
+
+  private static Counter messageCounter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("irongate.dashboard.transport.messages")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,73 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fixed-size ring of the last sent frames, indexed by event sequence, for <code>Last-Event-ID
+ * </code> replay. Not thread-safe; {@link StreamDashboardUseCase} guards it.
+ */
+final class ReplayBuffer {
+
+  private final Entry[] frames;
+  /* sequence of the newest frame; frames hold sequences (last - size, last] */
+  private long last;
+
+  ReplayBuffer(int capacity) {
+    this.frames = new Entry[capacity];
+  }
+
+  long next() {
+    return last + 1;
+  }
+
+  long last() {
+    return last;
+  }
+
+  void append(long sequence, Entry frame) {
+    last = sequence;
+    if (frames.length > 0) {
+      frames[(int) (sequence % frames.length)] = frame;
+    }
+  }
+
+  /**
+   * Frames after <code>sequence</code>, oldest first, or null if some were overwritten or never
+   * recorded (a null frame marks events that were not serialized because nobody was connected).
+   */
+  List<Entry> since(long sequence) {
+    if (sequence > last || last - sequence > Math.min(last, frames.length)) {
+      return null;
+    }
+    List<Entry> missed = new ArrayList<>((int) (last - sequence));
+    for (long s = sequence + 1; s <= last; s++) {
+      Entry frame = frames[(int) (s % frames.length)];
+      if (frame == null) {
+        return null;
+      }
+      missed.add(frame);
+    }
+    return missed;
+  }
+
+  /**
+   * A sent frame with the routing of its event, so a replay skips what the client never got.
+   *
+   * @param chartsFrame the chart delta of the event, sent under the same id to the subscribers the
+   *     event does not reach; null when the event carries no delta
+   */
+  record Entry(
+      DashboardFrame frame,
+      DashboardEventCategory category,
+      UUID warehouseId,
+      DashboardFrame chartsFrame) {
+
+    /** The frame the subscriber got for this entry, or null if it got none. */
+    DashboardFrame frameFor(DashboardSubscriber subscriber) {
+      return subscriber.isInterested(category, warehouseId) ? frame : chartsFrame;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+/** What to do with a subscriber whose queue is full. */
+public enum SlowConsumerPolicy {
+  /** Drop the oldest queued frame to make room; the browser misses one event. */
+  DROP,
+  /** Close the stream; the browser reconnects (EventSource does so by itself). */
+  DISCONNECT
+}
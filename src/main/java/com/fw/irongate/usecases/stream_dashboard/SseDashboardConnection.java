@@ -0,0 +1,18 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import java.io.IOException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/** A connection of {@code GET /api/dashboard/stream}; flow control is left to TCP. */
+record SseDashboardConnection(SseEmitter emitter) implements DashboardConnection {
+
+  @Override
+  public void send(DashboardFrame frame) throws IOException {
+    emitter.send(frame.sse());
+  }
+
+  @Override
+  public void close() {
+    emitter.complete();
+  }
+}
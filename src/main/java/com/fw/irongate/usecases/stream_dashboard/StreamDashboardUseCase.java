@@ -1,77 +1,674 @@
 package com.fw.irongate.usecases.stream_dashboard;
 
+import static com.fw.irongate.constants.SystemConstants.EVENT_CHARTS_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static com.fw.irongate.constants.SystemConstants.SYSTEM;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.caches.EntityChangedEvent;
+import com.fw.irongate.caches.PermissionMatrix;
+import com.fw.irongate.caches.SysconfigRegistry;
+import com.fw.irongate.caches.WarehouseAccessService;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
 import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.models.dto.SysconfigDTO;
+import com.fw.irongate.models.entities.Permission;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.usecases.UseCase;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartSection;
+import com.fw.irongate.usecases.get_dashboard_charts.GetDashboardChartsUseCase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.WebSocketSession;
 
+/**
+ * Fan-out of dashboard events to the open SSE and WebSocket connections.<br>
+ * {@link #broadcast(DashboardEventDTO)} hands the event to the {@link DashboardEventTransport},
+ * which brings it back to every node (this one included) for local delivery. Delivery serializes
+ * the event once into an SSE frame and only enqueues it, so the caller (often a transactional use
+ * case) never waits for a browser. Every connection has its own bounded queue, drained by a task
+ * on a virtual-thread executor; at most one drain task per connection is active, so frames keep
+ * their order.<br>
+ * A connection whose queue is full is handled by <code>dashboard_stream.slow_consumer_policy
+ * </code> ({@link SlowConsumerPolicy}).<br>
+ * A user may have several connections (tabs); {@link #removeUser(String)} closes all of them.
+ * <br>
+ * Events are routed: an event with a warehouse id only goes to members of that warehouse (looked
+ * up in a {@link SubscriberIndex} by warehouse), and only to roles allowed to list its category
+ * (e.g. <code>/api/order/filter</code> for ORDER). A subscriber's warehouses and categories are
+ * resolved at subscribe time and re-resolved when memberships, permissions or users change. A
+ * SYSTEM role, which the permission check lets through everywhere, receives every category of
+ * every warehouse.<br>
+ * Bursts are coalesced per event type and warehouse: the first event goes out at once and opens a
+ * window of <code>dashboard_stream.coalescing_window_in_millisecond</code>; events of that type
+ * and warehouse arriving inside the window are merged into a single event sent when it closes,
+ * carrying their count.<br>
+ * With <code>dashboard_stream.chart_deltas</code> enabled, each event also carries the chart
+ * sections it changed ({@link GetDashboardChartsUseCase#computeDelta(Set)}), computed once on a
+ * single worker thread before the frame is serialized, so clients patch their charts instead of
+ * all refetching them. When events queue up behind a running computation, only the last one
+ * queries; the earlier ones go out with the current version and no sections. The charts are
+ * global while events are routed, so a subscriber an event does not reach gets its delta in a
+ * CHARTS_UPDATED frame under the same id instead, and never sees a version gap.<br>
+ * Every event frame gets an id <code>&lt;stream epoch&gt;-&lt;sequence&gt;</code> and is kept in a
+ * ring of the last <code>dashboard_stream.replay_buffer_size</code> frames. A browser reconnecting
+ * with <code>Last-Event-ID</code> gets only the frames it missed; if they are no longer all in the
+ * ring (or there are more than fit its queue, or the id is from an earlier process), it gets a
+ * single RESYNC event instead and reloads the charts. The bundled client closes its EventSource on
+ * error instead of letting the browser reconnect, so it does not use this yet.<br>
+ * Besides SSE, clients can {@link #connect(JwtClaimDTO, WebSocketSession, String) connect} a
+ * WebSocket that gets the same frames in {@link DashboardBinaryCodec binary}. At most <code>
+ * dashboard_stream.websocket.max_in_flight</code> events are unacknowledged on it; the rest wait in
+ * its queue (under the same slow consumer policy) until the client {@link #acknowledge(String,
+ * long) acknowledges}.
+ */
 @UseCase
 public class StreamDashboardUseCase {
 
   private static final Logger log = LoggerFactory.getLogger(StreamDashboardUseCase.class);
-  private final Map<String, SseEmitter> userEmitters = new HashMap<>();
+  /* the resource path a role must be allowed to receive events of a category */
+  private static final Map<DashboardEventCategory, String> CATEGORY_PATHS =
+      Map.of(
+          DashboardEventCategory.ORDER, "/api/order/filter",
+          DashboardEventCategory.SHIPMENT, "/api/shipment/filter",
+          DashboardEventCategory.STOCK, "/api/stock/filter");
+  private final SubscriberIndex subscribers = new SubscriberIndex();
+  /* open window -> events merged into it */
+  private final Map<Window, Integer> coalescing = new ConcurrentHashMap<>();
+  private final AtomicBoolean refreshPending = new AtomicBoolean();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService heartbeatExecutor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final ExecutorService chartExecutor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-chart-delta");
+            thread.setDaemon(true);
+            return thread;
+          });
+  /* sections touched by events whose delta has not been computed yet */
+  private final Set<ChartSection> staleSections = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger pendingDeltas = new AtomicInteger();
+  /* ids from an earlier process (or another node) never match */
+  private final String streamEpoch = Long.toString(System.currentTimeMillis(), 36);
+  /* also the lock that orders sequence numbers, fan-out and replay */
+  private final ReplayBuffer replayBuffer;
+  private final HeartbeatWheel heartbeatWheel;
+  private final ObjectMapper objectMapper;
+  private final DashboardEventTransport dashboardEventTransport;
+  private final GetDashboardChartsUseCase getDashboardChartsUseCase;
+  private final WarehouseAccessService warehouseAccessService;
+  private final PermissionMatrix permissionMatrix;
+  private final SysconfigRegistry sysconfigRegistry;
+  private final TaskScheduler taskScheduler;
+  private final int queueCapacity;
+  private final SlowConsumerPolicy slowConsumerPolicy;
+  private final long coalescingWindowInMillisecond;
+  private final boolean chartDeltas;
+  private final long heartbeatIntervalInMillisecond;
+  private final int websocketMaxInFlight;
+  private final Timer sendLatency;
+  private final Counter dropped;
+  private final Counter disconnected;
+  private final Counter coalesced;
+  private final Counter replayed;
+  private final Counter resynced;
+  private final Counter heartbeatsSent;
+  private final Counter heartbeatsSkipped;
+  private final Counter reaped;
+  private final Timer heartbeatTick;
+  private final Counter acks;
+
+  public StreamDashboardUseCase(
+      ObjectMapper objectMapper,
+      DashboardEventTransport dashboardEventTransport,
+      GetDashboardChartsUseCase getDashboardChartsUseCase,
+      WarehouseAccessService warehouseAccessService,
+      PermissionMatrix permissionMatrix,
+      SysconfigRegistry sysconfigRegistry,
+      MeterRegistry meterRegistry,
+      TaskScheduler taskScheduler,
+      @Value("${dashboard_stream.queue_capacity:64}") int queueCapacity,
+      @Value("${dashboard_stream.slow_consumer_policy:DROP}") SlowConsumerPolicy slowConsumerPolicy,
+      @Value("${dashboard_stream.coalescing_window_in_millisecond:250}")
+          long coalescingWindowInMillisecond,
+      @Value("${dashboard_stream.chart_deltas:true}") boolean chartDeltas,
+      @Value("${dashboard_stream.replay_buffer_size:256}") int replayBufferSize,
+      @Value("${dashboard_stream.heartbeat_interval_in_millisecond:25000}")
+          long heartbeatIntervalInMillisecond,
+      @Value("${dashboard_stream.heartbeat_wheel_slots:50}") int heartbeatWheelSlots,
+      @Value("${dashboard_stream.websocket.max_in_flight:32}") int websocketMaxInFlight) {
+    this.objectMapper = objectMapper;
+    this.dashboardEventTransport = dashboardEventTransport;
+    this.getDashboardChartsUseCase = getDashboardChartsUseCase;
+    this.warehouseAccessService = warehouseAccessService;
+    this.permissionMatrix = permissionMatrix;
+    this.sysconfigRegistry = sysconfigRegistry;
+    this.taskScheduler = taskScheduler;
+    this.queueCapacity = queueCapacity;
+    this.slowConsumerPolicy = slowConsumerPolicy;
+    this.coalescingWindowInMillisecond = coalescingWindowInMillisecond;
+    this.chartDeltas = chartDeltas;
+    this.replayBuffer = new ReplayBuffer(replayBufferSize);
+    this.heartbeatIntervalInMillisecond = heartbeatIntervalInMillisecond;
+    this.heartbeatWheel = new HeartbeatWheel(heartbeatWheelSlots);
+    this.websocketMaxInFlight = websocketMaxInFlight;
+    this.sendLatency =
+        Timer.builder("irongate.dashboard.send_latency")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.dropped = meterRegistry.counter("irongate.dashboard.dropped");
+    this.disconnected = meterRegistry.counter("irongate.dashboard.slow_disconnects");
+    this.coalesced = meterRegistry.counter("irongate.dashboard.coalesced");
+    this.replayed = meterRegistry.counter("irongate.dashboard.replay", "outcome", "replayed");
+    this.resynced = meterRegistry.counter("irongate.dashboard.replay", "outcome", "resync");
+    this.heartbeatsSent = meterRegistry.counter("irongate.dashboard.heartbeats", "outcome", "sent");
+    this.heartbeatsSkipped =
+        meterRegistry.counter("irongate.dashboard.heartbeats", "outcome", "skipped");
+    this.reaped = meterRegistry.counter("irongate.dashboard.heartbeats", "outcome", "reaped");
+    this.heartbeatTick =
+        Timer.builder("irongate.dashboard.heartbeat.tick")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.acks = meterRegistry.counter("irongate.dashboard.websocket.acks");
+    Gauge.builder("irongate.dashboard.subscribers", subscribers, SubscriberIndex::size)
+        .register(meterRegistry);
+    Gauge.builder("irongate.dashboard.queue_depth", this, StreamDashboardUseCase::queueDepth)
+        .register(meterRegistry);
+    Gauge.builder("irongate.dashboard.websocket.in_flight", this, StreamDashboardUseCase::inFlight)
+        .register(meterRegistry);
+    dashboardEventTransport.onEvent(this::deliver);
+    long tickInMillisecond = Math.max(1, heartbeatIntervalInMillisecond / heartbeatWheelSlots);
+    heartbeatExecutor.scheduleAtFixedRate(
+        this::sendHeartbeat, tickInMillisecond, tickInMillisecond, TimeUnit.MILLISECONDS);
+  }
 
-  public SseEmitter subscribe(String userId) {
+  /**
+   * @param lastEventId the <code>Last-Event-ID</code> header of a reconnecting browser, or null
+   */
+  public SseEmitter subscribe(JwtClaimDTO jwtClaimDTO, String lastEventId) {
     SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-    userEmitters.put(userId, emitter);
-    Runnable removeEmitter = () -> userEmitters.remove(userId);
-    emitter.onCompletion(removeEmitter);
-    emitter.onTimeout(removeEmitter);
-    emitter.onError((e) -> removeEmitter.run());
+    /* over HTTP/2 the response headers only leave with the first data, so EventSource would */
+    /* not open until the first event or heartbeat */
+    DashboardSubscriber subscriber =
+        register(jwtClaimDTO, new SseDashboardConnection(emitter), lastEventId);
+    emitter.onCompletion(() -> unregister(subscriber));
+    emitter.onTimeout(() -> unregister(subscriber));
+    emitter.onError(e -> unregister(subscriber));
     return emitter;
   }
 
+  /**
+   * Attaches a dashboard WebSocket ({@link DashboardBinaryCodec}) to the same routing, replay and
+   * heartbeats as the SSE stream.
+   *
+   * @param lastEventId <code>&lt;epoch&gt;-&lt;sequence&gt;</code> of the last event the client
+   *     processed before reconnecting, or null
+   * @return the connection id for {@link #acknowledge(String, long)} and {@link #close(String)}
+   */
+  public String connect(JwtClaimDTO jwtClaimDTO, WebSocketSession session, String lastEventId) {
+    return register(
+            jwtClaimDTO,
+            new WebSocketDashboardConnection(session, streamEpoch, websocketMaxInFlight),
+            lastEventId)
+        .getConnectionId();
+  }
+
+  /** Records that the client processed every event up to <code>sequence</code>. */
+  public void acknowledge(String connectionId, long sequence) {
+    DashboardSubscriber subscriber = subscribers.get(connectionId);
+    if (subscriber != null
+        && subscriber.getConnection() instanceof WebSocketDashboardConnection connection) {
+      connection.acknowledge(sequence);
+      acks.increment();
+      /* frames held back for lack of credit can go now */
+      if (!subscriber.getQueue().isEmpty()) {
+        scheduleDrain(subscriber);
+      }
+    }
+  }
+
+  /** Forgets a connection the client already closed. */
+  public void close(String connectionId) {
+    DashboardSubscriber subscriber = subscribers.get(connectionId);
+    if (subscriber != null) {
+      unregister(subscriber);
+    }
+  }
+
   public void removeUser(String userId) {
-    userEmitters.remove(userId);
+    for (DashboardSubscriber subscriber : subscribers.all()) {
+      if (subscriber.getUserId().toString().equals(userId)) {
+        disconnect(subscriber);
+      }
+    }
   }
 
+  /**
+   * Publishes the event right away. Transactional use cases go through {@link
+   * DashboardEventOutbox} instead, which calls this once their transaction has committed.
+   */
   public void broadcast(DashboardEventDTO event) {
-    userEmitters
-        .values()
-        .forEach(
-            emitter -> {
-              try {
-                emitter.send(event);
-              } catch (Exception e) {
-                log.warn("Failed to send event to emitter, removing it.", e);
-              }
-            });
+    dashboardEventTransport.publish(event);
   }
 
   /**
-   * The 504 Gateway Time-out error you are seeing suggests that the connection is being closed by the
-   * load balancer or proxy (like AWS ELB or Nginx) because it perceives the connection as idle.
-   * Even with buffering disabled, if no data is sent for a certain period (often 60 seconds), the
-   * connection may be dropped.<br>
-   * <br>
-   * To fix this, the proposal is to add a "heartbeat" mechanism to the
-   * <code>StreamDashboardUseCase</code>.<br>
+   * A proxy or load balancer (AWS ELB, Nginx) drops a connection that stays idle past its
+   * timeout, often 60 seconds, and the browser sees a 504 Gateway Time-out. A comment frame sent to
+   * idle connections keeps them open.<br>
    * <br>
-   * The Plan:<br>
-   * 1. Modify <code>StreamDashboardUseCase.java</code>: Add a <code>@Scheduled</code> method that
-   * runs every 25 seconds (well within the typical 60-second timeout window).<br>
-   * 2. Send Heartbeat: This method will send a simple comment event (e.g., :heartbeat) to all
-   * active SSE emitters. This traffic keeps the connection alive and prevents the 504 timeout.<br>
-   * 3. Cleanup: It will also help clean up any dead emitters that might have disconnected silently.
-   * <br>
-   * <br>
-   * This is a standard practice for maintaining long-lived SSE connections through proxies.
+   * Heartbeats are driven by a {@link HeartbeatWheel} of <code>
+   * dashboard_stream.heartbeat_wheel_slots</code> slots on a dedicated thread; each call visits one
+   * slot, so a full revolution takes <code>dashboard_stream.heartbeat_interval_in_millisecond
+   * </code>. A connection that was written to within the interval is not idle and is skipped. A
+   * connection that still has frames queued but has not completed a write within the interval is
+   * stuck on a dead socket and is reaped.
    */
-  @Scheduled(fixedRate = 25000)
   public void sendHeartbeat() {
-    userEmitters
-        .values()
-        .forEach(
-            emitter -> {
-              try {
-                emitter.send(SseEmitter.event().comment("heartbeat"));
-              } catch (Exception e) {
-                log.debug("Failed to send heartbeat, removing emitter: {}", e.getMessage());
-              }
-            });
+    long startedAt = System.nanoTime();
+    long now = System.currentTimeMillis();
+    try {
+      for (DashboardSubscriber subscriber : heartbeatWheel.advance()) {
+        if (!subscribers.contains(subscriber)) {
+          heartbeatWheel.remove(subscriber);
+        } else if (subscriber.getQueue().isEmpty()) {
+          if (now - subscriber.getLastSentAtMillis() < heartbeatIntervalInMillisecond) {
+            heartbeatsSkipped.increment();
+          } else {
+            heartbeatsSent.increment();
+            enqueue(subscriber, DashboardFrame.HEARTBEAT);
+          }
+        } else if (now - Math.max(subscriber.getCreatedAtMillis(), subscriber.getLastSentAtMillis())
+            >= heartbeatIntervalInMillisecond) {
+          reaped.increment();
+          disconnect(subscriber);
+        }
+      }
+    } catch (RuntimeException e) {
+      /* an exception would cancel the periodic task */
+      log.warn("Failed to send dashboard heartbeats", e);
+    } finally {
+      heartbeatTick.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Re-resolves every subscriber's warehouses and categories, off the committing thread. */
+  @EventListener
+  public void onEntityChanged(EntityChangedEvent event) {
+    if (!event.concerns(WarehouseUser.class)
+        && !event.concerns(Warehouse.class)
+        && !event.concerns(Permission.class)
+        && !event.concerns(Sysconfig.class)
+        && !event.concerns(User.class)) {
+      return;
+    }
+    /* one refresh covers every change made before it starts */
+    if (!subscribers.isEmpty() && refreshPending.compareAndSet(false, true)) {
+      executor.execute(this::refreshInterests);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    heartbeatExecutor.shutdownNow();
+    chartExecutor.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Shared by {@link #subscribe} and {@link #connect}: the connection first gets a CONNECTED frame,
+   * ahead of any replay.
+   */
+  DashboardSubscriber register(
+      JwtClaimDTO jwtClaimDTO, DashboardConnection connection, String lastEventId) {
+    boolean system = isSystem(jwtClaimDTO.roleId());
+    DashboardSubscriber subscriber =
+        new DashboardSubscriber(
+            UUID.randomUUID().toString(),
+            jwtClaimDTO.userId(),
+            jwtClaimDTO.roleId(),
+            connection,
+            queueCapacity,
+            system ? Set.of() : warehouseAccessService.getWarehouseIds(jwtClaimDTO.userId()),
+            system,
+            categories(jwtClaimDTO.roleId(), system));
+    synchronized (replayBuffer) {
+      subscribers.add(subscriber);
+      heartbeatWheel.add(subscriber);
+      enqueue(subscriber, DashboardFrame.CONNECTED);
+      if (lastEventId != null && !lastEventId.isBlank()) {
+        replay(subscriber, lastEventId);
+      }
+    }
+    return subscriber;
+  }
+
+  /* the connection is already gone, nothing to close */
+  private void unregister(DashboardSubscriber subscriber) {
+    subscribers.remove(subscriber);
+    heartbeatWheel.remove(subscriber);
+  }
+
+  private void deliver(DashboardEventDTO event) {
+    /* every node, before coalescing: the next chart fetch here must not be served from before it */
+    getDashboardChartsUseCase.invalidate(ChartSection.affectedBy(event.type()));
+    if (subscribers.isEmpty()) {
+      /* not worth serializing, but a browser reconnecting later must know it missed something */
+      synchronized (replayBuffer) {
+        replayBuffer.append(replayBuffer.next(), null);
+      }
+      return;
+    }
+    if (coalescingWindowInMillisecond <= 0) {
+      publish(event);
+      return;
+    }
+    Window window = new Window(event.type(), event.category(), event.warehouseId());
+    boolean[] opened = {false};
+    coalescing.compute(
+        window,
+        (key, pending) -> {
+          if (pending == null) {
+            opened[0] = true;
+            return 0;
+          }
+          coalesced.increment();
+          return pending + event.count();
+        });
+    if (opened[0]) {
+      publish(event);
+      scheduleWindowClose(window);
+    }
+  }
+
+  private void scheduleWindowClose(Window window) {
+    taskScheduler.schedule(
+        () -> closeWindow(window), Instant.now().plusMillis(coalescingWindowInMillisecond));
   }
+
+  private void closeWindow(Window window) {
+    int[] merged = {0};
+    /* an empty window closes; a non-empty one is flushed and the next window opens */
+    coalescing.computeIfPresent(
+        window,
+        (key, pending) -> {
+          merged[0] = pending;
+          return pending == 0 ? null : 0;
+        });
+    if (merged[0] > 0) {
+      publish(
+          new DashboardEventDTO(window.type(), window.category(), window.warehouseId(), merged[0]));
+      scheduleWindowClose(window);
+    }
+  }
+
+  private void publish(DashboardEventDTO event) {
+    if (!chartDeltas) {
+      send(event);
+      return;
+    }
+    staleSections.addAll(ChartSection.affectedBy(event.type()));
+    pendingDeltas.incrementAndGet();
+    chartExecutor.execute(() -> send(withDelta(event)));
+  }
+
+  private DashboardEventDTO withDelta(DashboardEventDTO event) {
+    /* a later task recomputes the sections of this event together with its own */
+    if (pendingDeltas.decrementAndGet() > 0) {
+      return event.withDelta(new ChartDeltaDTO(getDashboardChartsUseCase.getVersion()));
+    }
+    Set<ChartSection> sections = EnumSet.noneOf(ChartSection.class);
+    for (Iterator<ChartSection> it = staleSections.iterator(); it.hasNext(); ) {
+      sections.add(it.next());
+      it.remove();
+    }
+    try {
+      return event.withDelta(getDashboardChartsUseCase.computeDelta(sections));
+    } catch (RuntimeException e) {
+      /* without a delta the clients refetch; keep the sections for the next computation */
+      log.warn("Failed to compute chart delta for {}", event.type(), e);
+      staleSections.addAll(sections);
+      return event;
+    }
+  }
+
+  private void send(DashboardEventDTO event) {
+    /* the charts are global: whoever the event does not reach still gets its delta */
+    DashboardEventDTO charts =
+        event.delta() == null
+            ? null
+            : new DashboardEventDTO(EVENT_CHARTS_UPDATED).withDelta(event.delta());
+    String json;
+    String chartsJson;
+    try {
+      json = objectMapper.writeValueAsString(event);
+      chartsJson = charts == null ? null : objectMapper.writeValueAsString(charts);
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize dashboard event {}", event, e);
+      return;
+    }
+    synchronized (replayBuffer) {
+      long sequence = replayBuffer.next();
+      DashboardFrame frame = frame(sequence, event, json);
+      if (charts == null) {
+        replayBuffer.append(
+            sequence, new ReplayBuffer.Entry(frame, event.category(), event.warehouseId(), null));
+        subscribers.forEachInterested(
+            event.category(), event.warehouseId(), subscriber -> enqueue(subscriber, frame));
+        return;
+      }
+      ReplayBuffer.Entry entry =
+          new ReplayBuffer.Entry(
+              frame, event.category(), event.warehouseId(), frame(sequence, charts, chartsJson));
+      replayBuffer.append(sequence, entry);
+      for (DashboardSubscriber subscriber : subscribers.all()) {
+        enqueue(subscriber, entry.frameFor(subscriber));
+      }
+    }
+  }
+
+  /* guarded by replayBuffer */
+  private void replay(DashboardSubscriber subscriber, String lastEventId) {
+    List<DashboardFrame> missed = null;
+    int separator = lastEventId.lastIndexOf('-');
+    if (separator > 0 && lastEventId.substring(0, separator).equals(streamEpoch)) {
+      try {
+        List<ReplayBuffer.Entry> entries =
+            replayBuffer.since(Long.parseLong(lastEventId.substring(separator + 1)));
+        if (entries != null) {
+          /* only what this subscriber would have received */
+          missed = new ArrayList<>(entries.size());
+          for (ReplayBuffer.Entry entry : entries) {
+            DashboardFrame frame = entry.frameFor(subscriber);
+            if (frame != null) {
+              missed.add(frame);
+            }
+          }
+        }
+      } catch (NumberFormatException e) {
+        /* treated as unknown */
+      }
+    }
+    if (missed != null && missed.size() <= queueCapacity) {
+      replayed.increment(missed.size());
+      missed.forEach(frame -> enqueue(subscriber, frame));
+      return;
+    }
+    resynced.increment();
+    try {
+      DashboardEventDTO resync = new DashboardEventDTO(EVENT_RESYNC);
+      /* carries the latest id, so the next reconnect resumes from here */
+      enqueue(
+          subscriber, frame(replayBuffer.last(), resync, objectMapper.writeValueAsString(resync)));
+    } catch (JsonProcessingException e) {
+      log.error("Failed to serialize resync event", e);
+    }
+  }
+
+  private DashboardFrame frame(long sequence, DashboardEventDTO event, String json) {
+    return DashboardFrame.event(streamEpoch + "-" + sequence, sequence, event, json);
+  }
+
+  private void enqueue(DashboardSubscriber subscriber, DashboardFrame frame) {
+    if (!subscriber.getQueue().offer(frame)) {
+      if (slowConsumerPolicy == SlowConsumerPolicy.DISCONNECT) {
+        disconnected.increment();
+        disconnect(subscriber);
+        return;
+      }
+      /* DROP: make room by discarding the oldest frame */
+      while (!subscriber.getQueue().offer(frame)) {
+        if (subscriber.getQueue().poll() != null) {
+          dropped.increment();
+        }
+      }
+    }
+    scheduleDrain(subscriber);
+  }
+
+  private void scheduleDrain(DashboardSubscriber subscriber) {
+    if (subscriber.getDraining().compareAndSet(false, true)) {
+      executor.execute(() -> drain(subscriber));
+    }
+  }
+
+  private void drain(DashboardSubscriber subscriber) {
+    try {
+      DashboardConnection connection = subscriber.getConnection();
+      DashboardFrame frame;
+      /* a WebSocket out of credit keeps its frames queued until the client acknowledges */
+      while (connection.isReady() && (frame = subscriber.getQueue().poll()) != null) {
+        long startedAt = System.nanoTime();
+        try {
+          connection.send(frame);
+          subscriber.markSent();
+        } catch (Exception e) {
+          log.debug("Failed to send to connection, removing it: {}", e.getMessage());
+          disconnect(subscriber);
+          return;
+        } finally {
+          sendLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+      }
+    } finally {
+      subscriber.getDraining().set(false);
+    }
+    /* a frame may have been enqueued after the last poll but before the flag was cleared */
+    if (!subscriber.getQueue().isEmpty()
+        && subscriber.getConnection().isReady()
+        && subscribers.contains(subscriber)) {
+      scheduleDrain(subscriber);
+    }
+  }
+
+  private void disconnect(DashboardSubscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      heartbeatWheel.remove(subscriber);
+      subscriber.getQueue().clear();
+      subscriber.getConnection().close();
+    }
+  }
+
+  private void refreshInterests() {
+    refreshPending.set(false);
+    Map<UUID, Set<UUID>> warehouseIdsByUserId = new HashMap<>();
+    Map<UUID, Boolean> systemByRoleId = new HashMap<>();
+    Map<UUID, Set<DashboardEventCategory>> categoriesByRoleId = new HashMap<>();
+    try {
+      for (DashboardSubscriber subscriber : subscribers.all()) {
+        boolean system = systemByRoleId.computeIfAbsent(subscriber.getRoleId(), this::isSystem);
+        subscribers.update(
+            subscriber,
+            system
+                ? Set.of()
+                : warehouseIdsByUserId.computeIfAbsent(
+                    subscriber.getUserId(), warehouseAccessService::getWarehouseIds),
+            system,
+            categoriesByRoleId.computeIfAbsent(
+                subscriber.getRoleId(), roleId -> categories(roleId, system)));
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to refresh dashboard subscriptions", e);
+    }
+  }
+
+  /* same rule as JwtFilter: a SYSTEM role skips the permission matrix */
+  private boolean isSystem(UUID roleId) {
+    return sysconfigRegistry
+        .findActiveById(roleId)
+        .map(SysconfigDTO::key)
+        .filter(SYSTEM::equals)
+        .isPresent();
+  }
+
+  private Set<DashboardEventCategory> categories(UUID roleId, boolean system) {
+    if (system) {
+      return EnumSet.allOf(DashboardEventCategory.class);
+    }
+    Set<DashboardEventCategory> categories = EnumSet.of(DashboardEventCategory.SYSTEM);
+    CATEGORY_PATHS.forEach(
+        (category, path) -> {
+          if (permissionMatrix.isAllowed(roleId, path)) {
+            categories.add(category);
+          }
+        });
+    return categories;
+  }
+
+  private double inFlight() {
+    int inFlight = 0;
+    for (DashboardSubscriber subscriber : subscribers.all()) {
+      if (subscriber.getConnection() instanceof WebSocketDashboardConnection connection) {
+        inFlight += connection.getInFlight();
+      }
+    }
+    return inFlight;
+  }
+
+  private double queueDepth() {
+    int depth = 0;
+    for (DashboardSubscriber subscriber : subscribers.all()) {
+      depth += subscriber.getQueue().size();
+    }
+    return depth;
+  }
+
+  /** A coalescing window is per event type and routing, so merged events keep their audience. */
+  private record Window(String type, DashboardEventCategory category, UUID warehouseId) {}
 }
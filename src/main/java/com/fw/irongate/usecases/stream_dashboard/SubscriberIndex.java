@@ -0,0 +1,120 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The open connections, by connection id and by warehouse.<br>
+ * An event for one warehouse only visits that warehouse's members, so fan-out costs grow with the
+ * interested subscribers, not with everyone connected. Subscribers that see every warehouse
+ * (SYSTEM roles) are kept apart and visited for every event. Reads never lock; adding, removing and
+ * re-indexing a subscriber are serialized.
+ */
+final class SubscriberIndex {
+
+  private final Map<String, DashboardSubscriber> byConnectionId = new ConcurrentHashMap<>();
+  private final Map<UUID, Set<DashboardSubscriber>> byWarehouseId = new ConcurrentHashMap<>();
+  private final Set<DashboardSubscriber> everyWarehouse = ConcurrentHashMap.newKeySet();
+
+  synchronized void add(DashboardSubscriber subscriber) {
+    byConnectionId.put(subscriber.getConnectionId(), subscriber);
+    if (subscriber.isEveryWarehouse()) {
+      everyWarehouse.add(subscriber);
+    }
+    subscriber.getWarehouseIds().forEach(warehouseId -> index(warehouseId, subscriber));
+  }
+
+  synchronized boolean remove(DashboardSubscriber subscriber) {
+    if (!byConnectionId.remove(subscriber.getConnectionId(), subscriber)) {
+      return false;
+    }
+    everyWarehouse.remove(subscriber);
+    subscriber.getWarehouseIds().forEach(warehouseId -> unindex(warehouseId, subscriber));
+    return true;
+  }
+
+  synchronized void update(
+      DashboardSubscriber subscriber,
+      Set<UUID> warehouseIds,
+      boolean everyWarehouse,
+      Set<DashboardEventCategory> categories) {
+    Set<UUID> previous = subscriber.getWarehouseIds();
+    subscriber.setInterests(warehouseIds, everyWarehouse, categories);
+    if (!contains(subscriber)) {
+      return;
+    }
+    if (everyWarehouse) {
+      this.everyWarehouse.add(subscriber);
+    } else {
+      this.everyWarehouse.remove(subscriber);
+    }
+    Set<UUID> removed = new HashSet<>(previous);
+    removed.removeAll(warehouseIds);
+    removed.forEach(warehouseId -> unindex(warehouseId, subscriber));
+    warehouseIds.forEach(warehouseId -> index(warehouseId, subscriber));
+  }
+
+  void forEachInterested(
+      DashboardEventCategory category, UUID warehouseId, Consumer<DashboardSubscriber> action) {
+    Collection<DashboardSubscriber> candidates =
+        warehouseId == null
+            ? byConnectionId.values()
+            : byWarehouseId.getOrDefault(warehouseId, Set.of());
+    visit(candidates, category, warehouseId, action);
+    if (warehouseId != null) {
+      visit(everyWarehouse, category, warehouseId, action);
+    }
+  }
+
+  boolean contains(DashboardSubscriber subscriber) {
+    return byConnectionId.get(subscriber.getConnectionId()) == subscriber;
+  }
+
+  DashboardSubscriber get(String connectionId) {
+    return byConnectionId.get(connectionId);
+  }
+
+  Collection<DashboardSubscriber> all() {
+    return byConnectionId.values();
+  }
+
+  boolean isEmpty() {
+    return byConnectionId.isEmpty();
+  }
+
+  int size() {
+    return byConnectionId.size();
+  }
+
+  /* a subscriber of every warehouse has no memberships indexed, so it is never visited twice */
+  private static void visit(
+      Collection<DashboardSubscriber> candidates,
+      DashboardEventCategory category,
+      UUID warehouseId,
+      Consumer<DashboardSubscriber> action) {
+    for (DashboardSubscriber subscriber : candidates) {
+      if (subscriber.isInterested(category, warehouseId)) {
+        action.accept(subscriber);
+      }
+    }
+  }
+
+  private void index(UUID warehouseId, DashboardSubscriber subscriber) {
+    byWarehouseId.computeIfAbsent(warehouseId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+  }
+
+  private void unindex(UUID warehouseId, DashboardSubscriber subscriber) {
+    byWarehouseId.computeIfPresent(
+        warehouseId,
+        (k, subscribers) -> {
+          subscribers.remove(subscriber);
+          return subscribers.isEmpty() ? null : subscribers;
+        });
+  }
+}
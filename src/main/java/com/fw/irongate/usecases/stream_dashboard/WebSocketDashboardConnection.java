@@ -0,0 +1,85 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * A connection of the dashboard WebSocket, speaking {@link DashboardBinaryCodec}.<br>
+ * The client acknowledges the events it has processed. At most <code>maxInFlight</code> events
+ * are sent without an acknowledgement; further frames wait in the subscriber's queue, where the
+ * slow consumer policy applies, until an ack frees a slot. Heartbeats are WebSocket pings.
+ */
+final class WebSocketDashboardConnection implements DashboardConnection {
+
+  private static final Logger log = LoggerFactory.getLogger(WebSocketDashboardConnection.class);
+  private final WebSocketSession session;
+  private final String streamEpoch;
+  private final int maxInFlight;
+  /* sequences sent and not acknowledged yet, oldest first */
+  private final Deque<Long> inFlight = new ArrayDeque<>();
+  private volatile long lastAcked;
+
+  WebSocketDashboardConnection(WebSocketSession session, String streamEpoch, int maxInFlight) {
+    this.session = session;
+    this.streamEpoch = streamEpoch;
+    this.maxInFlight = maxInFlight;
+  }
+
+  @Override
+  public void send(DashboardFrame frame) throws IOException {
+    if (frame == DashboardFrame.HEARTBEAT) {
+      session.sendMessage(new PingMessage());
+    } else if (frame == DashboardFrame.CONNECTED) {
+      session.sendMessage(new BinaryMessage(DashboardBinaryCodec.encodeHello(streamEpoch)));
+    } else {
+      synchronized (inFlight) {
+        inFlight.addLast(frame.getSequence());
+      }
+      session.sendMessage(new BinaryMessage(frame.binary()));
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    synchronized (inFlight) {
+      return inFlight.size() < maxInFlight;
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      session.close(CloseStatus.GOING_AWAY);
+    } catch (IOException e) {
+      log.debug("Failed to close dashboard WebSocket: {}", e.getMessage());
+    }
+  }
+
+  /** Acknowledges every event up to and including <code>sequence</code>. */
+  void acknowledge(long sequence) {
+    synchronized (inFlight) {
+      while (!inFlight.isEmpty() && inFlight.peekFirst() <= sequence) {
+        inFlight.removeFirst();
+      }
+      lastAcked = Math.max(lastAcked, sequence);
+    }
+  }
+
+  /** The last event the client reported as processed. */
+  long getLastAcked() {
+    return lastAcked;
+  }
+
+  int getInFlight() {
+    synchronized (inFlight) {
+      return inFlight.size();
+    }
+  }
+}
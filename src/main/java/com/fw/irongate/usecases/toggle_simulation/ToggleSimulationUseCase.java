@@ -4,6 +4,7 @@ import static com.fw.irongate.constants.SystemConstants.ERROR;
 import static com.fw.irongate.constants.SystemConstants.OK;
 import static com.fw.irongate.constants.SystemConstants.SIMULATION_RUN_FLAG;
 
+import com.fw.irongate.caches.SysconfigRegistry;
 import com.fw.irongate.models.entities.Sysconfig;
 import com.fw.irongate.repositories.SysconfigRepository;
 import com.fw.irongate.usecases.UseCase;
@@ -14,9 +15,12 @@ import java.util.Optional;
 public class ToggleSimulationUseCase {
 
   private final SysconfigRepository sysconfigRepository;
+  private final SysconfigRegistry sysconfigRegistry;
 
-  public ToggleSimulationUseCase(SysconfigRepository sysconfigRepository) {
+  public ToggleSimulationUseCase(
+      SysconfigRepository sysconfigRepository, SysconfigRegistry sysconfigRegistry) {
     this.sysconfigRepository = sysconfigRepository;
+    this.sysconfigRegistry = sysconfigRegistry;
   }
 
   public MessageResponse handle() {
@@ -27,7 +31,7 @@ public class ToggleSimulationUseCase {
     Sysconfig sysconfig = optSysconfig.get();
     String value = sysconfig.getValue().equals("true") ? "false" : "true";
     sysconfig.setValue(value);
-    sysconfigRepository.save(sysconfig);
+    sysconfigRegistry.put(sysconfigRepository.save(sysconfig));
     return new MessageResponse(OK);
   }
 }
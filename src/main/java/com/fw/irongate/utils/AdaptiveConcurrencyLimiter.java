@@ -0,0 +1,85 @@
+package com.fw.irongate.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows observed latency (gradient algorithm).<br>
+ * The limiter keeps a baseline of the best latency seen and a smoothed latency of recent samples.
+ * While recent latency stays within <code>tolerance</code> x baseline the limit grows by about
+ * sqrt(limit) per sample. Once requests start queueing (in the connection pool, in Postgres) the
+ * latency rises, the gradient drops below 1 and the limit shrinks. Requests over the limit are
+ * refused immediately instead of joining the queue.<br>
+ * The baseline drifts slowly towards current latency, so a permanent change in the workload does
+ * not pin the limit to its minimum.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile double limit;
+  private double baselineNanos;
+  private double smoothedNanos;
+
+  public AdaptiveConcurrencyLimiter(
+      int initialLimit, int minLimit, int maxLimit, double tolerance) {
+    if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+      throw new IllegalArgumentException("Invalid concurrency limiter settings");
+    }
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+  }
+
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** Releases a permit and feeds its latency into the limit. */
+  public void release(long latencyNanos) {
+    int inFlightBefore = inFlight.getAndDecrement();
+    update(latencyNanos, inFlightBefore);
+  }
+
+  /** Releases a permit without a latency sample, e.g. when the request failed early. */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private synchronized void update(long latencyNanos, int inFlightBefore) {
+    if (latencyNanos <= 0) {
+      return;
+    }
+    if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+      baselineNanos = latencyNanos;
+    } else {
+      baselineNanos += (latencyNanos - baselineNanos) / 2000d;
+    }
+    smoothedNanos = smoothedNanos == 0 ? latencyNanos : smoothedNanos * 0.9 + latencyNanos * 0.1;
+    /* only grow while the limit is actually being used */
+    if (inFlightBefore < limit / 2) {
+      return;
+    }
+    double gradient = Math.clamp(tolerance * baselineNanos / smoothedNanos, 0.5, 1.0);
+    double target = limit * gradient + Math.sqrt(limit);
+    limit = Math.clamp(limit * 0.8 + target * 0.2, minLimit, maxLimit);
+  }
+}
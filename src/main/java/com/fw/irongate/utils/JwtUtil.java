@@ -13,7 +13,10 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -29,8 +32,18 @@ public class JwtUtil {
   @Value("${jwt.issuer}")
   private String issuer;
 
+  @Value("${jwt.claims_cache_size:10000}")
+  private int claimsCacheSize;
+
   private final JWTVerifier jwtVerifier;
 
+  /**
+   * Tokens that already passed signature verification, keyed by their SHA-256 digest.<br>
+   * The same cookie arrives on every request of a session, so most calls skip the HMAC check,
+   * claim extraction and UUID parsing. An entry never outlives the token's <code>exp</code>.
+   */
+  private final Map<TokenDigest, VerifiedClaims> verifiedClaims = new ConcurrentHashMap<>();
+
   public JwtUtil(JWTVerifier jwtVerifier) {
     this.jwtVerifier = jwtVerifier;
   }
@@ -50,20 +63,68 @@ public class JwtUtil {
   }
 
   public JwtClaimDTO validateJwt(String jwt) {
+    return validateJwt(jwt, TokenDigest.of(jwt));
+  }
+
+  /** Same as {@link #validateJwt(String)} for callers that already hold the token digest. */
+  public JwtClaimDTO validateJwt(String jwt, TokenDigest digest) {
+    if (claimsCacheSize <= 0) {
+      VerifiedClaims verified = verify(jwt);
+      return verified == null ? null : verified.claims();
+    }
+    VerifiedClaims cached = verifiedClaims.get(digest);
+    long now = System.currentTimeMillis();
+    if (cached != null) {
+      if (cached.expiresAtMillis() > now) {
+        return cached.claims();
+      }
+      verifiedClaims.remove(digest, cached);
+    }
+    VerifiedClaims verified = verify(jwt);
+    if (verified == null) {
+      return null;
+    }
+    if (verified.expiresAtMillis() != Long.MAX_VALUE) {
+      if (verifiedClaims.size() >= claimsCacheSize) {
+        evict(now);
+      }
+      verifiedClaims.put(digest, verified);
+    }
+    return verified.claims();
+  }
+
+  private VerifiedClaims verify(String jwt) {
     try {
       var decodedJWT = jwtVerifier.verify(jwt);
-      return new JwtClaimDTO(
-          UUID.fromString(decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ID).asString()),
-          decodedJWT.getClaim(JWT_CLAIM_KEY_USER_EMAIL).asString(),
-          UUID.fromString(decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ROLE_ID).asString()),
-          decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ROLE_NAME).asString(),
-          decodedJWT.getClaim(JWT_CLAIM_KEY_USER_FULL_NAME).asString());
+      JwtClaimDTO claims =
+          new JwtClaimDTO(
+              UUID.fromString(decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ID).asString()),
+              decodedJWT.getClaim(JWT_CLAIM_KEY_USER_EMAIL).asString(),
+              UUID.fromString(decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ROLE_ID).asString()),
+              decodedJWT.getClaim(JWT_CLAIM_KEY_USER_ROLE_NAME).asString(),
+              decodedJWT.getClaim(JWT_CLAIM_KEY_USER_FULL_NAME).asString());
+      /* Tokens without exp are still accepted, just never cached */
+      Date expiresAt = decodedJWT.getExpiresAt();
+      return new VerifiedClaims(claims, expiresAt == null ? Long.MAX_VALUE : expiresAt.getTime());
     } catch (Exception e) {
       return null;
     }
   }
 
+  /* Expired entries go first; if the cache is still full, drop an arbitrary tenth of it */
+  private void evict(long now) {
+    verifiedClaims.values().removeIf(v -> v.expiresAtMillis() <= now);
+    int excess = verifiedClaims.size() - claimsCacheSize + Math.max(1, claimsCacheSize / 10);
+    Iterator<TokenDigest> iterator = verifiedClaims.keySet().iterator();
+    while (excess-- > 0 && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
   public Instant extractExpiration(String jwt) {
     return JWT.decode(jwt).getExpiresAtAsInstant();
   }
+
+  private record VerifiedClaims(JwtClaimDTO claims, long expiresAtMillis) {}
 }
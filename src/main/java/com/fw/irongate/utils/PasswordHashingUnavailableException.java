@@ -0,0 +1,11 @@
+package com.fw.irongate.utils;
+
+import static com.fw.irongate.constants.MessageConstants.PASSWORD_HASHING_BUSY;
+
+/** Thrown when the password-hashing pool is saturated; mapped to 503 Service Unavailable. */
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+  public PasswordHashingUnavailableException(Throwable cause) {
+    super(PASSWORD_HASHING_BUSY, cause);
+  }
+}
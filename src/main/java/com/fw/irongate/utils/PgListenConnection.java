@@ -0,0 +1,31 @@
+package com.fw.irongate.utils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+/**
+ * Opens a dedicated connection for Postgres <code>LISTEN</code>.<br>
+ * A listening connection is held for the lifetime of the node, so it must not come from the Hikari
+ * pool. The application name makes it easy to find (and terminate) in <code>pg_stat_activity
+ * </code>.
+ */
+public final class PgListenConnection {
+
+  private PgListenConnection() {}
+
+  public static Connection open(DataSourceProperties dataSourceProperties, String applicationName)
+      throws SQLException {
+    Properties properties = new Properties();
+    if (dataSourceProperties.determineUsername() != null) {
+      properties.setProperty("user", dataSourceProperties.determineUsername());
+    }
+    if (dataSourceProperties.determinePassword() != null) {
+      properties.setProperty("password", dataSourceProperties.determinePassword());
+    }
+    properties.setProperty("ApplicationName", applicationName);
+    return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+  }
+}
@@ -0,0 +1,132 @@
+package com.fw.irongate.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt on a dedicated, bounded pool instead of the calling (Tomcat) thread.<br>
+ * A login burst can only occupy <code>threads</code> cores; further requests wait in a queue of
+ * <code>queueCapacity</code> and give up after <code>timeoutInMillisecond</code>. Anything beyond
+ * that is rejected immediately with {@link PasswordHashingUnavailableException} (503), so the
+ * other APIs keep their CPU.<br>
+ * {@link #upgradeEncoding(String)} reports hashes whose cost differs from the configured strength,
+ * which makes Spring Security rehash them transparently on the next successful login.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+  private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+  private final BCryptPasswordEncoder delegate;
+  private final int strength;
+  private final ThreadPoolExecutor executor;
+  private final long timeoutInMillisecond;
+  private final Timer queueWait;
+  private final Timer hashTime;
+
+  public PooledPasswordEncoder(
+      int strength,
+      int threads,
+      int queueCapacity,
+      long timeoutInMillisecond,
+      MeterRegistry meterRegistry) {
+    this.delegate = new BCryptPasswordEncoder(strength, new SecureRandom());
+    this.strength = strength;
+    this.timeoutInMillisecond = timeoutInMillisecond;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.queueWait =
+        Timer.builder("irongate.password.queue_wait")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.hashTime =
+        Timer.builder("irongate.password.hash_time")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    meterRegistry.gauge("irongate.password.queue_size", executor, e -> e.getQueue().size());
+    meterRegistry.gauge("irongate.password.active", executor, ThreadPoolExecutor::getActiveCount);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return submit(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return submit(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+    return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    long enqueuedAt = System.nanoTime();
+    Future<T> future;
+    try {
+      future =
+          executor.submit(
+              () -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                long startedAt = System.nanoTime();
+                try {
+                  return task.call();
+                } finally {
+                  hashTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+              });
+    } catch (RejectedExecutionException e) {
+      throw new PasswordHashingUnavailableException(e);
+    }
+    try {
+      return future.get(timeoutInMillisecond, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new PasswordHashingUnavailableException(e);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingUnavailableException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.fw.irongate.utils;
+
+/**
+ * Classic token bucket: holds up to <code>capacity</code> tokens and refills continuously at
+ * <code>refillPerSecond</code>. Each admitted request takes one token, so bursts up to the capacity
+ * pass and the sustained rate is bounded by the refill rate.
+ */
+public class TokenBucket {
+
+  private final double capacity;
+  private final double refillPerNano;
+  private double tokens;
+  private long refilledAt;
+
+  public TokenBucket(int capacity, double refillPerSecond) {
+    this(capacity, refillPerSecond, System.nanoTime());
+  }
+
+  public TokenBucket(int capacity, double refillPerSecond, long nowNanos) {
+    this.capacity = capacity;
+    this.refillPerNano = refillPerSecond / 1_000_000_000d;
+    this.tokens = capacity;
+    this.refilledAt = nowNanos;
+  }
+
+  public boolean tryAcquire() {
+    return tryAcquire(System.nanoTime());
+  }
+
+  public synchronized boolean tryAcquire(long nowNanos) {
+    refill(nowNanos);
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  /** A full bucket has not been used for at least capacity / refill rate and can be dropped. */
+  public synchronized boolean isFull(long nowNanos) {
+    refill(nowNanos);
+    return tokens >= capacity;
+  }
+
+  private void refill(long nowNanos) {
+    long elapsed = nowNanos - refilledAt;
+    if (elapsed > 0) {
+      tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+      refilledAt = nowNanos;
+    }
+  }
+}
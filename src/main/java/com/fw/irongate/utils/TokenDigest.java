@@ -0,0 +1,38 @@
+package com.fw.irongate.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digest of a token, kept as four longs so it can be used as a cheap map key.<br>
+ * The raw token is never stored in memory caches, only its digest.
+ */
+public record TokenDigest(long w0, long w1, long w2, long w3) {
+
+  private static final ThreadLocal<MessageDigest> SHA_256 =
+      ThreadLocal.withInitial(
+          () -> {
+            try {
+              return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+              throw new IllegalStateException(e);
+            }
+          });
+
+  public static TokenDigest of(String token) {
+    MessageDigest messageDigest = SHA_256.get();
+    messageDigest.reset();
+    return of(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  public static TokenDigest of(byte[] sha256) {
+    ByteBuffer buffer = ByteBuffer.wrap(sha256);
+    return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+
+  public byte[] toBytes() {
+    return ByteBuffer.allocate(32).putLong(w0).putLong(w1).putLong(w2).putLong(w3).array();
+  }
+}
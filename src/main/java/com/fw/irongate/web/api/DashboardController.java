@@ -1,13 +1,23 @@
 package com.fw.irongate.web.api;
 
 import com.fw.irongate.models.dto.DashboardChartsDTO;
+import com.fw.irongate.models.dto.DashboardRollupsDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.usecases.get_dashboard_charts.GetDashboardChartsUseCase;
+import com.fw.irongate.usecases.get_dashboard_rollups.GetDashboardRollupsRequest;
+import com.fw.irongate.usecases.get_dashboard_rollups.GetDashboardRollupsUseCase;
+import com.fw.irongate.usecases.rebuild_dashboard_aggregates.RebuildDashboardAggregatesUseCase;
 import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.web.responses.MessageResponse;
+import java.time.Instant;
+import java.util.UUID;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -17,12 +27,18 @@ public class DashboardController {
 
   private final StreamDashboardUseCase streamDashboardUseCase;
   private final GetDashboardChartsUseCase getDashboardChartsUseCase;
+  private final RebuildDashboardAggregatesUseCase rebuildDashboardAggregatesUseCase;
+  private final GetDashboardRollupsUseCase getDashboardRollupsUseCase;
 
   public DashboardController(
       StreamDashboardUseCase streamDashboardUseCase,
-      GetDashboardChartsUseCase getDashboardChartsUseCase) {
+      GetDashboardChartsUseCase getDashboardChartsUseCase,
+      RebuildDashboardAggregatesUseCase rebuildDashboardAggregatesUseCase,
+      GetDashboardRollupsUseCase getDashboardRollupsUseCase) {
     this.streamDashboardUseCase = streamDashboardUseCase;
     this.getDashboardChartsUseCase = getDashboardChartsUseCase;
+    this.rebuildDashboardAggregatesUseCase = rebuildDashboardAggregatesUseCase;
+    this.getDashboardRollupsUseCase = getDashboardRollupsUseCase;
   }
 
   /**
@@ -33,17 +49,38 @@ public class DashboardController {
    * immediately, the connection can time out or appear "incomplete" to the client.<br><br>
    * It is recommended to add the <code>X-Accel-Buffering: no</code> header to the <code>/api/dashboard/stream</code> response.
    * This header specifically tells Nginx to disable buffering for this request, allowing the SSE events to flow
-   * through in real-time.
+   * through in real-time.<br><br>
+   * EventSource sends the id of the last event it saw as <code>Last-Event-ID</code> when it
+   * reconnects; the missed events are replayed, see {@link StreamDashboardUseCase}.
    */
   @GetMapping(value = "/stream")
-  public ResponseEntity<SseEmitter> stream(@AuthenticationPrincipal JwtClaimDTO jwtClaimDTO) {
+  public ResponseEntity<SseEmitter> stream(
+      @AuthenticationPrincipal JwtClaimDTO jwtClaimDTO,
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
     return ResponseEntity.ok()
         .header("X-Accel-Buffering", "no")
-        .body(streamDashboardUseCase.subscribe(jwtClaimDTO.userId().toString()));
+        .body(streamDashboardUseCase.subscribe(jwtClaimDTO, lastEventId));
   }
 
   @GetMapping("/charts")
   public ResponseEntity<DashboardChartsDTO> getCharts() {
     return ResponseEntity.ok(getDashboardChartsUseCase.handle());
   }
+
+  /** <code>from</code> and <code>to</code> are ISO-8601 instants, e.g. 2025-01-31T00:00:00Z. */
+  @GetMapping("/rollups")
+  public ResponseEntity<DashboardRollupsDTO> getRollups(
+      @RequestParam Instant from,
+      @RequestParam(required = false) Instant to,
+      @RequestParam(required = false) String granularity,
+      @RequestParam(required = false) UUID warehouseId) {
+    return ResponseEntity.ok(
+        getDashboardRollupsUseCase.handle(
+            new GetDashboardRollupsRequest(from, to, granularity, warehouseId)));
+  }
+
+  @PostMapping("/aggregates/rebuild")
+  public ResponseEntity<MessageResponse> rebuildAggregates() {
+    return ResponseEntity.ok(rebuildDashboardAggregatesUseCase.handle());
+  }
 }
@@ -0,0 +1,75 @@
+package com.fw.irongate.web.api;
+
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.usecases.stream_dashboard.DashboardBinaryCodec;
+import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import java.nio.BufferUnderflowException;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * <code>/api/dashboard/ws</code>: the dashboard stream as binary WebSocket frames, for clients
+ * that would rather not parse SSE text ({@link DashboardBinaryCodec}). The handshake is an ordinary
+ * GET, so it goes through the same cookie authentication and permission check as <code>
+ * /api/dashboard/stream</code>. A reconnecting client passes the id of the last event it processed
+ * as <code>?lastEventId=&lt;epoch&gt;-&lt;sequence&gt;</code>.
+ */
+@Component
+public class DashboardWebSocketHandler extends BinaryWebSocketHandler {
+
+  private static final String CONNECTION_ID = "dashboardConnectionId";
+  private final StreamDashboardUseCase streamDashboardUseCase;
+
+  public DashboardWebSocketHandler(StreamDashboardUseCase streamDashboardUseCase) {
+    this.streamDashboardUseCase = streamDashboardUseCase;
+  }
+
+  @Override
+  public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+    if (!(session.getPrincipal() instanceof Authentication authentication)
+        || !(authentication.getPrincipal() instanceof JwtClaimDTO jwtClaimDTO)) {
+      session.close(CloseStatus.POLICY_VIOLATION);
+      return;
+    }
+    String lastEventId =
+        session.getUri() == null
+            ? null
+            : UriComponentsBuilder.fromUri(session.getUri())
+                .build()
+                .getQueryParams()
+                .getFirst("lastEventId");
+    session
+        .getAttributes()
+        .put(CONNECTION_ID, streamDashboardUseCase.connect(jwtClaimDTO, session, lastEventId));
+  }
+
+  @Override
+  protected void handleBinaryMessage(
+      @NonNull WebSocketSession session, @NonNull BinaryMessage message) throws Exception {
+    String connectionId = (String) session.getAttributes().get(CONNECTION_ID);
+    if (connectionId == null) {
+      return;
+    }
+    try {
+      streamDashboardUseCase.acknowledge(
+          connectionId, DashboardBinaryCodec.decodeAck(message.getPayload()));
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      session.close(CloseStatus.BAD_DATA);
+    }
+  }
+
+  @Override
+  public void afterConnectionClosed(
+      @NonNull WebSocketSession session, @NonNull CloseStatus status) {
+    String connectionId = (String) session.getAttributes().get(CONNECTION_ID);
+    if (connectionId != null) {
+      streamDashboardUseCase.close(connectionId);
+    }
+  }
+}
@@ -0,0 +1,11 @@
+alter table revoked_tokens add column jwt_digest bytea;
+
+update revoked_tokens set jwt_digest = sha256(convert_to(jwt, 'UTF8'));
+
+alter table revoked_tokens alter column jwt_digest set not null;
+
+alter table revoked_tokens add constraint revoked_tokens_jwt_digest_key unique (jwt_digest);
+
+alter table revoked_tokens drop column jwt;
+
+create index revoked_tokens_expired_at_idx on revoked_tokens (expired_at);
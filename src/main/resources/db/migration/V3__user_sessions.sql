@@ -0,0 +1,19 @@
+create table user_sessions (
+  id uuid not null,
+  created_at timestamp(6) with time zone not null,
+  created_by varchar(255) not null,
+  deleted_at timestamp(6) with time zone,
+  deleted_by varchar(255),
+  updated_at timestamp(6) with time zone not null,
+  updated_by varchar(255) not null,
+  session_digest bytea not null unique,
+  user_id uuid not null,
+  email varchar(255) not null,
+  role_id uuid not null,
+  role_name varchar(255) not null,
+  full_name varchar(255) not null,
+  expired_at timestamp(6) with time zone not null,
+  primary key (id)
+);
+
+create index user_sessions_expired_at_idx on user_sessions (expired_at);
@@ -0,0 +1,13 @@
+create table dashboard_event_payloads (
+  id uuid not null,
+  created_at timestamp(6) with time zone not null,
+  created_by varchar(255) not null,
+  deleted_at timestamp(6) with time zone,
+  deleted_by varchar(255),
+  updated_at timestamp(6) with time zone not null,
+  updated_by varchar(255) not null,
+  payload text not null,
+  primary key (id)
+);
+
+create index dashboard_event_payloads_created_at_idx on dashboard_event_payloads (created_at);
@@ -0,0 +1,17 @@
+create table dashboard_aggregates (
+  id uuid not null,
+  created_at timestamp(6) with time zone not null,
+  created_by varchar(255) not null,
+  deleted_at timestamp(6) with time zone,
+  deleted_by varchar(255),
+  updated_at timestamp(6) with time zone not null,
+  updated_by varchar(255) not null,
+  section varchar(255) not null,
+  label varchar(255) not null,
+  amount numeric(22,2) not null,
+  primary key (id)
+);
+
+alter table dashboard_aggregates add constraint dashboard_aggregates_section_label_key unique (section, label);
+
+create index dashboard_aggregates_section_amount_idx on dashboard_aggregates (section, amount desc);
@@ -0,0 +1,59 @@
+create table order_rollups (
+  id uuid not null,
+  created_at timestamp(6) with time zone not null,
+  created_by varchar(255) not null,
+  deleted_at timestamp(6) with time zone,
+  deleted_by varchar(255),
+  updated_at timestamp(6) with time zone not null,
+  updated_by varchar(255) not null,
+  granularity varchar(255) not null,
+  bucket_start timestamp(6) with time zone not null,
+  warehouse_id uuid not null,
+  status varchar(255) not null,
+  order_count bigint not null,
+  revenue numeric(22,2) not null,
+  primary key (id)
+);
+
+alter table order_rollups add constraint order_rollups_bucket_warehouse_status_key unique (granularity, bucket_start, warehouse_id, status);
+alter table order_rollups add constraint order_rollups_warehouse_id_fkey foreign key (warehouse_id) references warehouses;
+
+create table product_rollups (
+  id uuid not null,
+  created_at timestamp(6) with time zone not null,
+  created_by varchar(255) not null,
+  deleted_at timestamp(6) with time zone,
+  deleted_by varchar(255),
+  updated_at timestamp(6) with time zone not null,
+  updated_by varchar(255) not null,
+  granularity varchar(255) not null,
+  bucket_start timestamp(6) with time zone not null,
+  product_id uuid not null,
+  units bigint not null,
+  revenue numeric(22,2) not null,
+  primary key (id)
+);
+
+alter table product_rollups add constraint product_rollups_bucket_product_key unique (granularity, bucket_start, product_id);
+alter table product_rollups add constraint product_rollups_product_id_fkey foreign key (product_id) references products;
+
+-- the history so far, as hourly buckets; the first compaction folds the old ones into days.
+-- an order enters PENDING when created and COMPLETED at its last update.
+insert into order_rollups (id, created_at, created_by, updated_at, updated_by, granularity, bucket_start, warehouse_id, status, order_count, revenue)
+select gen_random_uuid(), now(), 'system', now(), 'system', 'HOUR', date_trunc('hour', created_at, 'UTC'), warehouse_id, 'PENDING', count(*), sum(total_price)
+from orders
+where deleted_at is null
+group by 7, 8;
+
+insert into order_rollups (id, created_at, created_by, updated_at, updated_by, granularity, bucket_start, warehouse_id, status, order_count, revenue)
+select gen_random_uuid(), now(), 'system', now(), 'system', 'HOUR', date_trunc('hour', updated_at, 'UTC'), warehouse_id, 'COMPLETED', count(*), sum(total_price)
+from orders
+where deleted_at is null and status = 'COMPLETED'
+group by 7, 8;
+
+insert into product_rollups (id, created_at, created_by, updated_at, updated_by, granularity, bucket_start, product_id, units, revenue)
+select gen_random_uuid(), now(), 'system', now(), 'system', 'HOUR', date_trunc('hour', o.updated_at, 'UTC'), op.product_id, sum(op.quantity), sum(op.price * op.quantity)
+from orders_products op
+join orders o on o.id = op.order_id
+where o.deleted_at is null and op.deleted_at is null and o.status = 'COMPLETED'
+group by 7, 8;
@@ -0,0 +1,216 @@
+package com.fw.irongate.caches;
+
+import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fw.irongate.IronGate;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.SysconfigType;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.usecases.login.LoginRequest;
+import com.fw.irongate.web.api.TestParent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs a second application context ("the other node") against the same database and checks that
+ * changes made through this context reach the other node's caches.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource("classpath:application-test.properties")
+class TestInvalidationBus extends TestParent {
+
+  private static final Logger log = LoggerFactory.getLogger(TestInvalidationBus.class);
+  private static final long TIMEOUT_IN_MILLISECOND = 5000;
+
+  @Value("${spring.datasource.url}")
+  private String url;
+
+  @Value("${spring.datasource.username}")
+  private String username;
+
+  @Value("${spring.datasource.password}")
+  private String password;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  private ConfigurableApplicationContext otherNode;
+
+  @BeforeAll
+  void startOtherNode() {
+    otherNode =
+        new SpringApplicationBuilder(IronGate.class)
+            .run(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                /* the schema belongs to this context */
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.flyway.enabled=false",
+                "--server.port=0");
+    assertTrue(await(() -> listenerBackends() == 1), "other node is not listening");
+  }
+
+  @AfterAll
+  void stopOtherNode() {
+    otherNode.close();
+  }
+
+  @AfterEach
+  void cleanUp() {
+    deleteAll();
+  }
+
+  @Test
+  void givenSysconfigCreatedOnThisNode_otherNodeRegistryConverges() {
+    /* setup */
+    SysconfigRegistry otherRegistry = otherNode.getBean(SysconfigRegistry.class);
+    assertTrue(otherRegistry.findByKey("INVALIDATION_TEST").isEmpty());
+    SysconfigType type = createSysconfigType("INVALIDATION", "description");
+    /* test */
+    long startedAt = System.nanoTime();
+    createSysconfig(type, "INVALIDATION_TEST", "value");
+    assertTrue(await(() -> otherRegistry.findByKey("INVALIDATION_TEST").isPresent()));
+    log.info("Sysconfig converged in {} us", (System.nanoTime() - startedAt) / 1000);
+  }
+
+  @Test
+  void givenWarehouseUserCreatedOnThisNode_otherNodeMembershipConverges() {
+    /* setup */
+    WarehouseAccessService otherAccess = otherNode.getBean(WarehouseAccessService.class);
+    SysconfigType role = createSysconfigType("ROLE", "description");
+    Sysconfig areaManager = createSysconfig(role, "AREA_MANAGER", "Area Manager");
+    User user = createUser(areaManager, "am@mail.com", "hash", "full name");
+    Warehouse warehouse = createWarehouse("Warehouse", "WH");
+    assertFalse(otherAccess.isMember(user.getId(), warehouse.getId()));
+    /* test */
+    long startedAt = System.nanoTime();
+    createWarehouseUser(warehouse, user);
+    assertTrue(await(() -> otherAccess.isMember(user.getId(), warehouse.getId())));
+    log.info("Membership converged in {} us", (System.nanoTime() - startedAt) / 1000);
+  }
+
+  @Test
+  void givenLogoutOnThisNode_otherNodeRejectsTheCookie() throws Exception {
+    /* setup */
+    SysconfigType role = createSysconfigType("ROLE", "description");
+    SysconfigType resourcePath = createSysconfigType("RESOURCE_PATH", "description");
+    Sysconfig areaManager = createSysconfig(role, "AREA_MANAGER", "Area Manager");
+    createPermission(
+        areaManager, createSysconfig(resourcePath, "API_AUTH_LOGOUT", "/api/auth/logout"));
+    createUser(areaManager, "am@mail.com", bCryptPasswordEncoder.encode("password"), "full name");
+    String jwt =
+        Objects.requireNonNull(
+                mockMvc
+                    .perform(
+                        post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(
+                                objectMapper.writeValueAsString(
+                                    new LoginRequest("am@mail.com", "password"))))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getCookie(COOKIE_NAME))
+            .getValue();
+    /* test */
+    mockMvc
+        .perform(post("/api/auth/logout").cookie(new Cookie(COOKIE_NAME, jwt)))
+        .andExpect(status().isOk());
+    assertTrue(await(() -> logoutOnOtherNode(jwt) == HttpServletResponse.SC_UNAUTHORIZED));
+  }
+
+  @Test
+  void givenListenerConnectionDropped_otherNodeReconnectsAndResyncs() {
+    /* setup */
+    SysconfigRegistry otherRegistry = otherNode.getBean(SysconfigRegistry.class);
+    MeterRegistry otherMeters = otherNode.getBean(MeterRegistry.class);
+    SysconfigType type = createSysconfigType("INVALIDATION", "description");
+    assertTrue(otherRegistry.findByKey("AFTER_DROP").isEmpty());
+    /* test */
+    jdbcTemplate.queryForList(
+        "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+        applicationName());
+    /* this change may be sent while nobody is listening */
+    createSysconfig(type, "AFTER_DROP", "value");
+    assertTrue(
+        await(() -> otherMeters.get("irongate.invalidation.reconnects").counter().count() >= 1));
+    assertTrue(await(() -> listenerBackends() == 1));
+    assertTrue(await(() -> otherRegistry.findByKey("AFTER_DROP").isPresent()));
+  }
+
+  private int logoutOnOtherNode(String jwt) {
+    String port = otherNode.getEnvironment().getProperty("local.server.port");
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/logout"))
+            .header("Cookie", COOKIE_NAME + "=" + jwt)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+    try (HttpClient client = HttpClient.newHttpClient()) {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    } catch (IOException e) {
+      return -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return -1;
+    }
+  }
+
+  private String applicationName() {
+    return "irongate-invalidation-" + otherNode.getBean(InvalidationBus.class).getNodeId();
+  }
+
+  private int listenerBackends() {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_stat_activity WHERE application_name = ?",
+            Integer.class,
+            applicationName());
+    return count == null ? 0 : count;
+  }
+
+  private static boolean await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TIMEOUT_IN_MILLISECOND;
+    while (System.currentTimeMillis() < deadline) {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      try {
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,120 @@
+package com.fw.irongate.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.dto.PermissionDTO;
+import com.fw.irongate.models.entities.Permission;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.repositories.PermissionRepository;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TestPermissionMatrix {
+
+  @Mock private PermissionRepository permissionRepository;
+  @InjectMocks private PermissionMatrix permissionMatrix;
+
+  private Sysconfig areaManager;
+  private Sysconfig salesAdmin;
+
+  @BeforeEach
+  void setUp() {
+    areaManager = sysconfig("AREA_MANAGER", "Area Manager");
+    salesAdmin = sysconfig("SALES_ADMIN", "Sales Admin");
+  }
+
+  @Test
+  void isAllowed_shouldMatchLiteralAndTemplatedPaths() {
+    /* Arrange */
+    when(permissionRepository.findAllActive())
+        .thenReturn(
+            List.of(
+                permission(areaManager, "/api/order/filter"),
+                permission(areaManager, "/api/order/{id}"),
+                permission(salesAdmin, "/api/stock/filter")));
+    /* Act & Assert */
+    assertTrue(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/filter"));
+    assertTrue(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/" + UUID.randomUUID()));
+    assertFalse(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/"));
+    assertFalse(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/1/products"));
+    assertFalse(permissionMatrix.isAllowed(areaManager.getId(), "/api/stock/filter"));
+    assertTrue(permissionMatrix.isAllowed(salesAdmin.getId(), "/api/stock/filter"));
+    assertFalse(permissionMatrix.isAllowed(salesAdmin.getId(), "/api/order/filter"));
+    assertFalse(permissionMatrix.isAllowed(UUID.randomUUID(), "/api/stock/filter"));
+    /* Compiled once, answered from memory afterwards */
+    verify(permissionRepository, times(1)).findAllActive();
+  }
+
+  @Test
+  void onEntityChanged_shouldRecompileOnNextLookup() {
+    /* Arrange */
+    when(permissionRepository.findAllActive())
+        .thenReturn(List.of())
+        .thenReturn(List.of(permission(areaManager, "/api/order/filter")));
+    assertFalse(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/filter"));
+    /* Act */
+    permissionMatrix.onEntityChanged(new EntityChangedEvent(Permission.class, null, null));
+    /* Assert */
+    assertTrue(permissionMatrix.isAllowed(areaManager.getId(), "/api/order/filter"));
+    verify(permissionRepository, times(2)).findAllActive();
+  }
+
+  @Test
+  void onEntityChanged_shouldIgnoreUnrelatedEntities() {
+    /* Arrange */
+    when(permissionRepository.findAllActive()).thenReturn(List.of());
+    permissionMatrix.isAllowed(areaManager.getId(), "/api/order/filter");
+    /* Act */
+    permissionMatrix.onEntityChanged(new EntityChangedEvent(String.class, "x", null));
+    permissionMatrix.isAllowed(areaManager.getId(), "/api/order/filter");
+    /* Assert */
+    verify(permissionRepository, times(1)).findAllActive();
+  }
+
+  @Test
+  void getPermissions_shouldGroupAndSortByRoleName() {
+    /* Arrange */
+    when(permissionRepository.findAllActive())
+        .thenReturn(
+            List.of(
+                permission(salesAdmin, "/api/stock/filter"),
+                permission(areaManager, "/api/shipment/filter"),
+                permission(areaManager, "/api/order/filter")));
+    /* Act */
+    List<PermissionDTO> result = permissionMatrix.getPermissions();
+    /* Assert */
+    assertEquals(
+        List.of(
+            new PermissionDTO("Area Manager", List.of("/api/order/filter", "/api/shipment/filter")),
+            new PermissionDTO("Sales Admin", List.of("/api/stock/filter"))),
+        result);
+  }
+
+  private Sysconfig sysconfig(String key, String value) {
+    Sysconfig sysconfig = new Sysconfig();
+    sysconfig.setId(UuidCreator.getTimeOrderedEpoch());
+    sysconfig.setKey(key);
+    sysconfig.setValue(value);
+    return sysconfig;
+  }
+
+  private Permission permission(Sysconfig role, String path) {
+    Permission permission = new Permission();
+    permission.setRole(role);
+    permission.setResourcePath(sysconfig(path, path));
+    return permission;
+  }
+}
@@ -0,0 +1,100 @@
+package com.fw.irongate.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.entities.RevokedToken;
+import com.fw.irongate.repositories.RevokedTokenRepository;
+import com.fw.irongate.utils.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestRevokedTokenIndex {
+
+  private RevokedTokenRepository revokedTokenRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private RevokedTokenIndex revokedTokenIndex;
+
+  @BeforeEach
+  void setUp() {
+    revokedTokenRepository = mock(RevokedTokenRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    revokedTokenIndex = new RevokedTokenIndex(revokedTokenRepository, meterRegistry, 1000, 0.01);
+  }
+
+  @Test
+  void load_shouldIndexActiveTokensFromRepository() {
+    /* Arrange */
+    when(revokedTokenRepository.findAllByExpiredAtAfter(any()))
+        .thenReturn(
+            List.of(
+                new RevokedToken(
+                    TokenDigest.of("stored.jwt").toBytes(), Instant.now().plusSeconds(60))));
+    /* Act */
+    revokedTokenIndex.load();
+    /* Assert */
+    assertTrue(revokedTokenIndex.isRevoked(TokenDigest.of("stored.jwt")));
+    assertFalse(revokedTokenIndex.isRevoked(TokenDigest.of("other.jwt")));
+    assertEquals(1, revokedTokenIndex.size());
+  }
+
+  @Test
+  void isRevoked_shouldReturnTrue_onlyForRevokedTokens() {
+    /* Arrange */
+    revokedTokenIndex.revoke(TokenDigest.of("revoked.jwt"), Instant.now().plusSeconds(60));
+    /* Act & Assert */
+    assertTrue(revokedTokenIndex.isRevoked(TokenDigest.of("revoked.jwt")));
+    for (int i = 0; i < 1000; i++) {
+      assertFalse(revokedTokenIndex.isRevoked(TokenDigest.of("live.jwt." + i)));
+    }
+  }
+
+  @Test
+  void purgeExpired_shouldDropEntriesPastTheirExpiry() {
+    /* Arrange */
+    revokedTokenIndex.revoke(TokenDigest.of("expired.jwt"), Instant.now().minusSeconds(1));
+    revokedTokenIndex.revoke(TokenDigest.of("active.jwt"), Instant.now().plusSeconds(60));
+    /* Act */
+    revokedTokenIndex.purgeExpired();
+    /* Assert */
+    assertEquals(1, revokedTokenIndex.size());
+    assertFalse(revokedTokenIndex.isRevoked(TokenDigest.of("expired.jwt")));
+    assertTrue(revokedTokenIndex.isRevoked(TokenDigest.of("active.jwt")));
+  }
+
+  @Test
+  void metrics_shouldReportSizeAndFalsePositiveRate() {
+    /* Arrange */
+    for (int i = 0; i < 500; i++) {
+      revokedTokenIndex.revoke(TokenDigest.of("revoked.jwt." + i), Instant.now().plusSeconds(60));
+    }
+    /* Act */
+    for (int i = 0; i < 10000; i++) {
+      revokedTokenIndex.isRevoked(TokenDigest.of("live.jwt." + i));
+    }
+    /* Assert */
+    assertEquals(500, meterRegistry.get("irongate.revocation.size").gauge().value());
+    double observed =
+        meterRegistry
+            .get("irongate.revocation.bloom.false_positive_rate")
+            .tag("kind", "observed")
+            .gauge()
+            .value();
+    double expected =
+        meterRegistry
+            .get("irongate.revocation.bloom.false_positive_rate")
+            .tag("kind", "expected")
+            .gauge()
+            .value();
+    /* Filter is sized for 1000 at 1%, so half full it should stay well below that */
+    assertTrue(expected < 0.01);
+    assertTrue(observed < 0.02);
+  }
+}
@@ -0,0 +1,125 @@
+package com.fw.irongate.caches;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.models.entities.UserSession;
+import com.fw.irongate.repositories.UserSessionRepository;
+import com.fw.irongate.utils.TokenDigest;
+import com.github.f4b6a3.uuid.UuidCreator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class TestSessionStore {
+
+  private UserSessionRepository userSessionRepository;
+  private SimpleMeterRegistry meterRegistry;
+  private JwtClaimDTO claims;
+
+  @BeforeEach
+  void setUp() {
+    userSessionRepository = mock(UserSessionRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    claims =
+        new JwtClaimDTO(
+            UuidCreator.getTimeOrderedEpoch(),
+            "user@example.com",
+            UuidCreator.getTimeOrderedEpoch(),
+            "role",
+            "full name");
+  }
+
+  @Test
+  void isEnabled_shouldFollowAuthMode() {
+    /* Act & Assert */
+    assertFalse(newSessionStore("JWT", false, 60000).isEnabled());
+    assertTrue(newSessionStore("session", false, 60000).isEnabled());
+  }
+
+  @Test
+  void createGetRemove_shouldRoundTripClaims() {
+    /* Arrange */
+    SessionStore sessionStore = newSessionStore("SESSION", false, 60000);
+    /* Act */
+    String sessionId = sessionStore.create(claims);
+    /* Assert */
+    assertEquals(43, sessionId.length());
+    assertEquals(claims, sessionStore.get(TokenDigest.of(sessionId)));
+    assertNull(sessionStore.get(TokenDigest.of("unknown")));
+    assertEquals(1, meterRegistry.get("irongate.sessions.size").gauge().value());
+    sessionStore.remove(TokenDigest.of(sessionId));
+    assertNull(sessionStore.get(TokenDigest.of(sessionId)));
+    verify(userSessionRepository, never()).save(any());
+  }
+
+  @Test
+  void get_shouldReturnNull_whenSessionExpired() {
+    /* Arrange */
+    SessionStore sessionStore = newSessionStore("SESSION", false, -1);
+    /* Act */
+    String sessionId = sessionStore.create(claims);
+    /* Assert */
+    assertNull(sessionStore.get(TokenDigest.of(sessionId)));
+    assertEquals(0, meterRegistry.get("irongate.sessions.size").gauge().value());
+  }
+
+  @Test
+  void purgeExpired_shouldDropExpiredSessions() {
+    /* Arrange */
+    SessionStore sessionStore = newSessionStore("SESSION", true, -1);
+    sessionStore.create(claims);
+    /* Act */
+    sessionStore.purgeExpired();
+    /* Assert */
+    assertEquals(0, meterRegistry.get("irongate.sessions.size").gauge().value());
+    verify(userSessionRepository).deleteExpired(any());
+  }
+
+  @Test
+  void persistent_shouldWriteThroughAndReloadFromRepository() {
+    /* Arrange */
+    SessionStore sessionStore = newSessionStore("SESSION", true, 60000);
+    ArgumentCaptor<UserSession> captor = ArgumentCaptor.forClass(UserSession.class);
+    /* Act */
+    String sessionId = sessionStore.create(claims);
+    sessionStore.remove(TokenDigest.of(sessionId));
+    /* Assert */
+    verify(userSessionRepository).save(captor.capture());
+    verify(userSessionRepository).deleteBySessionDigest(TokenDigest.of(sessionId).toBytes());
+    UserSession saved = captor.getValue();
+    assertArrayEquals(TokenDigest.of(sessionId).toBytes(), saved.getSessionDigest());
+    assertEquals(claims.userId(), saved.getUserId());
+    /* A restarted node sees the persisted session again */
+    when(userSessionRepository.findAllByExpiredAtAfter(any()))
+        .thenReturn(
+            List.of(
+                new UserSession(
+                    TokenDigest.of("persisted").toBytes(),
+                    claims.userId(),
+                    claims.email(),
+                    claims.roleId(),
+                    claims.roleName(),
+                    claims.fullName(),
+                    Instant.now().plusSeconds(60))));
+    SessionStore restarted = newSessionStore("SESSION", true, 60000);
+    restarted.load();
+    assertEquals(claims, restarted.get(TokenDigest.of("persisted")));
+  }
+
+  private SessionStore newSessionStore(String authMode, boolean persistent, long expiry) {
+    return new SessionStore(userSessionRepository, meterRegistry, authMode, persistent, expiry);
+  }
+}
@@ -0,0 +1,90 @@
+package com.fw.irongate.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.repositories.SysconfigRepository;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TestSysconfigRegistry {
+
+  @Mock private SysconfigRepository sysconfigRepository;
+  @InjectMocks private SysconfigRegistry sysconfigRegistry;
+
+  @Test
+  void lookups_shouldBeServedFromTheSnapshot() {
+    /* Arrange */
+    Sysconfig role = sysconfig("AREA_MANAGER", "Area Manager");
+    Sysconfig flag = sysconfig("SIMULATION_RUN_FLAG", "false");
+    when(sysconfigRepository.findAllActive()).thenReturn(List.of(role, flag));
+    /* Act & Assert */
+    assertEquals(
+        "AREA_MANAGER", sysconfigRegistry.findActiveById(role.getId()).orElseThrow().key());
+    assertEquals("false", sysconfigRegistry.findByKey("SIMULATION_RUN_FLAG").orElseThrow().value());
+    assertTrue(sysconfigRegistry.findByKey("MISSING").isEmpty());
+    verify(sysconfigRepository, times(1)).findAllActive();
+  }
+
+  @Test
+  void put_shouldSwapSnapshotAndBumpVersion() {
+    /* Arrange */
+    Sysconfig flag = sysconfig("SIMULATION_RUN_FLAG", "false");
+    when(sysconfigRepository.findAllActive()).thenReturn(List.of(flag));
+    long before = sysconfigRegistry.version();
+    /* Act */
+    flag.setValue("true");
+    sysconfigRegistry.put(flag);
+    /* Assert */
+    assertEquals("true", sysconfigRegistry.findByKey("SIMULATION_RUN_FLAG").orElseThrow().value());
+    assertEquals(before + 1, sysconfigRegistry.version());
+  }
+
+  @Test
+  void onEntityChanged_shouldApplyCommittedStateAndDropSoftDeletedRows() {
+    /* Arrange */
+    Sysconfig role = sysconfig("AREA_MANAGER", "Area Manager");
+    when(sysconfigRepository.findAllActive()).thenReturn(List.of(role));
+    sysconfigRegistry.findActiveById(role.getId());
+    /* Act */
+    role.setDeletedAt(ZonedDateTime.now());
+    sysconfigRegistry.onEntityChanged(new EntityChangedEvent(Sysconfig.class, role.getId(), role));
+    /* Assert */
+    assertTrue(sysconfigRegistry.findActiveById(role.getId()).isEmpty());
+  }
+
+  @Test
+  void onEntityChanged_shouldRereadRowWhenEventHasNoState() {
+    /* Arrange */
+    Sysconfig role = sysconfig("AREA_MANAGER", "Area Manager");
+    when(sysconfigRepository.findAllActive()).thenReturn(List.of());
+    when(sysconfigRepository.findAllById(Set.of(role.getId()))).thenReturn(List.of(role));
+    assertTrue(sysconfigRegistry.findActiveById(role.getId()).isEmpty());
+    /* Act */
+    sysconfigRegistry.onEntityChanged(new EntityChangedEvent(Sysconfig.class, role.getId(), null));
+    /* Assert */
+    assertEquals(
+        "AREA_MANAGER", sysconfigRegistry.findActiveById(role.getId()).orElseThrow().key());
+    verify(sysconfigRepository, times(1)).findAllActive();
+  }
+
+  private Sysconfig sysconfig(String key, String value) {
+    Sysconfig sysconfig = new Sysconfig();
+    sysconfig.setId(UuidCreator.getTimeOrderedEpoch());
+    sysconfig.setKey(key);
+    sysconfig.setValue(value);
+    return sysconfig;
+  }
+}
@@ -0,0 +1,107 @@
+package com.fw.irongate.caches;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.entities.Product;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.repositories.WarehouseUserRepository;
+import com.github.f4b6a3.uuid.UuidCreator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestWarehouseAccessService {
+
+  private WarehouseUserRepository warehouseUserRepository;
+  private WarehouseAccessService warehouseAccessService;
+  private UUID userId;
+  private UUID warehouseId;
+
+  @BeforeEach
+  void setUp() {
+    warehouseUserRepository = mock(WarehouseUserRepository.class);
+    warehouseAccessService = new WarehouseAccessService(warehouseUserRepository);
+    userId = UuidCreator.getTimeOrderedEpoch();
+    warehouseId = UuidCreator.getTimeOrderedEpoch();
+    when(warehouseUserRepository.findActiveWarehouseIdsByUserId(userId))
+        .thenReturn(List.of(warehouseId));
+  }
+
+  @Test
+  void isMember_shouldLoadOnceAndAnswerFromCache() {
+    /* Act & Assert */
+    assertTrue(warehouseAccessService.isMember(userId, warehouseId));
+    assertFalse(warehouseAccessService.isMember(userId, UuidCreator.getTimeOrderedEpoch()));
+    assertEquals(Set.of(warehouseId), warehouseAccessService.getWarehouseIds(userId));
+    verify(warehouseUserRepository, times(1)).findActiveWarehouseIdsByUserId(userId);
+  }
+
+  @Test
+  void onEntityChanged_shouldReload_whenMembershipOrWarehouseChanges() {
+    /* Arrange */
+    warehouseAccessService.getWarehouseIds(userId);
+    /* Act */
+    warehouseAccessService.onEntityChanged(
+        new EntityChangedEvent(WarehouseUser.class, UuidCreator.getTimeOrderedEpoch(), null));
+    warehouseAccessService.getWarehouseIds(userId);
+    warehouseAccessService.onEntityChanged(
+        new EntityChangedEvent(Warehouse.class, warehouseId, null));
+    warehouseAccessService.getWarehouseIds(userId);
+    /* Assert */
+    verify(warehouseUserRepository, times(3)).findActiveWarehouseIdsByUserId(userId);
+  }
+
+  @Test
+  void onEntityChanged_shouldEvictOnlyThatUser_whenUserChanges() {
+    /* Arrange */
+    UUID otherUserId = UuidCreator.getTimeOrderedEpoch();
+    when(warehouseUserRepository.findActiveWarehouseIdsByUserId(otherUserId)).thenReturn(List.of());
+    warehouseAccessService.getWarehouseIds(userId);
+    warehouseAccessService.getWarehouseIds(otherUserId);
+    /* Act */
+    warehouseAccessService.onEntityChanged(new EntityChangedEvent(User.class, userId, null));
+    warehouseAccessService.getWarehouseIds(userId);
+    warehouseAccessService.getWarehouseIds(otherUserId);
+    /* Assert */
+    verify(warehouseUserRepository, times(2)).findActiveWarehouseIdsByUserId(userId);
+    verify(warehouseUserRepository, times(1)).findActiveWarehouseIdsByUserId(otherUserId);
+  }
+
+  @Test
+  void onEntityChanged_shouldKeepCache_forUnrelatedEntities() {
+    /* Arrange */
+    warehouseAccessService.getWarehouseIds(userId);
+    /* Act */
+    warehouseAccessService.onEntityChanged(
+        new EntityChangedEvent(Product.class, UuidCreator.getTimeOrderedEpoch(), null));
+    warehouseAccessService.getWarehouseIds(userId);
+    /* Assert */
+    verify(warehouseUserRepository, times(1)).findActiveWarehouseIdsByUserId(userId);
+  }
+
+  @Test
+  void getWarehouseIds_shouldNotCache_whenInvalidatedDuringLoad() {
+    /* Arrange */
+    when(warehouseUserRepository.findActiveWarehouseIdsByUserId(userId))
+        .thenAnswer(
+            invocation -> {
+              warehouseAccessService.onEntityChanged(new EntityChangedEvent(null, null, null));
+              return List.of(warehouseId);
+            });
+    /* Act */
+    warehouseAccessService.getWarehouseIds(userId);
+    warehouseAccessService.getWarehouseIds(userId);
+    /* Assert */
+    verify(warehouseUserRepository, times(2)).findActiveWarehouseIdsByUserId(userId);
+  }
+}
@@ -0,0 +1,185 @@
+package com.fw.irongate.configurations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class TestAdmissionControlFilter {
+
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void doFilter_shouldReturn429_whenUserBucketIsEmpty() throws Exception {
+    /* Arrange */
+    AdmissionControlFilter filter = newFilter(2, 100, 4);
+    authenticate(UUID.randomUUID());
+    FilterChain filterChain = mock(FilterChain.class);
+    /* Act */
+    MockHttpServletResponse first = doFilter(filter, "/api/shipment/finish", filterChain);
+    MockHttpServletResponse second = doFilter(filter, "/api/shipment/finish", filterChain);
+    MockHttpServletResponse third = doFilter(filter, "/api/shipment/finish", filterChain);
+    /* Assert */
+    assertEquals(200, first.getStatus());
+    assertEquals(200, second.getStatus());
+    assertEquals(429, third.getStatus());
+    assertEquals("1", third.getHeader("Retry-After"));
+    verify(filterChain, times(2)).doFilter(any(), any());
+    assertEquals(
+        1,
+        meterRegistry
+            .get("irongate.admission.rejected")
+            .tag("reason", "user_rate")
+            .counter()
+            .count());
+  }
+
+  @Test
+  void doFilter_shouldReturn429_whenEndpointBucketIsEmpty_acrossUsers() throws Exception {
+    /* Arrange */
+    AdmissionControlFilter filter = newFilter(100, 1, 4);
+    FilterChain filterChain = mock(FilterChain.class);
+    /* Act */
+    authenticate(UUID.randomUUID());
+    MockHttpServletResponse first = doFilter(filter, "/api/stock/filter", filterChain);
+    authenticate(UUID.randomUUID());
+    MockHttpServletResponse second = doFilter(filter, "/api/stock/filter", filterChain);
+    /* a different heavy endpoint has its own bucket */
+    MockHttpServletResponse other = doFilter(filter, "/api/order/filter", filterChain);
+    /* Assert */
+    assertEquals(200, first.getStatus());
+    assertEquals(429, second.getStatus());
+    assertEquals(200, other.getStatus());
+  }
+
+  @Test
+  void doFilter_shouldReturn503_whenConcurrencyLimitIsReached() throws Exception {
+    /* Arrange */
+    AdmissionControlFilter filter = newFilter(100, 100, 1);
+    authenticate(UUID.randomUUID());
+    AtomicInteger nestedStatus = new AtomicInteger();
+    FilterChain filterChain = mock(FilterChain.class);
+    /* while the first heavy request is in flight, a second one arrives */
+    doAnswer(
+            invocation -> {
+              if (nestedStatus.get() == 0) {
+                nestedStatus.set(-1);
+                FilterChain inner = mock(FilterChain.class);
+                nestedStatus.set(doFilter(filter, "/api/dashboard/charts", inner).getStatus());
+                verify(inner, never()).doFilter(any(), any());
+              }
+              return null;
+            })
+        .when(filterChain)
+        .doFilter(any(), any());
+    /* Act */
+    MockHttpServletResponse response = doFilter(filter, "/api/dashboard/charts", filterChain);
+    /* Assert */
+    assertEquals(200, response.getStatus());
+    assertEquals(503, nestedStatus.get());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("irongate.admission.rejected")
+            .tag("reason", "concurrency")
+            .counter()
+            .count());
+    assertEquals(
+        0.0, meterRegistry.get("irongate.admission.concurrency.in_flight").gauge().value());
+  }
+
+  @Test
+  void doFilter_shouldPassThrough_whenAnonymousOrNotApi() throws Exception {
+    /* Arrange */
+    AdmissionControlFilter filter = newFilter(1, 1, 1);
+    FilterChain filterChain = mock(FilterChain.class);
+    /* Act */
+    for (int i = 0; i < 3; i++) {
+      assertEquals(200, doFilter(filter, "/api/dashboard/charts", filterChain).getStatus());
+    }
+    authenticate(UUID.randomUUID());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(200, doFilter(filter, "/dashboard", filterChain).getStatus());
+    }
+    /* Assert */
+    verify(filterChain, times(6)).doFilter(any(), any());
+  }
+
+  @Test
+  void evictIdleBuckets_shouldDropRefilledBuckets() throws Exception {
+    /* Arrange */
+    AdmissionControlFilter filter = newFilter(1, 100, 4);
+    authenticate(UUID.randomUUID());
+    doFilter(filter, "/api/shipment/finish", mock(FilterChain.class));
+    assertEquals(1.0, meterRegistry.get("irongate.admission.user_buckets").gauge().value());
+    /* Act */
+    Thread.sleep(100);
+    filter.evictIdleBuckets();
+    /* Assert */
+    assertEquals(0.0, meterRegistry.get("irongate.admission.user_buckets").gauge().value());
+    assertFalse(meterRegistry.getMeters().isEmpty());
+    assertTrue(meterRegistry.get("irongate.admission.concurrency.limit").gauge().value() > 0);
+  }
+
+  private AdmissionControlFilter newFilter(
+      int userCapacity, int endpointCapacity, int concurrencyLimit) {
+    /* refill rates are low enough that no token comes back during a test, except for eviction */
+    return new AdmissionControlFilter(
+        meterRegistry,
+        true,
+        new String[] {"/api/dashboard/charts", "/api/*/filter"},
+        userCapacity,
+        userCapacity == 1 ? 1000 : 0.001,
+        endpointCapacity,
+        0.001,
+        concurrencyLimit,
+        1,
+        concurrencyLimit,
+        2.0);
+  }
+
+  private static void authenticate(UUID userId) {
+    JwtClaimDTO jwtClaimDTO =
+        new JwtClaimDTO(userId, "user@mail.com", UUID.randomUUID(), "Area Manager", "Full Name");
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken(jwtClaimDTO, null, Collections.emptyList()));
+  }
+
+  private static MockHttpServletResponse doFilter(
+      AdmissionControlFilter filter, String uri, FilterChain filterChain) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, filterChain);
+    return response;
+  }
+}
@@ -6,6 +6,8 @@ import static org.mockito.Mockito.mock;
 
 import com.auth0.jwt.JWTVerifier;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -15,7 +17,9 @@ class TestBeanConfig {
   private final ApplicationContextRunner contextRunner =
       new ApplicationContextRunner()
           .withUserConfiguration(BeanConfig.class)
-          .withBean(JwtFilter.class, () -> mock(JwtFilter.class));
+          .withBean(JwtFilter.class, () -> mock(JwtFilter.class))
+          .withBean(AdmissionControlFilter.class, () -> mock(AdmissionControlFilter.class))
+          .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
 
   @Test
   void shouldRegisterJWTVerifier() {
@@ -6,20 +6,21 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fw.irongate.caches.PermissionMatrix;
+import com.fw.irongate.caches.RevokedTokenIndex;
+import com.fw.irongate.caches.SessionStore;
+import com.fw.irongate.caches.SysconfigRegistry;
 import com.fw.irongate.models.dto.JwtClaimDTO;
-import com.fw.irongate.models.entities.Sysconfig;
-import com.fw.irongate.repositories.PermissionRepository;
-import com.fw.irongate.repositories.RevokedTokenRepository;
-import com.fw.irongate.repositories.SysconfigRepository;
+import com.fw.irongate.models.dto.SysconfigDTO;
 import com.fw.irongate.utils.CookieUtil;
 import com.fw.irongate.utils.JwtUtil;
+import com.fw.irongate.utils.TokenDigest;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,21 +29,28 @@ import org.junit.jupiter.api.Test;
 class TestJwtFilter {
 
   private JwtUtil jwtUtil;
-  private SysconfigRepository sysconfigRepository;
-  private PermissionRepository permissionRepository;
-  private RevokedTokenRepository revokedTokenRepository;
+  private SysconfigRegistry sysconfigRegistry;
+  private PermissionMatrix permissionMatrix;
+  private RevokedTokenIndex revokedTokenIndex;
+  private SessionStore sessionStore;
   private JwtFilter jwtFilter;
 
   @BeforeEach
   void setUp() {
     jwtUtil = mock(JwtUtil.class);
     CookieUtil cookieUtil = mock(CookieUtil.class);
-    sysconfigRepository = mock(SysconfigRepository.class);
-    permissionRepository = mock(PermissionRepository.class);
-    revokedTokenRepository = mock(RevokedTokenRepository.class);
+    sysconfigRegistry = mock(SysconfigRegistry.class);
+    permissionMatrix = mock(PermissionMatrix.class);
+    revokedTokenIndex = mock(RevokedTokenIndex.class);
+    sessionStore = mock(SessionStore.class);
     jwtFilter =
         new JwtFilter(
-            jwtUtil, cookieUtil, sysconfigRepository, permissionRepository, revokedTokenRepository);
+            jwtUtil,
+            cookieUtil,
+            sysconfigRegistry,
+            permissionMatrix,
+            revokedTokenIndex,
+            sessionStore);
   }
 
   @Test
@@ -59,15 +67,13 @@ class TestJwtFilter {
     JwtClaimDTO claimDTO =
         new JwtClaimDTO(
             UUID.randomUUID(), "am@mail.com", UUID.randomUUID(), "Area Manager", "Full Name");
-    when(jwtUtil.validateJwt("valid.jwt.token")).thenReturn(claimDTO);
-    when(revokedTokenRepository.existsByJwt("valid.jwt.token")).thenReturn(false);
-    Sysconfig roleConfig = new Sysconfig();
-    roleConfig.setKey("AREA_MANAGER");
-    when(sysconfigRepository.findOneActiveById(claimDTO.roleId()))
-        .thenReturn(Optional.of(roleConfig));
+    when(jwtUtil.validateJwt("valid.jwt.token", TokenDigest.of("valid.jwt.token")))
+        .thenReturn(claimDTO);
+    when(revokedTokenIndex.isRevoked(TokenDigest.of("valid.jwt.token"))).thenReturn(false);
+    SysconfigDTO roleConfig = new SysconfigDTO(claimDTO.roleId(), "AREA_MANAGER", "Area Manager");
+    when(sysconfigRegistry.findActiveById(claimDTO.roleId())).thenReturn(Optional.of(roleConfig));
     /* No permission for /dashboard */
-    when(permissionRepository.findAllActiveByRoleIdAndResourcePath(claimDTO.roleId(), path))
-        .thenReturn(Collections.emptyList());
+    when(permissionMatrix.isAllowed(claimDTO.roleId(), path)).thenReturn(false);
     when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
     /* Act */
     jwtFilter.doFilterInternal(request, response, filterChain);
@@ -0,0 +1,102 @@
+package com.fw.irongate.usecases.assign_myself_shipment;
+
+import static com.fw.irongate.constants.MessageConstants.INVALID_STATE;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
+import static com.fw.irongate.constants.SystemConstants.OK;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.caches.WarehouseAccessService;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.models.entities.Shipment;
+import com.fw.irongate.models.entities.Stock;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import com.fw.irongate.models.enums.ShipmentStatus;
+import com.fw.irongate.repositories.ShipmentRepository;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
+import com.fw.irongate.web.responses.MessageResponse;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class TestAssignMyselfShipmentUseCase {
+
+  @Mock private ShipmentRepository shipmentRepository;
+  @Mock private WarehouseAccessService warehouseAccessService;
+  @Mock private TaskScheduler taskScheduler;
+  @Mock private DashboardEventOutbox dashboardEventOutbox;
+  @Mock private ChartAggregates chartAggregates;
+  @Mock private TransactionTemplate transactionTemplate;
+  @InjectMocks private AssignMyselfShipmentUseCase assignMyselfShipmentUseCase;
+
+  private final JwtClaimDTO jwt =
+      new JwtClaimDTO(
+          UUID.randomUUID(), "driver@example.com", UUID.randomUUID(), "Driver", "Driver User");
+
+  private Shipment createShipment(String status, Warehouse originWarehouse) {
+    Stock stock = new Stock();
+    stock.setWarehouse(originWarehouse);
+    Shipment shipment = new Shipment();
+    shipment.setId(UUID.randomUUID());
+    shipment.setStatus(status);
+    shipment.setStock(stock);
+    return shipment;
+  }
+
+  @Test
+  void handle_ShouldMoveTheChart_AndRaiseAShipmentEvent_ForTheOriginWarehouse() {
+    /* Arrange */
+    Warehouse origin = new Warehouse();
+    origin.setId(UUID.randomUUID());
+    Shipment shipment = createShipment(ShipmentStatus.PENDING.name(), origin);
+    when(shipmentRepository.findByIdWithRelations(shipment.getId()))
+        .thenReturn(Optional.of(shipment));
+    when(warehouseAccessService.isMember(jwt.userId(), origin.getId())).thenReturn(true);
+    when(shipmentRepository.findByStatusAndAssignedTo(
+            ShipmentStatus.IN_DELIVERY.name(), jwt.email()))
+        .thenReturn(Optional.empty());
+    /* Act */
+    MessageResponse response = assignMyselfShipmentUseCase.handle(jwt, shipment.getId());
+    /* Assert */
+    assertEquals(OK, response.message());
+    assertEquals(ShipmentStatus.IN_DELIVERY.name(), shipment.getStatus());
+    assertEquals(jwt.email(), shipment.getAssignedTo());
+    verify(chartAggregates).shipmentStatusChanged(shipment, ShipmentStatus.PENDING.name());
+    verify(dashboardEventOutbox)
+        .add(
+            new DashboardEventDTO(
+                EVENT_SHIPMENT_UPDATED, DashboardEventCategory.SHIPMENT, origin.getId()));
+    verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+  }
+
+  @Test
+  void handle_ShouldThrowException_WhenShipmentIsNotPending() {
+    /* Arrange */
+    Shipment shipment = createShipment(ShipmentStatus.IN_DELIVERY.name(), new Warehouse());
+    when(shipmentRepository.findByIdWithRelations(shipment.getId()))
+        .thenReturn(Optional.of(shipment));
+    /* Act */
+    IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> assignMyselfShipmentUseCase.handle(jwt, shipment.getId()));
+    /* Assert */
+    assertEquals(INVALID_STATE, exception.getMessage());
+    verify(dashboardEventOutbox, never()).add(any());
+  }
+}
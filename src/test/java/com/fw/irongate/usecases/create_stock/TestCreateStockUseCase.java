@@ -11,20 +11,18 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fw.irongate.caches.WarehouseAccessService;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Product;
 import com.fw.irongate.models.entities.Stock;
 import com.fw.irongate.models.entities.Warehouse;
-import com.fw.irongate.models.entities.WarehouseUser;
 import com.fw.irongate.repositories.ProductRepository;
 import com.fw.irongate.repositories.StockRepository;
-import com.fw.irongate.repositories.WarehouseUserRepository;
-import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
+import com.fw.irongate.repositories.WarehouseRepository;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.IdResponse;
 import com.github.f4b6a3.uuid.UuidCreator;
 import java.math.BigInteger;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,10 +36,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class TestCreateStockUseCase {
 
-  @Mock private WarehouseUserRepository warehouseUserRepository;
+  @Mock private WarehouseAccessService warehouseAccessService;
+  @Mock private WarehouseRepository warehouseRepository;
   @Mock private ProductRepository productRepository;
   @Mock private StockRepository stockRepository;
-  @Mock private StreamDashboardUseCase streamDashboardUseCase;
+  @Mock private DashboardEventOutbox dashboardEventOutbox;
   @InjectMocks private CreateStockUseCase createStockUseCase;
 
   private JwtClaimDTO jwtClaimDTO;
@@ -65,15 +64,13 @@ class TestCreateStockUseCase {
     /* 1. Arrange */
     Warehouse warehouse = new Warehouse();
     warehouse.setId(warehouseId);
-    WarehouseUser wu = new WarehouseUser();
-    wu.setWarehouse(warehouse);
     Product product = new Product();
     product.setId(productId);
-    when(warehouseUserRepository.findByWarehouseIdAndUserId(warehouseId, userId))
-        .thenReturn(List.of(wu));
+    when(warehouseAccessService.isMember(userId, warehouseId)).thenReturn(true);
     when(productRepository.findById(productId)).thenReturn(Optional.of(product));
     when(stockRepository.findByWarehouseIdAndProductId(warehouseId, productId))
         .thenReturn(Optional.empty());
+    when(warehouseRepository.getReferenceById(warehouseId)).thenReturn(warehouse);
     when(stockRepository.save(any(Stock.class)))
         .thenAnswer(
             invocation -> {
@@ -81,7 +78,7 @@ class TestCreateStockUseCase {
               s.setId(UuidCreator.getTimeOrderedEpoch());
               return s;
             });
-    doNothing().when(streamDashboardUseCase).broadcast(any());
+    doNothing().when(dashboardEventOutbox).add(any());
     /* 2. Act */
     IdResponse response = createStockUseCase.handle(jwtClaimDTO, request);
     /* 3. Assert */
@@ -101,8 +98,6 @@ class TestCreateStockUseCase {
     /* 1. Arrange */
     Warehouse warehouse = new Warehouse();
     warehouse.setId(warehouseId);
-    WarehouseUser wu = new WarehouseUser();
-    wu.setWarehouse(warehouse);
     Product product = new Product();
     product.setId(productId);
     Stock existingStock = new Stock();
@@ -110,14 +105,13 @@ class TestCreateStockUseCase {
     existingStock.setQuantity(50);
     existingStock.setProduct(product);
     existingStock.setWarehouse(warehouse);
-    when(warehouseUserRepository.findByWarehouseIdAndUserId(warehouseId, userId))
-        .thenReturn(List.of(wu));
+    when(warehouseAccessService.isMember(userId, warehouseId)).thenReturn(true);
     when(productRepository.findById(productId)).thenReturn(Optional.of(product));
     when(stockRepository.findByWarehouseIdAndProductId(warehouseId, productId))
         .thenReturn(Optional.of(existingStock));
     when(stockRepository.save(any(Stock.class)))
         .thenAnswer(invocation -> invocation.getArgument(0));
-    doNothing().when(streamDashboardUseCase).broadcast(any());
+    doNothing().when(dashboardEventOutbox).add(any());
     /* 2. Act */
     IdResponse response = createStockUseCase.handle(jwtClaimDTO, request);
     /* 3. Assert */
@@ -133,8 +127,7 @@ class TestCreateStockUseCase {
   @Test
   void handle_ShouldThrowException_WhenUserNotPermittedForWarehouse() {
     /* 1. Arrange */
-    when(warehouseUserRepository.findByWarehouseIdAndUserId(warehouseId, userId))
-        .thenReturn(Collections.emptyList());
+    when(warehouseAccessService.isMember(userId, warehouseId)).thenReturn(false);
     /* 2. Act & Assert */
     IllegalArgumentException exception =
         assertThrows(
@@ -146,10 +139,7 @@ class TestCreateStockUseCase {
   @Test
   void handle_ShouldThrowException_WhenProductDoesNotExist() {
     /* 1. Arrange */
-    WarehouseUser wu = new WarehouseUser();
-    wu.setWarehouse(new Warehouse());
-    when(warehouseUserRepository.findByWarehouseIdAndUserId(warehouseId, userId))
-        .thenReturn(List.of(wu));
+    when(warehouseAccessService.isMember(userId, warehouseId)).thenReturn(true);
     when(productRepository.findById(productId)).thenReturn(Optional.empty());
     /* 2. Act & Assert */
     IllegalArgumentException exception =
@@ -3,6 +3,7 @@ package com.fw.irongate.usecases.finish_shipment;
 import static com.fw.irongate.constants.MessageConstants.INVALID_STATE;
 import static com.fw.irongate.constants.MessageConstants.OPERATION_NOT_PERMITTED;
 import static com.fw.irongate.constants.MessageConstants.SHIPMENT_NOT_FOUND;
+import static com.fw.irongate.constants.SystemConstants.EVENT_SHIPMENT_UPDATED;
 import static com.fw.irongate.constants.SystemConstants.OK;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -12,14 +13,18 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fw.irongate.models.dto.DashboardEventDTO;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.Product;
 import com.fw.irongate.models.entities.Shipment;
 import com.fw.irongate.models.entities.Stock;
 import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.enums.DashboardEventCategory;
 import com.fw.irongate.models.enums.ShipmentStatus;
 import com.fw.irongate.repositories.ShipmentRepository;
 import com.fw.irongate.repositories.StockRepository;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartAggregates;
+import com.fw.irongate.usecases.stream_dashboard.DashboardEventOutbox;
 import com.fw.irongate.web.responses.MessageResponse;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,6 +39,8 @@ class TestFinishShipmentUseCase {
 
   @Mock private ShipmentRepository shipmentRepository;
   @Mock private StockRepository stockRepository;
+  @Mock private ChartAggregates chartAggregates;
+  @Mock private DashboardEventOutbox dashboardEventOutbox;
   @InjectMocks private FinishShipmentUseCase finishShipmentUseCase;
 
   private JwtClaimDTO createJwtClaims(String email) {
@@ -93,6 +100,11 @@ class TestFinishShipmentUseCase {
     /* Verify Shipment Update */
     assertEquals(ShipmentStatus.DELIVERED.name(), shipment.getStatus());
     verify(shipmentRepository).save(shipment);
+    verify(chartAggregates).shipmentStatusChanged(shipment, ShipmentStatus.ALMOST_THERE.name());
+    verify(dashboardEventOutbox)
+        .add(
+            new DashboardEventDTO(
+                EVENT_SHIPMENT_UPDATED, DashboardEventCategory.SHIPMENT, sourceWarehouse.getId()));
     /* Verify Dest Stock Creation/Update */
     /* Since we mocked empty, it should save a new stock */
     verify(stockRepository, times(2)).save(any(Stock.class));
@@ -113,6 +125,7 @@ class TestFinishShipmentUseCase {
     sourceStock.setQuantity(100);
     sourceStock.setAllocated(20);
     sourceStock.setProduct(product);
+    sourceStock.setWarehouse(new Warehouse());
     Shipment shipment =
         createShipment(
             shipmentId,
@@ -0,0 +1,260 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
+import com.fw.irongate.models.dto.DashboardChartsDTO;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class TestGetDashboardChartsUseCase {
+
+  @Mock private DashboardAggregateRepository dashboardAggregateRepository;
+  @Mock private TopKSketches topKSketches;
+  private SimpleMeterRegistry meterRegistry;
+  private GetDashboardChartsUseCase getDashboardChartsUseCase;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    getDashboardChartsUseCase = newUseCase(60_000, 10_000);
+  }
+
+  @AfterEach
+  void tearDown() {
+    getDashboardChartsUseCase.shutdown();
+  }
+
+  private GetDashboardChartsUseCase newUseCase(
+      long maxStalenessInMillisecond, long queryTimeoutInMillisecond) {
+    return new GetDashboardChartsUseCase(
+        dashboardAggregateRepository,
+        topKSketches,
+        mock(PlatformTransactionManager.class),
+        meterRegistry,
+        maxStalenessInMillisecond,
+        queryTimeoutInMillisecond);
+  }
+
+  private double cache(String outcome) {
+    return meterRegistry.counter("irongate.dashboard.charts.cache", "outcome", outcome).count();
+  }
+
+  @Test
+  void computeDelta_ShouldQueryOnlyRequestedSections_AndBumpVersionOnChange() {
+    /* --- Given --- */
+    List<ChartDataDTO> pending = List.of(new ChartDataDTO("PENDING", 2.0));
+    when(dashboardAggregateRepository.findChart("ORDERS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(pending);
+    /* --- When --- */
+    ChartDeltaDTO delta = getDashboardChartsUseCase.computeDelta(ChartSection.affectedBy("X"));
+    ChartDeltaDTO first =
+        getDashboardChartsUseCase.computeDelta(EnumSet.of(ChartSection.ORDERS_BY_STATUS));
+    /* --- Then --- */
+    assertEquals(0, delta.version());
+    assertEquals(1, first.version());
+    assertEquals(pending, first.ordersByStatus());
+    assertNull(first.shipmentsByStatus());
+    verify(dashboardAggregateRepository, never()).findChart(eq("SHIPMENTS_BY_STATUS"), any());
+    verify(dashboardAggregateRepository, never())
+        .findChart("TOP_REVENUE_BY_WAREHOUSE", PageRequest.of(0, 5));
+  }
+
+  @Test
+  void computeDelta_ShouldLeaveOutUnchangedSections() {
+    /* --- Given --- */
+    List<ChartDataDTO> shipments = List.of(new ChartDataDTO("PENDING", 1.0));
+    List<ChartDataDTO> before = List.of(new ChartDataDTO("PENDING", 2.0));
+    List<ChartDataDTO> after = List.of(new ChartDataDTO("PENDING", 3.0));
+    when(dashboardAggregateRepository.findChart("SHIPMENTS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(shipments);
+    when(dashboardAggregateRepository.findChart("ORDERS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(before)
+        .thenReturn(after);
+    EnumSet<ChartSection> sections =
+        EnumSet.of(ChartSection.ORDERS_BY_STATUS, ChartSection.SHIPMENTS_BY_STATUS);
+    getDashboardChartsUseCase.computeDelta(sections);
+    /* --- When --- */
+    ChartDeltaDTO changed = getDashboardChartsUseCase.computeDelta(sections);
+    ChartDeltaDTO unchanged = getDashboardChartsUseCase.computeDelta(sections);
+    /* --- Then --- */
+    assertEquals(2, changed.version());
+    assertEquals(after, changed.ordersByStatus());
+    assertNull(changed.shipmentsByStatus());
+    assertEquals(new ChartDeltaDTO(2), unchanged);
+  }
+
+  @Test
+  void handle_ShouldReturnFullChartsWithCurrentVersion() {
+    /* --- Given --- */
+    List<ChartDataDTO> orders = List.of(new ChartDataDTO("PENDING", 2.0));
+    when(dashboardAggregateRepository.findChart("ORDERS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(orders);
+    getDashboardChartsUseCase.computeDelta(EnumSet.of(ChartSection.ORDERS_BY_STATUS));
+    /* --- When --- */
+    DashboardChartsDTO charts = getDashboardChartsUseCase.handle();
+    /* --- Then --- */
+    assertEquals(1, charts.version());
+    assertEquals(orders, charts.ordersByStatus());
+  }
+
+  @Test
+  void handle_ShouldServeTheSnapshot_UntilAnEventInvalidatesIt() {
+    /* --- Given --- */
+    DashboardChartsDTO first = getDashboardChartsUseCase.handle();
+    /* --- When --- */
+    DashboardChartsDTO cached = getDashboardChartsUseCase.handle();
+    getDashboardChartsUseCase.invalidate(Set.of());
+    DashboardChartsDTO stillCached = getDashboardChartsUseCase.handle();
+    getDashboardChartsUseCase.invalidate(ChartSection.affectedBy("ORDER_UPDATED"));
+    DashboardChartsDTO reloaded = getDashboardChartsUseCase.handle();
+    /* --- Then --- */
+    assertSame(first, cached);
+    assertSame(first, stillCached);
+    assertNotSame(first, reloaded);
+    verify(dashboardAggregateRepository, times(2))
+        .findChart("ORDERS_BY_STATUS", Pageable.unpaged());
+    assertEquals(2, cache("hit"));
+    assertEquals(2, cache("miss"));
+  }
+
+  @Test
+  void handle_ShouldReload_WhenSnapshotIsOlderThanMaxStaleness() {
+    /* --- Given --- */
+    GetDashboardChartsUseCase uncached = newUseCase(0, 10_000);
+    /* --- When --- */
+    uncached.handle();
+    uncached.handle();
+    uncached.shutdown();
+    /* --- Then --- */
+    verify(dashboardAggregateRepository, times(2))
+        .findChart("ORDERS_BY_STATUS", Pageable.unpaged());
+    assertEquals(0, cache("hit"));
+  }
+
+  @Test
+  void handle_ShouldCollapseConcurrentMisses_IntoOneLoad() throws Exception {
+    /* --- Given --- */
+    int callers = 8;
+    List<ChartDataDTO> orders = List.of(new ChartDataDTO("PENDING", 2.0));
+    CountDownLatch release = new CountDownLatch(1);
+    when(dashboardAggregateRepository.findChart("ORDERS_BY_STATUS", Pageable.unpaged()))
+        .thenAnswer(
+            invocation -> {
+              assertTrue(release.await(5, TimeUnit.SECONDS));
+              return orders;
+            });
+    ExecutorService executor = Executors.newFixedThreadPool(callers);
+    try {
+      /* --- When --- */
+      List<Future<DashboardChartsDTO>> results = new ArrayList<>();
+      for (int i = 0; i < callers; i++) {
+        results.add(executor.submit(getDashboardChartsUseCase::handle));
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (cache("coalesced") < callers - 1 && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+      /* --- Then --- */
+      for (Future<DashboardChartsDTO> result : results) {
+        assertEquals(orders, result.get(5, TimeUnit.SECONDS).ordersByStatus());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(dashboardAggregateRepository).findChart("ORDERS_BY_STATUS", Pageable.unpaged());
+    verify(dashboardAggregateRepository).findChart("TOP_SELLING_PRODUCTS", PageRequest.of(0, 5));
+    assertEquals(1, cache("miss"));
+    assertEquals(callers - 1, cache("coalesced"));
+  }
+
+  @Test
+  void handle_ShouldServePreviousSection_MarkedStale_WhenItsQueryMissesTheDeadline()
+      throws Exception {
+    /* --- Given --- */
+    GetDashboardChartsUseCase useCase = newUseCase(60_000, 100);
+    List<ChartDataDTO> orders = List.of(new ChartDataDTO("PENDING", 2.0));
+    List<ChartDataDTO> shipments = List.of(new ChartDataDTO("DELIVERED", 1.0));
+    CountDownLatch never = new CountDownLatch(1);
+    when(dashboardAggregateRepository.findChart("ORDERS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(orders)
+        .thenAnswer(
+            invocation -> {
+              never.await(5, TimeUnit.SECONDS);
+              return List.of();
+            });
+    when(dashboardAggregateRepository.findChart("SHIPMENTS_BY_STATUS", Pageable.unpaged()))
+        .thenReturn(List.of())
+        .thenReturn(shipments);
+    useCase.handle();
+    useCase.invalidate(ChartSection.affectedBy("ORDER_UPDATED"));
+    try {
+      /* --- When --- */
+      DashboardChartsDTO partial = useCase.handle();
+      /* --- Then --- */
+      assertEquals(List.of("ORDERS_BY_STATUS"), partial.staleSections());
+      assertEquals(orders, partial.ordersByStatus());
+      assertEquals(shipments, partial.shipmentsByStatus());
+      assertEquals(
+          1,
+          meterRegistry
+              .counter("irongate.dashboard.charts.stale", "section", "ORDERS_BY_STATUS")
+              .count());
+      assertEquals(
+          2,
+          meterRegistry
+              .timer("irongate.dashboard.charts.query", "section", "SHIPMENTS_BY_STATUS")
+              .count());
+    } finally {
+      never.countDown();
+      useCase.shutdown();
+    }
+  }
+
+  @Test
+  void handle_ShouldAnswerTopSectionsFromSketches_WhenEnabled() {
+    /* --- Given --- */
+    List<ChartDataDTO> warehouses = List.of(new ChartDataDTO("Hachioji", 50.0));
+    when(topKSketches.isEnabled()).thenReturn(true);
+    when(topKSketches.top(ChartSection.TOP_REVENUE_BY_WAREHOUSE, 5)).thenReturn(warehouses);
+    /* --- When --- */
+    DashboardChartsDTO charts = getDashboardChartsUseCase.handle();
+    /* --- Then --- */
+    assertEquals(warehouses, charts.top5RevenueByWarehouse());
+    verify(topKSketches).top(ChartSection.TOP_SELLING_PRODUCTS, 5);
+    verify(dashboardAggregateRepository, never()).findChart(eq("TOP_REVENUE_BY_WAREHOUSE"), any());
+    verify(dashboardAggregateRepository, never()).findChart(eq("TOP_SELLING_PRODUCTS"), any());
+  }
+}
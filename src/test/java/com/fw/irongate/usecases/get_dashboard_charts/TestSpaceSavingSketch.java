@@ -0,0 +1,88 @@
+package com.fw.irongate.usecases.get_dashboard_charts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TestSpaceSavingSketch {
+
+  @Test
+  void top_ShouldBeExact_WhenLabelsFitTheCounters() {
+    /* Arrange */
+    SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+    sketch.add("Hachioji", new BigDecimal("20.00"));
+    sketch.add("Tachikawa", new BigDecimal("12.50"));
+    sketch.add("Hachioji", new BigDecimal("30.00"));
+    sketch.add("Fuchu", new BigDecimal("0"));
+    /* Act */
+    List<SpaceSavingSketch.Estimate> top = sketch.top(5);
+    /* Assert */
+    assertEquals(
+        List.of(
+            new SpaceSavingSketch.Estimate("Hachioji", new BigDecimal("50.00"), BigDecimal.ZERO),
+            new SpaceSavingSketch.Estimate("Tachikawa", new BigDecimal("12.50"), BigDecimal.ZERO)),
+        top);
+    assertEquals(BigDecimal.ZERO, sketch.errorBound());
+  }
+
+  @Test
+  void top_ShouldStayWithinReportedError_OfTheExactTotals() {
+    /* Arrange: a skewed stream of 500 labels through 20 counters */
+    int capacity = 20;
+    SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+    Map<String, BigDecimal> exact = new HashMap<>();
+    BigDecimal total = BigDecimal.ZERO;
+    Random random = new Random(42);
+    for (int i = 0; i < 20_000; i++) {
+      /* label n has weight ~ 1 / n */
+      int n = (int) Math.floor(Math.pow(500, random.nextDouble()));
+      String label = "product-" + n;
+      BigDecimal amount = BigDecimal.valueOf(random.nextInt(10) + 1);
+      sketch.add(label, amount);
+      exact.merge(label, amount, BigDecimal::add);
+      total = total.add(amount);
+    }
+    /* Act */
+    List<SpaceSavingSketch.Estimate> top = sketch.top(capacity);
+    /* Assert */
+    BigDecimal bound = sketch.errorBound();
+    assertTrue(bound.multiply(BigDecimal.valueOf(capacity)).compareTo(total) <= 0);
+    for (SpaceSavingSketch.Estimate estimate : top) {
+      BigDecimal truth = exact.get(estimate.label());
+      assertTrue(estimate.count().compareTo(truth) >= 0, estimate + " below " + truth);
+      assertTrue(
+          estimate.count().subtract(estimate.error()).compareTo(truth) <= 0,
+          estimate + " minus its error above " + truth);
+      assertTrue(estimate.error().compareTo(bound) <= 0);
+    }
+    /* every label heavier than the bound holds a counter */
+    List<String> reported = top.stream().map(SpaceSavingSketch.Estimate::label).toList();
+    exact.forEach(
+        (label, truth) -> {
+          if (truth.compareTo(bound) > 0) {
+            assertTrue(reported.contains(label), label + " missing");
+          }
+        });
+    /* and the heaviest ones come out in order */
+    List<String> exactTop3 =
+        exact.entrySet().stream()
+            .sorted(Map.Entry.<String, BigDecimal>comparingByValue(Comparator.reverseOrder()))
+            .limit(3)
+            .map(Map.Entry::getKey)
+            .toList();
+    assertEquals(exactTop3, reported.subList(0, 3));
+  }
+
+  @Test
+  void constructor_ShouldThrow_WhenCapacityIsNotPositive() {
+    assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(0));
+  }
+}
@@ -9,6 +9,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import com.fw.irongate.caches.SessionStore;
+import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.dto.SecurityUserDTO;
 import com.fw.irongate.utils.CookieUtil;
 import com.fw.irongate.utils.JwtUtil;
@@ -33,6 +35,7 @@ class TestLoginUseCase {
   @Mock private AuthenticationManager authenticationManager;
   @Mock private JwtUtil jwtUtil;
   @Mock private CookieUtil cookieUtil;
+  @Mock private SessionStore sessionStore;
   @InjectMocks private LoginUseCase loginUseCase;
 
   @Test
@@ -78,6 +81,38 @@ class TestLoginUseCase {
             );
   }
 
+  @Test
+  void shouldCreateSession_AndReturnCookie_WhenSessionModeEnabled() {
+    /* --- Given --- */
+    LoginRequest request = new LoginRequest("test@example.com", "password123");
+    UUID id = UuidCreator.getTimeOrderedEpoch();
+    UUID roleId = UuidCreator.getTimeOrderedEpoch();
+    SecurityUserDTO mockUser =
+        new SecurityUserDTO(
+            id,
+            "test@example.com",
+            "hashedPass",
+            roleId,
+            "ROLE_ADMIN",
+            "John Doe",
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+    Authentication auth = mock(Authentication.class);
+    given(auth.getPrincipal()).willReturn(mockUser);
+    given(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+        .willReturn(auth);
+    given(sessionStore.isEnabled()).willReturn(true);
+    given(sessionStore.create(any())).willReturn("opaque-session-id");
+    ResponseCookie expectedCookie = ResponseCookie.from("auth_cookie", "opaque-session-id").build();
+    given(cookieUtil.createFreshCookie("opaque-session-id")).willReturn(expectedCookie);
+    /* --- When --- */
+    ResponseCookie actualCookie = loginUseCase.handle(request);
+    /* --- Then --- */
+    assertEquals(expectedCookie, actualCookie);
+    verify(sessionStore)
+        .create(new JwtClaimDTO(id, "test@example.com", roleId, "ROLE_ADMIN", "John Doe"));
+    verify(jwtUtil, never()).generateJwt(any(), any(), any(), any(), any());
+  }
+
   @Test
   void shouldThrowException_WhenCredentialsInvalid() {
     /* --- Given --- */
@@ -82,4 +82,26 @@ class TestUserDetailsUseCase {
     /* Verify repository was actually called */
     verify(userRepository).findOneActiveByEmail(email);
   }
+
+  @Test
+  void shouldStoreNewHash_WhenPasswordIsUpgraded() {
+    /* --- Given --- */
+    String email = "alice@example.com";
+    Sysconfig manager = new Sysconfig();
+    manager.setKey("MANAGER");
+    manager.setValue("ROLE_MANAGER");
+    User userEntity = new User();
+    userEntity.setEmail(email);
+    userEntity.setPasswordHash("$2a$04$old");
+    userEntity.setRole(manager);
+    given(userRepository.findOneActiveByEmail(email)).willReturn(Optional.of(userEntity));
+    given(userRepository.save(userEntity)).willReturn(userEntity);
+    UserDetails current = userDetailsUseCase.loadUserByUsername(email);
+    /* --- When --- */
+    UserDetails result = userDetailsUseCase.updatePassword(current, "$2a$12$new");
+    /* --- Then --- */
+    assertEquals("$2a$12$new", userEntity.getPasswordHash());
+    assertEquals("$2a$12$new", result.getPassword());
+    verify(userRepository).save(userEntity);
+  }
 }
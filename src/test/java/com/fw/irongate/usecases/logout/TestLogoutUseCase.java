@@ -1,18 +1,22 @@
 package com.fw.irongate.usecases.logout;
 
 import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fw.irongate.caches.RevokedTokenIndex;
+import com.fw.irongate.caches.SessionStore;
 import com.fw.irongate.models.dto.JwtClaimDTO;
 import com.fw.irongate.models.entities.RevokedToken;
 import com.fw.irongate.repositories.RevokedTokenRepository;
 import com.fw.irongate.usecases.stream_dashboard.StreamDashboardUseCase;
 import com.fw.irongate.utils.CookieUtil;
 import com.fw.irongate.utils.JwtUtil;
+import com.fw.irongate.utils.TokenDigest;
 import com.github.f4b6a3.uuid.UuidCreator;
 import java.time.Instant;
 import org.junit.jupiter.api.Test;
@@ -29,7 +33,9 @@ class TestLogoutUseCase {
 
   @Mock private JwtUtil jwtUtil;
   @Mock private RevokedTokenRepository revokedTokenRepository;
+  @Mock private RevokedTokenIndex revokedTokenIndex;
   @Mock private CookieUtil cookieUtil;
+  @Mock private SessionStore sessionStore;
   @Mock private StreamDashboardUseCase streamDashboardUseCase;
   @InjectMocks private LogoutUseCase logoutUseCase;
   @Captor private ArgumentCaptor<RevokedToken> revokedTokenCaptor;
@@ -59,10 +65,11 @@ class TestLogoutUseCase {
     assertEquals(expectedCookie, result);
     /* Verify repository save was called */
     verify(revokedTokenRepository).save(revokedTokenCaptor.capture());
+    verify(revokedTokenIndex).revoke(TokenDigest.of(token), mockExpiration);
     verify(streamDashboardUseCase).removeUser(claimDTO.userId().toString());
     /* Check the internal state of the saved object */
     RevokedToken capturedToken = revokedTokenCaptor.getValue();
-    assertEquals(token, capturedToken.getJwt());
+    assertArrayEquals(TokenDigest.of(token).toBytes(), capturedToken.getJwtDigest());
     assertEquals(email, capturedToken.getCreatedBy());
     assertEquals(email, capturedToken.getUpdatedBy());
   }
@@ -90,5 +97,31 @@ class TestLogoutUseCase {
     assertEquals(expectedCookie, result);
     /* Verify we never tried to save anything because the exception happened before save() */
     verify(revokedTokenRepository, never()).save(any());
+    verify(revokedTokenIndex, never()).revoke(any(), any());
+  }
+
+  @Test
+  void handle_ShouldRemoveSessionAndReturnEmptyCookie_WhenSessionModeEnabled() {
+    /* 1. Arrange */
+    String sessionId = "opaque-session-id";
+    JwtClaimDTO claimDTO =
+        new JwtClaimDTO(
+            UuidCreator.getTimeOrderedEpoch(),
+            "user@example.com",
+            UuidCreator.getTimeOrderedEpoch(),
+            "role",
+            "full name");
+    ResponseCookie expectedCookie = ResponseCookie.from(COOKIE_NAME, "").build();
+    when(sessionStore.isEnabled()).thenReturn(true);
+    when(cookieUtil.createEmptyCookie()).thenReturn(expectedCookie);
+    /* 2. Act */
+    ResponseCookie result = logoutUseCase.handle(claimDTO, sessionId);
+    /* 3. Assert */
+    assertEquals(expectedCookie, result);
+    verify(sessionStore).remove(TokenDigest.of(sessionId));
+    verify(streamDashboardUseCase).removeUser(claimDTO.userId().toString());
+    /* No revocation list in session mode */
+    verify(revokedTokenRepository, never()).save(any());
+    verify(revokedTokenIndex, never()).revoke(any(), any());
   }
 }
@@ -0,0 +1,47 @@
+package com.fw.irongate.usecases.purge_revoked_tokens;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fw.irongate.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestPurgeRevokedTokensUseCase {
+
+  private RevokedTokenRepository revokedTokenRepository;
+  private PurgeRevokedTokensUseCase purgeRevokedTokensUseCase;
+
+  @BeforeEach
+  void setUp() {
+    revokedTokenRepository = mock(RevokedTokenRepository.class);
+    purgeRevokedTokensUseCase = new PurgeRevokedTokensUseCase(revokedTokenRepository, 100);
+  }
+
+  @Test
+  void handle_shouldKeepDeletingWhileChunksComeBackFull() {
+    /* Arrange */
+    when(revokedTokenRepository.deleteExpiredChunk(any(), eq(100))).thenReturn(100, 100, 42);
+    /* Act */
+    int purged = purgeRevokedTokensUseCase.handle();
+    /* Assert */
+    assertEquals(242, purged);
+    verify(revokedTokenRepository, times(3)).deleteExpiredChunk(any(), eq(100));
+  }
+
+  @Test
+  void handle_shouldStopAfterOneChunk_whenNothingExpired() {
+    /* Arrange */
+    when(revokedTokenRepository.deleteExpiredChunk(any(), eq(100))).thenReturn(0);
+    /* Act */
+    int purged = purgeRevokedTokensUseCase.handle();
+    /* Assert */
+    assertEquals(0, purged);
+    verify(revokedTokenRepository, times(1)).deleteExpiredChunk(any(), eq(100));
+  }
+}
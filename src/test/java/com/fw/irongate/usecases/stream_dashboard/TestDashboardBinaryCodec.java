@@ -0,0 +1,100 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class TestDashboardBinaryCodec {
+
+  private static final UUID WAREHOUSE = UUID.randomUUID();
+
+  @Test
+  void encodeEvent_ShouldRoundTrip_WithWarehouseAndCount() {
+    /* Arrange */
+    DashboardEventDTO event =
+        new DashboardEventDTO("STOCK_CREATED", DashboardEventCategory.STOCK, WAREHOUSE, 7);
+    /* Act */
+    DashboardBinaryCodec.Event decoded =
+        DashboardBinaryCodec.decodeEvent(DashboardBinaryCodec.encodeEvent(300, event));
+    /* Assert */
+    assertEquals(300, decoded.sequence());
+    assertEquals(event, decoded.event());
+  }
+
+  @Test
+  void encodeEvent_ShouldRoundTrip_UnknownTypeWithoutWarehouse() {
+    /* Arrange */
+    DashboardEventDTO event = new DashboardEventDTO("SOMETHING_NEW");
+    /* Act */
+    DashboardBinaryCodec.Event decoded =
+        DashboardBinaryCodec.decodeEvent(DashboardBinaryCodec.encodeEvent(1, event));
+    /* Assert */
+    assertEquals(event, decoded.event());
+  }
+
+  @Test
+  void encodeEvent_ShouldRoundTrip_DeltaWithNullValue() {
+    /* Arrange */
+    ChartDeltaDTO delta =
+        new ChartDeltaDTO(
+            42,
+            List.of(new ChartDataDTO("PENDING", 3.0), new ChartDataDTO("DELIVERED", (Double) null)),
+            null,
+            List.of(),
+            null);
+    DashboardEventDTO event =
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE)
+            .withDelta(delta);
+    /* Act */
+    DashboardBinaryCodec.Event decoded =
+        DashboardBinaryCodec.decodeEvent(DashboardBinaryCodec.encodeEvent(9, event));
+    /* Assert */
+    assertEquals(event, decoded.event());
+  }
+
+  @Test
+  void encodeAck_And_encodeHello_ShouldRoundTrip() {
+    assertEquals(
+        123_456_789L, DashboardBinaryCodec.decodeAck(DashboardBinaryCodec.encodeAck(123_456_789L)));
+    assertEquals(
+        "m1abc", DashboardBinaryCodec.decodeHello(DashboardBinaryCodec.encodeHello("m1abc")));
+  }
+
+  @Test
+  void decodeAck_ShouldThrow_WhenFrameIsNotAnAck() {
+    ByteBuffer hello = DashboardBinaryCodec.encodeHello("m1abc");
+    assertThrows(IllegalArgumentException.class, () -> DashboardBinaryCodec.decodeAck(hello));
+  }
+
+  @Test
+  void encodeEvent_ShouldBeSmallerThanTheSameSseFrame() throws Exception {
+    /* Arrange */
+    DashboardEventDTO event =
+        new DashboardEventDTO("SHIPMENT_UPDATED", DashboardEventCategory.SHIPMENT, WAREHOUSE);
+    String json = new ObjectMapper().writeValueAsString(event);
+    StringBuilder sse = new StringBuilder();
+    SseEmitter.event()
+        .id("m1abcdef-1000")
+        .data(json, MediaType.APPLICATION_JSON)
+        .build()
+        .forEach(item -> sse.append(item.getData()));
+    /* Act */
+    int binary = DashboardBinaryCodec.encodeEvent(1000, event).remaining();
+    /* Assert */
+    int text = sse.toString().getBytes(StandardCharsets.UTF_8).length;
+    assertTrue(binary * 3 < text, binary + " bytes against " + text);
+  }
+}
@@ -0,0 +1,116 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class TestDashboardEventOutbox {
+
+  private static final UUID WAREHOUSE = UUID.randomUUID();
+  private final StreamDashboardUseCase streamDashboardUseCase = mock(StreamDashboardUseCase.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private DashboardEventOutbox dashboardEventOutbox;
+
+  @BeforeEach
+  void setUp() {
+    dashboardEventOutbox = new DashboardEventOutbox(streamDashboardUseCase, meterRegistry, 100, 16);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dashboardEventOutbox.shutdown();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void add_ShouldPublishAtOnce_WhenThereIsNoTransaction() {
+    /* Arrange */
+    DashboardEventDTO event =
+        new DashboardEventDTO("STOCK_CREATED", DashboardEventCategory.STOCK, WAREHOUSE);
+    /* Act */
+    dashboardEventOutbox.add(event);
+    /* Assert */
+    verify(streamDashboardUseCase, timeout(5000)).broadcast(event);
+  }
+
+  @Test
+  void add_ShouldHoldEventsUntilCommit_AndMergeThemIntoOneBatch() {
+    /* Arrange */
+    TransactionSynchronizationManager.initSynchronization();
+    /* Act */
+    dashboardEventOutbox.add(
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE));
+    dashboardEventOutbox.add(
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE));
+    /* Assert: nothing leaves while the transaction is open */
+    verify(streamDashboardUseCase, after(200).never()).broadcast(any());
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    verify(streamDashboardUseCase, timeout(5000))
+        .broadcast(
+            new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE, 2));
+  }
+
+  @Test
+  void add_ShouldDiscardEvents_WhenTransactionRollsBack() {
+    /* Arrange */
+    TransactionSynchronizationManager.initSynchronization();
+    dashboardEventOutbox.add(
+        new DashboardEventDTO("SHIPMENT_CREATED", DashboardEventCategory.SHIPMENT, WAREHOUSE));
+    /* Act */
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+    /* Assert */
+    verify(streamDashboardUseCase, after(200).never()).broadcast(any());
+    assertEquals(
+        1,
+        meterRegistry
+            .get("irongate.dashboard.outbox")
+            .tag("outcome", "rolled_back")
+            .counter()
+            .count());
+  }
+
+  @Test
+  void add_ShouldStartAFreshOutbox_ForTheNextTransaction() {
+    /* Arrange */
+    TransactionSynchronizationManager.initSynchronization();
+    dashboardEventOutbox.add(
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE));
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+    /* Act */
+    TransactionSynchronizationManager.initSynchronization();
+    dashboardEventOutbox.add(
+        new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE));
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+    /* Assert: only the committed event goes out */
+    verify(streamDashboardUseCase, timeout(5000))
+        .broadcast(new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE));
+    verify(streamDashboardUseCase, never())
+        .broadcast(
+            new DashboardEventDTO("ORDER_UPDATED", DashboardEventCategory.ORDER, WAREHOUSE, 2));
+  }
+
+  /** What the transaction manager does when a transaction ends. */
+  private static void complete(int status) {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(status);
+    }
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+}
@@ -0,0 +1,195 @@
+package com.fw.irongate.usecases.stream_dashboard;
+
+import static com.fw.irongate.constants.SystemConstants.EVENT_RESYNC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import com.fw.irongate.repositories.DashboardEventPayloadRepository;
+import com.fw.irongate.web.api.TestParent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Two transport instances against the test database stand for two nodes; node A sends with a 200
+ * byte NOTIFY limit, so larger events go through the payload table.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource("classpath:application-test.properties")
+class TestPostgresDashboardEventTransport extends TestParent {
+
+  private static final long TIMEOUT_IN_MILLISECOND = 5000;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private DataSourceProperties dataSourceProperties;
+  @Autowired private DashboardEventPayloadRepository dashboardEventPayloadRepository;
+  @Autowired private ObjectMapper objectMapper;
+  private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+  private final SimpleMeterRegistry otherMeters = new SimpleMeterRegistry();
+  private final List<DashboardEventDTO> received = new CopyOnWriteArrayList<>();
+  private final List<DashboardEventDTO> otherReceived = new CopyOnWriteArrayList<>();
+  private PostgresDashboardEventTransport node;
+  private PostgresDashboardEventTransport otherNode;
+
+  @BeforeAll
+  void startNodes() {
+    node = newTransport(meters, received);
+    otherNode = newTransport(otherMeters, otherReceived);
+    assertTrue(await(() -> listenerBackends() == 1), "other node is not listening");
+    /* both listeners report their initial resync */
+    assertTrue(await(() -> received.contains(new DashboardEventDTO(EVENT_RESYNC))));
+    assertTrue(await(() -> otherReceived.contains(new DashboardEventDTO(EVENT_RESYNC))));
+  }
+
+  @AfterAll
+  void stopNodes() throws InterruptedException {
+    node.stop();
+    otherNode.stop();
+    dashboardEventPayloadRepository.deleteAll();
+  }
+
+  @BeforeEach
+  void setUp() {
+    received.clear();
+    otherReceived.clear();
+  }
+
+  @Test
+  void publish_ShouldDeliverLocallyOnce_AndReachOtherNode() {
+    /* --- Given --- */
+    double publishedBefore = published(meters);
+    DashboardEventDTO event =
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, UUID.randomUUID(), 3);
+    /* --- When --- */
+    node.publish(event);
+    /* --- Then --- */
+    assertTrue(await(() -> otherReceived.size() == 1));
+    assertEquals(event, otherReceived.getFirst());
+    /* this node's own notification is skipped, not delivered a second time */
+    assertTrue(await(() -> published(meters) == publishedBefore + 1));
+    assertEquals(List.of(event), received);
+  }
+
+  @Test
+  void publish_ShouldGoThroughPayloadTable_WhenAboveNotifyLimit() {
+    /* --- Given --- */
+    String type = "X".repeat(500);
+    /* --- When --- */
+    node.publish(new DashboardEventDTO(type));
+    /* --- Then --- */
+    assertTrue(await(() -> otherReceived.size() == 1));
+    assertEquals(new DashboardEventDTO(type), otherReceived.getFirst());
+    assertEquals(1.0, meters.get("irongate.dashboard.transport.large_payloads").counter().count());
+  }
+
+  @Test
+  void onNotification_ShouldDropDuplicateSequences() {
+    /* --- When --- */
+    for (String seq : List.of("1", "2", "2", "1", "3")) {
+      jdbcTemplate.queryForList(
+          "SELECT pg_notify(?, ?)",
+          PostgresDashboardEventTransport.CHANNEL,
+          "node-c|" + seq + "|J{\"type\":\"E" + seq + "\",\"category\":\"SYSTEM\",\"count\":1}");
+    }
+    /* --- Then --- */
+    assertTrue(await(() -> otherReceived.size() == 3));
+    assertEquals(
+        List.of(
+            new DashboardEventDTO("E1"), new DashboardEventDTO("E2"), new DashboardEventDTO("E3")),
+        otherReceived);
+    assertEquals(
+        2.0,
+        otherMeters
+            .get("irongate.dashboard.transport.messages")
+            .tag("outcome", "duplicate")
+            .counter()
+            .count());
+  }
+
+  @Test
+  void listener_ShouldReconnectAndResync_WhenConnectionDropped() {
+    /* --- When --- */
+    jdbcTemplate.queryForList(
+        "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+        applicationName());
+    /* --- Then --- */
+    assertTrue(await(() -> otherReceived.contains(new DashboardEventDTO(EVENT_RESYNC))));
+    assertTrue(otherMeters.get("irongate.dashboard.transport.reconnects").counter().count() >= 1);
+    node.publish(new DashboardEventDTO("AFTER_RECONNECT"));
+    assertTrue(await(() -> otherReceived.contains(new DashboardEventDTO("AFTER_RECONNECT"))));
+  }
+
+  private PostgresDashboardEventTransport newTransport(
+      SimpleMeterRegistry meterRegistry, List<DashboardEventDTO> receiver) {
+    PostgresDashboardEventTransport transport =
+        new PostgresDashboardEventTransport(
+            jdbcTemplate,
+            dataSourceProperties,
+            dashboardEventPayloadRepository,
+            objectMapper,
+            meterRegistry,
+            100,
+            100,
+            100,
+            200,
+            60000);
+    transport.onEvent(receiver::add);
+    transport.start();
+    return transport;
+  }
+
+  private static double published(SimpleMeterRegistry meterRegistry) {
+    return meterRegistry
+        .get("irongate.dashboard.transport.messages")
+        .tag("outcome", "published")
+        .counter()
+        .count();
+  }
+
+  private String applicationName() {
+    return "irongate-dashboard-" + otherNode.getNodeId();
+  }
+
+  private int listenerBackends() {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_stat_activity WHERE application_name = ?",
+            Integer.class,
+            applicationName());
+    return count == null ? 0 : count;
+  }
+
+  private static boolean await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + TIMEOUT_IN_MILLISECOND;
+    while (System.currentTimeMillis() < deadline) {
+      if (condition.getAsBoolean()) {
+        return true;
+      }
+      try {
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+}
@@ -1,18 +1,92 @@
 package com.fw.irongate.usecases.stream_dashboard;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fw.irongate.caches.EntityChangedEvent;
+import com.fw.irongate.caches.PermissionMatrix;
+import com.fw.irongate.caches.SysconfigRegistry;
+import com.fw.irongate.caches.WarehouseAccessService;
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.ChartDeltaDTO;
 import com.fw.irongate.models.dto.DashboardEventDTO;
+import com.fw.irongate.models.dto.JwtClaimDTO;
+import com.fw.irongate.models.dto.SysconfigDTO;
+import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.models.enums.DashboardEventCategory;
+import com.fw.irongate.usecases.get_dashboard_charts.ChartSection;
+import com.fw.irongate.usecases.get_dashboard_charts.GetDashboardChartsUseCase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
 
 class TestStreamDashboardUseCase {
 
-  private final StreamDashboardUseCase streamDashboardUseCase = new StreamDashboardUseCase();
+  private final ObjectMapper objectMapper = spy(new ObjectMapper());
+  private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private static final UUID USER1 = UUID.randomUUID();
+  private static final UUID USER2 = UUID.randomUUID();
+  private static final UUID WAREHOUSE_A = UUID.randomUUID();
+  private static final UUID WAREHOUSE_B = UUID.randomUUID();
+  private static final UUID MANAGER_ROLE = UUID.randomUUID();
+  private static final UUID DRIVER_ROLE = UUID.randomUUID();
+  private static final UUID SYSTEM_ROLE = UUID.randomUUID();
+  private static final int MAX_IN_FLIGHT = 2;
+  private final GetDashboardChartsUseCase getDashboardChartsUseCase =
+      mock(GetDashboardChartsUseCase.class);
+  private final WarehouseAccessService warehouseAccessService = mock(WarehouseAccessService.class);
+  private final PermissionMatrix permissionMatrix = mock(PermissionMatrix.class);
+  private final SysconfigRegistry sysconfigRegistry = mock(SysconfigRegistry.class);
+  private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+  private StreamDashboardUseCase streamDashboardUseCase;
+
+  @BeforeEach
+  void setUp() {
+    taskScheduler.initialize();
+    when(warehouseAccessService.getWarehouseIds(any())).thenReturn(Set.of(WAREHOUSE_A));
+    when(permissionMatrix.isAllowed(eq(MANAGER_ROLE), any())).thenReturn(true);
+    when(permissionMatrix.isAllowed(DRIVER_ROLE, "/api/shipment/filter")).thenReturn(true);
+    streamDashboardUseCase = newUseCase(4, SlowConsumerPolicy.DROP, 0, false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    streamDashboardUseCase.shutdown();
+    taskScheduler.shutdown();
+  }
 
   @Test
   void subscribe_ShouldReturnEmitter() {
-    SseEmitter emitter = streamDashboardUseCase.subscribe("user1");
+    SseEmitter emitter = streamDashboardUseCase.subscribe(claims(USER1), null);
     assertNotNull(emitter);
   }
 
@@ -24,17 +98,573 @@ class TestStreamDashboardUseCase {
   }
 
   @Test
-  void broadcast_ShouldSendToEmitters() {
-    streamDashboardUseCase.subscribe("user1");
-    DashboardEventDTO event = new DashboardEventDTO("test");
-    streamDashboardUseCase.broadcast(event);
-    /* Logic for verifying SSE send is complex, but this tests the loop doesn't crash */
+  void broadcast_ShouldInvalidateCachedCharts_EvenWithoutSubscribers() {
+    /* Act */
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("SHIPMENT_UPDATED"));
+    /* Assert */
+    verify(getDashboardChartsUseCase).invalidate(ChartSection.affectedBy("SHIPMENT_UPDATED"));
+  }
+
+  @Test
+  void broadcast_ShouldSerializeOnce_AndSendToEveryConnection() throws Exception {
+    /* Arrange */
+    RecordingEmitter first = new RecordingEmitter(1);
+    RecordingEmitter second = new RecordingEmitter(1);
+    RecordingEmitter sameUserOtherTab = new RecordingEmitter(1);
+    register(claims(USER1), first, null);
+    register(claims(USER2), second, null);
+    register(claims(USER1), sameUserOtherTab, null);
+    /* Act */
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("ORDER_CREATED"));
+    /* Assert */
+    assertTrue(first.await());
+    assertTrue(second.await());
+    assertTrue(sameUserOtherTab.await());
+    verify(objectMapper, times(1)).writeValueAsString(any());
+    assertTrue(
+        first
+            .frames
+            .getFirst()
+            .contains("{\"type\":\"ORDER_CREATED\",\"category\":\"SYSTEM\",\"count\":1}"));
+    /* the greetings and the event */
+    assertEquals(6, meterRegistry.get("irongate.dashboard.send_latency").timer().count());
+    assertEquals(3.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+  }
+
+  @Test
+  void broadcast_ShouldDropOldestFrames_WhenConsumerIsSlow() throws Exception {
+    /* Arrange */
+    BlockingEmitter slow = new BlockingEmitter();
+    register(claims(USER1), slow, null);
+    assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+    /* Act: the greeting is stuck in send(), the queue (4) overflows by 2 */
+    for (int i = 0; i < 6; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("event-" + i));
+    }
+    /* Assert */
+    assertEquals(2.0, meterRegistry.get("irongate.dashboard.dropped").counter().count());
+    assertEquals(4.0, meterRegistry.get("irongate.dashboard.queue_depth").gauge().value());
+    assertEquals(1.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+    slow.release.countDown();
+  }
+
+  @Test
+  void broadcast_ShouldDisconnect_WhenConsumerIsSlow_AndPolicyIsDisconnect() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(2, SlowConsumerPolicy.DISCONNECT, 0, false);
+    BlockingEmitter slow = new BlockingEmitter();
+    RecordingEmitter healthy = new RecordingEmitter(3);
+    register(claims(USER1), slow, null);
+    register(claims(USER2), healthy, null);
+    assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+    /* Act: paced, so only the blocked connection can overflow its queue of 2 */
+    for (int i = 0; i < 3; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("event-" + i));
+      long deadline = System.currentTimeMillis() + 5000;
+      while (healthy.frames.size() < i + 1 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+    }
+    /* Assert */
+    assertTrue(healthy.await());
+    assertEquals(1.0, meterRegistry.get("irongate.dashboard.slow_disconnects").counter().count());
+    assertEquals(1.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+    slow.release.countDown();
+  }
+
+  @Test
+  void removeUser_ShouldCloseEveryConnectionOfThatUser() {
+    /* Arrange */
+    register(claims(USER1), new RecordingEmitter(1), null);
+    register(claims(USER1), new RecordingEmitter(1), null);
+    register(claims(USER2), new RecordingEmitter(1), null);
+    /* Act */
+    streamDashboardUseCase.removeUser(USER1.toString());
+    /* Assert */
+    assertEquals(1.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+  }
+
+  @Test
+  void broadcast_ShouldCoalesceSameTypeEventsWithinWindow() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(16, SlowConsumerPolicy.DROP, 200, false);
+    RecordingEmitter emitter = new RecordingEmitter(3);
+    register(claims(USER1), emitter, null);
+    /* Act */
+    for (int i = 0; i < 10; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("ORDER_CREATED"));
+    }
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("STOCK_CREATED"));
+    /* Assert */
+    /* leading ORDER_CREATED and STOCK_CREATED at once, the other 9 orders when the window closes */
+    assertTrue(emitter.await());
+    assertEquals(3, emitter.frames.size());
+    assertTrue(
+        emitter
+            .frames
+            .get(0)
+            .contains("{\"type\":\"ORDER_CREATED\",\"category\":\"SYSTEM\",\"count\":1}"));
+    assertTrue(
+        emitter
+            .frames
+            .get(1)
+            .contains("{\"type\":\"STOCK_CREATED\",\"category\":\"SYSTEM\",\"count\":1}"));
+    assertTrue(
+        emitter
+            .frames
+            .get(2)
+            .contains("{\"type\":\"ORDER_CREATED\",\"category\":\"SYSTEM\",\"count\":9}"));
+    assertEquals(9.0, meterRegistry.get("irongate.dashboard.coalesced").counter().count());
+  }
+
+  @Test
+  void broadcast_ShouldAttachChartDelta_ComputedOncePerEvent() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(16, SlowConsumerPolicy.DROP, 0, true);
+    when(getDashboardChartsUseCase.computeDelta(
+            EnumSet.of(
+                ChartSection.ORDERS_BY_STATUS,
+                ChartSection.TOP_REVENUE_BY_WAREHOUSE,
+                ChartSection.TOP_SELLING_PRODUCTS)))
+        .thenReturn(
+            new ChartDeltaDTO(7, List.of(new ChartDataDTO("PENDING", 3.0)), null, null, null));
+    RecordingEmitter first = new RecordingEmitter(1);
+    RecordingEmitter second = new RecordingEmitter(1);
+    register(claims(USER1), first, null);
+    register(claims(USER2), second, null);
+    /* Act */
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("ORDER_CREATED"));
+    /* Assert */
+    assertTrue(first.await());
+    assertTrue(second.await());
+    verify(getDashboardChartsUseCase, times(1)).computeDelta(any());
+    assertTrue(
+        first
+            .frames
+            .getFirst()
+            .contains(
+                "{\"type\":\"ORDER_CREATED\",\"category\":\"SYSTEM\",\"count\":1,\"delta\":{\"version\":7,"
+                    + "\"ordersByStatus\":[{\"label\":\"PENDING\",\"value\":3.0}]}}"));
+  }
+
+  @Test
+  void broadcast_ShouldSendEveryChartDelta_ToSubscribersOfOtherWarehouses() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(16, SlowConsumerPolicy.DROP, 0, true);
+    when(getDashboardChartsUseCase.computeDelta(any()))
+        .thenReturn(new ChartDeltaDTO(1))
+        .thenReturn(new ChartDeltaDTO(2));
+    UUID otherUser = UUID.randomUUID();
+    when(warehouseAccessService.getWarehouseIds(otherUser)).thenReturn(Set.of(WAREHOUSE_B));
+    RecordingEmitter managerA = new RecordingEmitter(2);
+    RecordingEmitter managerB = new RecordingEmitter(2);
+    register(claims(USER1), managerA, null);
+    register(claims(otherUser), managerB, null);
+    /* Act */
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_A));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (managerA.frames.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_B));
+    /* Assert: each sees its own event and the other's delta, versions 1 and 2 in a row */
+    assertTrue(managerA.await());
+    assertTrue(managerB.await());
+    assertTrue(managerA.frames.get(0).contains("\"type\":\"ORDER_CREATED\""));
+    assertTrue(managerA.frames.get(1).contains("\"type\":\"CHARTS_UPDATED\""));
+    assertTrue(managerB.frames.get(0).contains("\"type\":\"CHARTS_UPDATED\""));
+    assertTrue(managerB.frames.get(1).contains("\"type\":\"ORDER_CREATED\""));
+    for (RecordingEmitter emitter : List.of(managerA, managerB)) {
+      assertTrue(emitter.frames.get(0).contains("\"delta\":{\"version\":1}"));
+      assertTrue(emitter.frames.get(1).contains("\"delta\":{\"version\":2}"));
+    }
+    /* the same id on both sides, so a replay resumes from either */
+    assertEquals(eventId(managerA.frames.get(1)), eventId(managerB.frames.get(1)));
+  }
+
+  @Test
+  void register_ShouldReplayOnlyMissedFrames_WhenLastEventIdIsInBuffer() throws Exception {
+    /* Arrange */
+    RecordingEmitter live = new RecordingEmitter(3);
+    register(claims(USER1), live, null);
+    for (int i = 1; i <= 3; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("event-" + i));
+    }
+    assertTrue(live.await());
+    String firstId = eventId(live.frames.getFirst());
+    /* Act */
+    RecordingEmitter reconnected = new RecordingEmitter(2);
+    register(claims(USER1), reconnected, firstId);
+    /* Assert */
+    assertTrue(reconnected.await());
+    assertEquals(live.frames.subList(1, 3), reconnected.frames);
+    assertEquals(
+        2.0,
+        meterRegistry
+            .get("irongate.dashboard.replay")
+            .tag("outcome", "replayed")
+            .counter()
+            .count());
+  }
+
+  @Test
+  void register_ShouldSendResync_WhenClientFellOffTheBuffer() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(16, SlowConsumerPolicy.DROP, 0, false);
+    RecordingEmitter live = new RecordingEmitter(10);
+    register(claims(USER1), live, null);
+    for (int i = 1; i <= 10; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("event-" + i));
+    }
+    assertTrue(live.await());
+    /* Act: the buffer holds 8, so the first id is gone; an unknown epoch is never replayed */
+    RecordingEmitter tooOld = new RecordingEmitter(1);
+    RecordingEmitter otherProcess = new RecordingEmitter(1);
+    register(claims(USER1), tooOld, eventId(live.frames.getFirst()));
+    register(claims(USER1), otherProcess, "0-5");
+    /* Assert */
+    assertTrue(tooOld.await());
+    assertTrue(otherProcess.await());
+    assertEquals(1, tooOld.frames.size());
+    assertTrue(
+        tooOld
+            .frames
+            .getFirst()
+            .contains("{\"type\":\"RESYNC\",\"category\":\"SYSTEM\",\"count\":1}"));
+    assertEquals(eventId(live.frames.getLast()), eventId(tooOld.frames.getFirst()));
+    assertTrue(otherProcess.frames.getFirst().contains("RESYNC"));
+    assertEquals(
+        2.0,
+        meterRegistry.get("irongate.dashboard.replay").tag("outcome", "resync").counter().count());
+  }
+
+  @Test
+  void register_ShouldSendResync_WhenEventsWereSkippedWithoutSubscribers() throws Exception {
+    /* Arrange */
+    RecordingEmitter live = new RecordingEmitter(1);
+    register(claims(USER1), live, null);
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("event-1"));
+    assertTrue(live.await());
+    streamDashboardUseCase.removeUser(USER1.toString());
+    /* nobody is connected, the event is not serialized */
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("event-2"));
+    /* Act */
+    RecordingEmitter reconnected = new RecordingEmitter(1);
+    register(claims(USER1), reconnected, eventId(live.frames.getFirst()));
+    /* Assert */
+    assertTrue(reconnected.await());
+    assertTrue(reconnected.frames.getFirst().contains("RESYNC"));
+  }
+
+  @Test
+  void broadcast_ShouldRouteByWarehouseAndCategory() throws Exception {
+    /* Arrange */
+    UUID otherUser = UUID.randomUUID();
+    when(warehouseAccessService.getWarehouseIds(otherUser)).thenReturn(Set.of(WAREHOUSE_B));
+    RecordingEmitter managerA = new RecordingEmitter(2);
+    RecordingEmitter driverA = new RecordingEmitter(1);
+    RecordingEmitter managerB = new RecordingEmitter(1);
+    register(claims(USER1), managerA, null);
+    register(claims(USER2, DRIVER_ROLE), driverA, null);
+    register(claims(otherUser), managerB, null);
+    /* Act */
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_A));
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("SHIPMENT_CREATED", DashboardEventCategory.SHIPMENT, WAREHOUSE_A));
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("STOCK_CREATED", DashboardEventCategory.STOCK, WAREHOUSE_B));
+    /* Assert */
+    assertTrue(managerA.await());
+    assertTrue(driverA.await());
+    assertTrue(managerB.await());
+    assertEquals(2, managerA.frames.size());
+    /* the driver's role may not list orders, so only the shipment reaches it */
+    assertEquals(1, driverA.frames.size());
+    assertTrue(driverA.frames.getFirst().contains("SHIPMENT_CREATED"));
+    assertEquals(1, managerB.frames.size());
+    assertTrue(managerB.frames.getFirst().contains("STOCK_CREATED"));
+  }
+
+  @Test
+  void broadcast_ShouldReachSystemRole_WithoutPermissionsOrMemberships() throws Exception {
+    /* Arrange */
+    UUID systemUser = UUID.randomUUID();
+    when(sysconfigRegistry.findActiveById(SYSTEM_ROLE))
+        .thenReturn(Optional.of(new SysconfigDTO(SYSTEM_ROLE, "SYSTEM", "System")));
+    when(warehouseAccessService.getWarehouseIds(systemUser)).thenReturn(Set.of());
+    RecordingEmitter system = new RecordingEmitter(1);
+    register(claims(systemUser, SYSTEM_ROLE), system, null);
+    /* Act */
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_B));
+    /* Assert */
+    assertTrue(system.await());
+    assertTrue(system.frames.getFirst().contains("ORDER_CREATED"));
+  }
+
+  @Test
+  void onEntityChanged_ShouldReindexSubscribers_WhenMembershipChanges() throws Exception {
+    /* Arrange */
+    RecordingEmitter emitter = new RecordingEmitter(1);
+    DashboardSubscriber subscriber = register(claims(USER1), emitter, null);
+    when(warehouseAccessService.getWarehouseIds(USER1)).thenReturn(Set.of(WAREHOUSE_B));
+    /* Act */
+    streamDashboardUseCase.onEntityChanged(
+        new EntityChangedEvent(WarehouseUser.class, UUID.randomUUID(), null));
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!subscriber.getWarehouseIds().contains(WAREHOUSE_B)
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_A));
+    streamDashboardUseCase.broadcast(
+        new DashboardEventDTO("SHIPMENT_CREATED", DashboardEventCategory.SHIPMENT, WAREHOUSE_B));
+    /* Assert: events of the old warehouse stop, those of the new one arrive */
+    assertTrue(emitter.await());
+    assertEquals(1, emitter.frames.size());
+    assertTrue(emitter.frames.getFirst().contains("SHIPMENT_CREATED"));
+  }
+
+  @Test
+  void sendHeartbeat_ShouldSendCommentFrame_OnlyToIdleConnections() throws Exception {
+    /* Arrange: a 200 ms interval in a single slot */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(16, SlowConsumerPolicy.DROP, 0, false, 200, 1);
+    UUID busyUser = UUID.randomUUID();
+    when(warehouseAccessService.getWarehouseIds(busyUser)).thenReturn(Set.of(WAREHOUSE_B));
+    RecordingEmitter idle = new RecordingEmitter(2);
+    RecordingEmitter busy = new RecordingEmitter(1);
+    register(claims(USER1), idle, null);
+    register(claims(busyUser), busy, null);
+    /* Act: only the busy connection gets events, far more often than the interval */
+    long until = System.currentTimeMillis() + 1000;
+    while (System.currentTimeMillis() < until) {
+      streamDashboardUseCase.broadcast(
+          new DashboardEventDTO("ORDER_CREATED", DashboardEventCategory.ORDER, WAREHOUSE_B));
+      Thread.sleep(20);
+    }
+    /* Assert */
+    assertTrue(idle.await());
+    assertTrue(idle.frames.stream().allMatch(":heartbeat\n\n"::equals));
+    assertTrue(busy.frames.stream().noneMatch(frame -> frame.startsWith(":heartbeat")));
+    assertTrue(
+        meterRegistry.get("irongate.dashboard.heartbeats").tag("outcome", "sent").counter().count()
+            >= 2);
+    assertTrue(
+        meterRegistry
+                .get("irongate.dashboard.heartbeats")
+                .tag("outcome", "skipped")
+                .counter()
+                .count()
+            >= 1);
+  }
+
+  @Test
+  void sendHeartbeat_ShouldRunOnItsOwnThread_SpreadOverTheWheel() throws Exception {
+    /* Arrange: a 200 ms interval over 4 slots ticks every 50 ms */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(4, SlowConsumerPolicy.DROP, 0, false, 200, 4);
+    RecordingEmitter[] emitters = new RecordingEmitter[8];
+    for (int i = 0; i < emitters.length; i++) {
+      emitters[i] = new RecordingEmitter(1);
+      register(claims(UUID.randomUUID()), emitters[i], null);
+    }
+    /* Act & Assert */
+    for (RecordingEmitter emitter : emitters) {
+      assertTrue(emitter.await());
+      assertEquals(":heartbeat\n\n", emitter.frames.getFirst());
+    }
+  }
+
+  @Test
+  void sendHeartbeat_ShouldReapConnectionsStuckOnAWrite() throws Exception {
+    /* Arrange */
+    streamDashboardUseCase.shutdown();
+    meterRegistry = new SimpleMeterRegistry();
+    streamDashboardUseCase = newUseCase(4, SlowConsumerPolicy.DROP, 0, false, 50, 1);
+    BlockingEmitter stuck = new BlockingEmitter();
+    register(claims(USER1), stuck, null);
+    /* Act: the greeting blocks the writer, the event stays queued */
+    assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+    streamDashboardUseCase.broadcast(new DashboardEventDTO("first"));
+    /* Assert */
+    long deadline = System.currentTimeMillis() + 5000;
+    while (meterRegistry.get("irongate.dashboard.subscribers").gauge().value() > 0
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("irongate.dashboard.heartbeats")
+            .tag("outcome", "reaped")
+            .counter()
+            .count());
+    stuck.release.countDown();
+  }
+
+  @Test
+  void connect_ShouldHoldBackEvents_UntilTheWebSocketClientAcknowledges() throws Exception {
+    /* Arrange */
+    List<ByteBuffer> messages = new CopyOnWriteArrayList<>();
+    WebSocketSession session = mock(WebSocketSession.class);
+    doAnswer(
+            invocation -> {
+              messages.add(((BinaryMessage) invocation.getArgument(0)).getPayload());
+              return null;
+            })
+        .when(session)
+        .sendMessage(any());
+    String connectionId = streamDashboardUseCase.connect(claims(USER1), session, null);
+    /* Act */
+    for (int i = 0; i < 4; i++) {
+      streamDashboardUseCase.broadcast(new DashboardEventDTO("ORDER_CREATED"));
+    }
+    /* Assert: the hello and as many events as the window allows */
+    verify(session, timeout(5000).times(1 + MAX_IN_FLIGHT)).sendMessage(any());
+    verify(session, after(200).times(1 + MAX_IN_FLIGHT)).sendMessage(any());
+    assertFalse(DashboardBinaryCodec.decodeHello(messages.getFirst()).isBlank());
+    DashboardBinaryCodec.Event second = DashboardBinaryCodec.decodeEvent(messages.get(2));
+    assertEquals("ORDER_CREATED", second.event().type());
+    assertEquals(
+        MAX_IN_FLIGHT, meterRegistry.get("irongate.dashboard.websocket.in_flight").gauge().value());
+    assertEquals(2.0, meterRegistry.get("irongate.dashboard.queue_depth").gauge().value());
+    /* Act: acknowledging both frees the window for the rest */
+    streamDashboardUseCase.acknowledge(connectionId, second.sequence());
+    /* Assert */
+    verify(session, timeout(5000).times(3 + MAX_IN_FLIGHT)).sendMessage(any());
+    assertEquals(
+        second.sequence() + 2, DashboardBinaryCodec.decodeEvent(messages.get(4)).sequence());
+    assertEquals(1.0, meterRegistry.get("irongate.dashboard.websocket.acks").counter().count());
   }
 
   @Test
-  void sendHeartbeat_ShouldNotThrowException() {
-    streamDashboardUseCase.subscribe("user1");
-    streamDashboardUseCase.sendHeartbeat();
-    /* Logic for verifying SSE send is complex, but this tests the loop doesn't crash */
+  void close_ShouldForgetTheWebSocket() {
+    /* Arrange */
+    String connectionId =
+        streamDashboardUseCase.connect(claims(USER1), mock(WebSocketSession.class), null);
+    /* Act */
+    streamDashboardUseCase.close(connectionId);
+    /* Assert */
+    assertEquals(0.0, meterRegistry.get("irongate.dashboard.subscribers").gauge().value());
+  }
+
+  private StreamDashboardUseCase newUseCase(
+      int queueCapacity,
+      SlowConsumerPolicy policy,
+      long coalescingWindowInMillisecond,
+      boolean chartDeltas) {
+    /* one slot ticking once an hour: heartbeats only run when a test calls sendHeartbeat */
+    return newUseCase(
+        queueCapacity, policy, coalescingWindowInMillisecond, chartDeltas, 3_600_000, 1);
+  }
+
+  private StreamDashboardUseCase newUseCase(
+      int queueCapacity,
+      SlowConsumerPolicy policy,
+      long coalescingWindowInMillisecond,
+      boolean chartDeltas,
+      long heartbeatIntervalInMillisecond,
+      int heartbeatWheelSlots) {
+    return new StreamDashboardUseCase(
+        objectMapper,
+        new LocalDashboardEventTransport(),
+        getDashboardChartsUseCase,
+        warehouseAccessService,
+        permissionMatrix,
+        sysconfigRegistry,
+        meterRegistry,
+        taskScheduler,
+        queueCapacity,
+        policy,
+        coalescingWindowInMillisecond,
+        chartDeltas,
+        8,
+        heartbeatIntervalInMillisecond,
+        heartbeatWheelSlots,
+        MAX_IN_FLIGHT);
+  }
+
+  private DashboardSubscriber register(
+      JwtClaimDTO jwtClaimDTO, SseEmitter emitter, String lastEventId) {
+    return streamDashboardUseCase.register(
+        jwtClaimDTO, new SseDashboardConnection(emitter), lastEventId);
+  }
+
+  private static JwtClaimDTO claims(UUID userId) {
+    return claims(userId, MANAGER_ROLE);
+  }
+
+  private static JwtClaimDTO claims(UUID userId, UUID roleId) {
+    return new JwtClaimDTO(userId, "user@mail.com", roleId, "Role", "Full Name");
+  }
+
+  private static String eventId(String frame) {
+    return frame.substring(frame.indexOf("id:") + 3, frame.indexOf('\n'));
+  }
+
+  /** Records every frame but the greeting as the text that would go on the wire. */
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final List<String> frames = new CopyOnWriteArrayList<>();
+    private final CountDownLatch sent;
+
+    RecordingEmitter(int expectedFrames) {
+      this.sent = new CountDownLatch(expectedFrames);
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) {
+      StringBuilder text = new StringBuilder();
+      items.forEach(item -> text.append(item.getData()));
+      if (text.toString().startsWith(":connected")) {
+        return;
+      }
+      frames.add(text.toString());
+      sent.countDown();
+    }
+
+    boolean await() throws InterruptedException {
+      return await(5000);
+    }
+
+    boolean await(long timeoutInMillisecond) throws InterruptedException {
+      return sent.await(timeoutInMillisecond, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /** Blocks in send() until released, like a browser that stopped reading. */
+  private static class BlockingEmitter extends SseEmitter {
+
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void send(Set<DataWithMediaType> items) throws IOException {
+      sending.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+    }
   }
 }
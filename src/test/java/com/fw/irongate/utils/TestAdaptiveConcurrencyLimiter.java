@@ -0,0 +1,71 @@
+package com.fw.irongate.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TestAdaptiveConcurrencyLimiter {
+
+  @Test
+  void tryAcquire_shouldRefuse_whenLimitIsReached() {
+    /* --- Given --- */
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+    /* --- When & Then --- */
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    assertEquals(2, limiter.getInFlight());
+    limiter.release();
+    assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  void release_shouldGrowLimit_whileLatencyStaysAtBaseline() {
+    /* --- Given --- */
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 16, 2.0);
+    /* --- When --- */
+    for (int i = 0; i < 100; i++) {
+      saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    /* --- Then --- */
+    assertEquals(16, limiter.getLimit());
+  }
+
+  @Test
+  void release_shouldShrinkLimit_whenLatencyRises() {
+    /* --- Given --- */
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 1, 16, 2.0);
+    saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+    /* --- When --- */
+    /* 20x the baseline: the pool is queueing */
+    for (int i = 0; i < 20; i++) {
+      saturateAndRelease(limiter, TimeUnit.MILLISECONDS.toNanos(200));
+    }
+    /* --- Then --- */
+    assertTrue(limiter.getLimit() <= 5);
+  }
+
+  @Test
+  void constructor_shouldRejectInvalidSettings() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(4, 0, 8, 2.0));
+    assertThrows(
+        IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(4, 8, 4, 2.0));
+    assertThrows(
+        IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(4, 1, 8, 0.5));
+  }
+
+  private static void saturateAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+    int acquired = 0;
+    while (limiter.tryAcquire()) {
+      acquired++;
+    }
+    for (int i = 0; i < acquired; i++) {
+      limiter.release(latencyNanos);
+    }
+  }
+}
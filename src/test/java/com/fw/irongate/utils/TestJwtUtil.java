@@ -8,6 +8,8 @@ import static com.fw.irongate.constants.SystemConstants.JWT_CLAIM_KEY_USER_ROLE_
 import static com.fw.irongate.constants.SystemConstants.JWT_SUBJECT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -15,8 +17,11 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.fw.irongate.models.dto.JwtClaimDTO;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -113,4 +118,62 @@ class TestJwtUtil {
         IllegalArgumentException.class,
         () -> jwtUtil.generateJwt("1", "mail", "1", "role", "name"));
   }
+
+  @Test
+  void validateJwt_shouldServeRepeatedTokenFromCache() {
+    /* --- Given --- */
+    JwtUtil cachingJwtUtil = newCachingJwtUtil(100);
+    String token = newToken(cachingJwtUtil);
+    /* --- When --- */
+    JwtClaimDTO first = cachingJwtUtil.validateJwt(token);
+    JwtClaimDTO second = cachingJwtUtil.validateJwt(token);
+    /* --- Then --- */
+    assertNotNull(first);
+    assertEquals("john.doe@example.com", first.email());
+    /* Same instance means the second call skipped verification and claim parsing */
+    assertSame(first, second);
+  }
+
+  @Test
+  void validateJwt_shouldNotCacheInvalidTokens() {
+    /* --- Given --- */
+    JwtUtil cachingJwtUtil = newCachingJwtUtil(100);
+    String tampered = newToken(cachingJwtUtil) + "x";
+    /* --- When & Then --- */
+    assertNull(cachingJwtUtil.validateJwt(tampered));
+    assertEquals(
+        0, ((Map<?, ?>) ReflectionTestUtils.getField(cachingJwtUtil, "verifiedClaims")).size());
+  }
+
+  @Test
+  void validateJwt_shouldStayWithinConfiguredBound() {
+    /* --- Given --- */
+    JwtUtil cachingJwtUtil = newCachingJwtUtil(10);
+    /* --- When --- */
+    for (int i = 0; i < 50; i++) {
+      assertNotNull(cachingJwtUtil.validateJwt(newToken(cachingJwtUtil)));
+    }
+    /* --- Then --- */
+    Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(cachingJwtUtil, "verifiedClaims");
+    assertTrue(cache.size() <= 10);
+  }
+
+  private JwtUtil newCachingJwtUtil(int cacheSize) {
+    JwtUtil cachingJwtUtil =
+        new JwtUtil(JWT.require(Algorithm.HMAC256(TEST_SECRET)).withIssuer(TEST_ISSUER).build());
+    ReflectionTestUtils.setField(cachingJwtUtil, "secret", TEST_SECRET);
+    ReflectionTestUtils.setField(cachingJwtUtil, "issuer", TEST_ISSUER);
+    ReflectionTestUtils.setField(cachingJwtUtil, "expiryInMillisecond", TEST_EXPIRY_MS);
+    ReflectionTestUtils.setField(cachingJwtUtil, "claimsCacheSize", cacheSize);
+    return cachingJwtUtil;
+  }
+
+  private String newToken(JwtUtil util) {
+    return util.generateJwt(
+        UUID.randomUUID().toString(),
+        "john.doe@example.com",
+        UUID.randomUUID().toString(),
+        "ROLE_ADMIN",
+        "John Doe");
+  }
 }
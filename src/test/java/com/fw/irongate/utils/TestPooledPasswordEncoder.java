@@ -0,0 +1,74 @@
+package com.fw.irongate.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class TestPooledPasswordEncoder {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private PooledPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    encoder.shutdown();
+  }
+
+  @Test
+  void encodeAndMatches_shouldRunOnPoolAndRecordTimings() {
+    /* --- Given --- */
+    encoder = new PooledPasswordEncoder(4, 2, 4, 5000, meterRegistry);
+    /* --- When --- */
+    String hash = encoder.encode("password");
+    /* --- Then --- */
+    assertTrue(hash.startsWith("$2a$04$"));
+    assertTrue(encoder.matches("password", hash));
+    assertFalse(encoder.matches("wrong", hash));
+    assertEquals(3, meterRegistry.get("irongate.password.hash_time").timer().count());
+    assertEquals(3, meterRegistry.get("irongate.password.queue_wait").timer().count());
+  }
+
+  @Test
+  void upgradeEncoding_shouldFlagHashesWithDifferentCost() {
+    /* --- Given --- */
+    encoder = new PooledPasswordEncoder(6, 1, 1, 5000, meterRegistry);
+    /* --- When & Then --- */
+    assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+    assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(8).encode("password")));
+    assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+    assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+  }
+
+  @Test
+  void matches_shouldFailFast_whenPoolAndQueueAreSaturated() {
+    /* --- Given --- */
+    /* One worker, one queue slot, cost 14 keeps the worker busy long enough */
+    encoder = new PooledPasswordEncoder(14, 1, 1, 100, meterRegistry);
+    String hash = new BCryptPasswordEncoder(14).encode("password");
+    /* --- When --- */
+    List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      attempts.add(CompletableFuture.supplyAsync(() -> encoder.matches("password", hash)));
+    }
+    /* --- Then --- */
+    long unavailable =
+        attempts.stream()
+            .filter(
+                attempt -> {
+                  CompletionException e = assertThrows(CompletionException.class, attempt::join);
+                  return e.getCause() instanceof PasswordHashingUnavailableException;
+                })
+            .count();
+    assertEquals(4, unavailable);
+  }
+}
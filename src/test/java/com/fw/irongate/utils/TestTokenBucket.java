@@ -0,0 +1,36 @@
+package com.fw.irongate.utils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TestTokenBucket {
+
+  @Test
+  void tryAcquire_shouldAllowBurstUpToCapacity_thenRefillOverTime() {
+    /* --- Given --- */
+    long now = 0;
+    TokenBucket bucket = new TokenBucket(3, 2, now);
+    /* --- When & Then --- */
+    assertTrue(bucket.tryAcquire(now));
+    assertTrue(bucket.tryAcquire(now));
+    assertTrue(bucket.tryAcquire(now));
+    assertFalse(bucket.tryAcquire(now));
+    /* 2 tokens per second: one token after half a second */
+    now += TimeUnit.MILLISECONDS.toNanos(500);
+    assertTrue(bucket.tryAcquire(now));
+    assertFalse(bucket.tryAcquire(now));
+  }
+
+  @Test
+  void isFull_shouldReportIdleBuckets() {
+    /* --- Given --- */
+    TokenBucket bucket = new TokenBucket(2, 1, 0);
+    bucket.tryAcquire(0);
+    /* --- When & Then --- */
+    assertFalse(bucket.isFull(0));
+    assertTrue(bucket.isFull(TimeUnit.SECONDS.toNanos(1)));
+  }
+}
@@ -2,6 +2,7 @@ package com.fw.irongate.web.api;
 
 import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 
 @SpringBootTest
@@ -151,4 +153,25 @@ class TestApiAuthLogin extends TestParent {
     assertEquals(user.getFullName(), jwtClaimDTO.fullName());
     deleteAll();
   }
+
+  @Test
+  void givenHashWithOutdatedCost_assertRehashedOnLogin() throws Exception {
+    /* setup */
+    SysconfigType role = createSysconfigType("ROLE", "description");
+    Sysconfig areaManager = createSysconfig(role, "AREA_MANAGER", "Area Manager");
+    String outdatedHash = new BCryptPasswordEncoder(4).encode("password");
+    User user = createUser(areaManager, "am@mail.com", outdatedHash, "full name");
+    LoginRequest request = new LoginRequest("am@mail.com", "password");
+    /* tests */
+    mockMvc
+        .perform(
+            post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+        .andExpect(status().isOk());
+    String storedHash = userRepository.findById(user.getId()).orElseThrow().getPasswordHash();
+    assertTrue(storedHash.startsWith("$2a$12$"));
+    assertTrue(bCryptPasswordEncoder.matches("password", storedHash));
+    deleteAll();
+  }
 }
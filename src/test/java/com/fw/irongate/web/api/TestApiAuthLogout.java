@@ -1,6 +1,7 @@
 package com.fw.irongate.web.api;
 
 import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
@@ -9,6 +10,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.fw.irongate.models.entities.Sysconfig;
 import com.fw.irongate.models.entities.SysconfigType;
 import com.fw.irongate.usecases.login.LoginRequest;
+import com.fw.irongate.utils.TokenDigest;
 import jakarta.servlet.http.Cookie;
 import java.util.Objects;
 import org.junit.jupiter.api.Test;
@@ -110,7 +112,9 @@ class TestApiAuthLogout extends TestParent {
             .getValue();
     assertEquals("", cookieValue2);
     assertEquals(1, revokedTokenRepository.findAll().size());
-    assertEquals(cookieValue1, revokedTokenRepository.findAll().getFirst().getJwt());
+    assertArrayEquals(
+        TokenDigest.of(cookieValue1).toBytes(),
+        revokedTokenRepository.findAll().getFirst().getJwtDigest());
     deleteAll();
   }
 
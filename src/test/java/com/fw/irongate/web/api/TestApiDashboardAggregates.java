@@ -0,0 +1,170 @@
+package com.fw.irongate.web.api;
+
+import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fw.irongate.models.dto.ChartDataDTO;
+import com.fw.irongate.models.dto.DashboardChartsDTO;
+import com.fw.irongate.models.entities.Order;
+import com.fw.irongate.models.entities.Product;
+import com.fw.irongate.models.entities.Stock;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.SysconfigType;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.enums.OrderStatus;
+import com.fw.irongate.models.enums.ShipmentStatus;
+import jakarta.servlet.http.Cookie;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The charts read from <code>dashboard_aggregates</code>: a rebuild over several chunks gives the
+ * same numbers as the orders and shipments themselves, and use cases keep them current.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(
+    locations = "classpath:application-test.properties",
+    properties = "dashboard_aggregates.rebuild.chunk_size=2")
+class TestApiDashboardAggregates extends TestParent {
+
+  private String jwt;
+  private Order pendingOrder;
+
+  @BeforeEach
+  void setUp() {
+    SysconfigType roleType = createSysconfigType("ROLE", "Role Type");
+    SysconfigType resourcePathType = createSysconfigType("RESOURCE_PATH", "Resource Path Type");
+    Sysconfig roleAreaManager = createSysconfig(roleType, "AREA_MANAGER", "Area Manager");
+    createPermission(
+        roleAreaManager,
+        createSysconfig(resourcePathType, "API_DASHBOARD_CHARTS", "/api/dashboard/charts"));
+    createPermission(
+        roleAreaManager,
+        createSysconfig(
+            resourcePathType,
+            "API_DASHBOARD_AGGREGATES_REBUILD",
+            "/api/dashboard/aggregates/rebuild"));
+    createPermission(
+        roleAreaManager,
+        createSysconfig(resourcePathType, "API_ORDER_FULFILL", "/api/order/fulfill"));
+    User areaManager = createUser(roleAreaManager, "am@example.com", "hash", "Area Manager");
+    Warehouse hachioji = createWarehouse("Hachioji", "HCJ");
+    Warehouse tachikawa = createWarehouse("Tachikawa", "TCK");
+    createWarehouseUser(hachioji, areaManager);
+    Product apple = createProduct("Apple", "SKU-APL", "Desc", new BigDecimal("10.00"));
+    Product banana = createProduct("Banana", "SKU-BNN", "Desc", new BigDecimal("10.00"));
+    Stock appleStock = createStock(hachioji, apple, 100, 0);
+    /* one order still pending, two completed */
+    pendingOrder =
+        createOrder(hachioji, "Customer 1", OrderStatus.PENDING.name(), new BigDecimal("30.00"));
+    createOrderProduct(pendingOrder, apple, 3, new BigDecimal("10.00"));
+    Order completed =
+        createOrder(hachioji, "Customer 2", OrderStatus.COMPLETED.name(), new BigDecimal("20.00"));
+    createOrderProduct(completed, banana, 2, new BigDecimal("10.00"));
+    Order otherCompleted =
+        createOrder(tachikawa, "Customer 3", OrderStatus.COMPLETED.name(), new BigDecimal("12.50"));
+    createOrderProduct(otherCompleted, apple, 1, new BigDecimal("12.50"));
+    createShipment(appleStock, tachikawa, 5, ShipmentStatus.PENDING.name(), "S-1", null);
+    createShipment(appleStock, tachikawa, 5, ShipmentStatus.DELIVERED.name(), "S-2", "driver");
+    createShipment(appleStock, tachikawa, 5, ShipmentStatus.PENDING.name(), "S-3", null);
+    jwt =
+        jwtUtil.generateJwt(
+            areaManager.getId().toString(),
+            areaManager.getEmail(),
+            areaManager.getRole().getId().toString(),
+            areaManager.getRole().getValue(),
+            areaManager.getFullName());
+  }
+
+  @AfterEach
+  void tearDown() {
+    deleteAll();
+  }
+
+  @Test
+  void rebuild_ShouldAggregateEveryChunk() throws Exception {
+    /* --- When --- */
+    rebuild();
+    DashboardChartsDTO charts = charts();
+    /* --- Then --- */
+    assertEquals(
+        List.of(new ChartDataDTO("COMPLETED", 2.0), new ChartDataDTO("PENDING", 1.0)),
+        charts.ordersByStatus());
+    assertEquals(
+        List.of(new ChartDataDTO("PENDING", 2.0), new ChartDataDTO("DELIVERED", 1.0)),
+        charts.shipmentsByStatus());
+    assertEquals(
+        List.of(new ChartDataDTO("Hachioji", 20.0), new ChartDataDTO("Tachikawa", 12.5)),
+        charts.top5RevenueByWarehouse());
+    assertEquals(
+        List.of(new ChartDataDTO("Banana", 2.0), new ChartDataDTO("Apple", 1.0)),
+        charts.topSellingProducts());
+  }
+
+  @Test
+  void rebuild_ShouldReplaceRows_WhenRunAgain() throws Exception {
+    /* --- Given --- */
+    rebuild();
+    DashboardChartsDTO first = charts();
+    /* --- When --- */
+    rebuild();
+    /* --- Then --- */
+    DashboardChartsDTO second = charts();
+    assertEquals(first.ordersByStatus(), second.ordersByStatus());
+    assertEquals(first.top5RevenueByWarehouse(), second.top5RevenueByWarehouse());
+    assertEquals(first.topSellingProducts(), second.topSellingProducts());
+  }
+
+  @Test
+  void fulfill_ShouldUpdateAggregatesInItsTransaction() throws Exception {
+    /* --- Given --- */
+    rebuild();
+    /* --- When --- */
+    mockMvc
+        .perform(
+            patch("/api/order/fulfill")
+                .cookie(new Cookie(COOKIE_NAME, jwt))
+                .param("id", pendingOrder.getId().toString()))
+        .andExpect(status().isOk());
+    /* --- Then: the pending bar is gone, the sale is booked --- */
+    DashboardChartsDTO charts = charts();
+    assertEquals(List.of(new ChartDataDTO("COMPLETED", 3.0)), charts.ordersByStatus());
+    assertEquals(
+        List.of(new ChartDataDTO("Hachioji", 50.0), new ChartDataDTO("Tachikawa", 12.5)),
+        charts.top5RevenueByWarehouse());
+    assertEquals(
+        List.of(new ChartDataDTO("Apple", 4.0), new ChartDataDTO("Banana", 2.0)),
+        charts.topSellingProducts());
+  }
+
+  private void rebuild() throws Exception {
+    mockMvc
+        .perform(post("/api/dashboard/aggregates/rebuild").cookie(new Cookie(COOKIE_NAME, jwt)))
+        .andExpect(status().isOk());
+  }
+
+  private DashboardChartsDTO charts() throws Exception {
+    return objectMapper.readValue(
+        mockMvc
+            .perform(get("/api/dashboard/charts").cookie(new Cookie(COOKIE_NAME, jwt)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(),
+        DashboardChartsDTO.class);
+  }
+}
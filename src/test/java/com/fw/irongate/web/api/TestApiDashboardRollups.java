@@ -0,0 +1,251 @@
+package com.fw.irongate.web.api;
+
+import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fw.irongate.models.dto.DashboardRollupsDTO;
+import com.fw.irongate.models.dto.OrderRollupDTO;
+import com.fw.irongate.models.dto.ProductRollupDTO;
+import com.fw.irongate.models.entities.Order;
+import com.fw.irongate.models.entities.Product;
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.SysconfigType;
+import com.fw.irongate.models.entities.User;
+import com.fw.irongate.models.entities.Warehouse;
+import com.fw.irongate.models.enums.OrderStatus;
+import com.fw.irongate.models.enums.RollupGranularity;
+import com.fw.irongate.usecases.compact_rollups.CompactRollupsUseCase;
+import jakarta.servlet.http.Cookie;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Orders book into the current hour of the rollups as they change, and compaction folds old hours
+ * into days without changing what a range adds up to.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(locations = "classpath:application-test.properties")
+class TestApiDashboardRollups extends TestParent {
+
+  @Autowired private CompactRollupsUseCase compactRollupsUseCase;
+  @Autowired private TransactionTemplate transactionTemplate;
+  private String jwt;
+  private Warehouse hachioji;
+  private Product apple;
+  private Order pendingOrder;
+
+  @BeforeEach
+  void setUp() {
+    SysconfigType roleType = createSysconfigType("ROLE", "Role Type");
+    SysconfigType resourcePathType = createSysconfigType("RESOURCE_PATH", "Resource Path Type");
+    Sysconfig roleAreaManager = createSysconfig(roleType, "AREA_MANAGER", "Area Manager");
+    createPermission(
+        roleAreaManager,
+        createSysconfig(resourcePathType, "API_DASHBOARD_ROLLUPS", "/api/dashboard/rollups"));
+    createPermission(
+        roleAreaManager,
+        createSysconfig(resourcePathType, "API_ORDER_FULFILL", "/api/order/fulfill"));
+    User areaManager = createUser(roleAreaManager, "am@example.com", "hash", "Area Manager");
+    hachioji = createWarehouse("Hachioji", "HCJ");
+    createWarehouseUser(hachioji, areaManager);
+    apple = createProduct("Apple", "SKU-APL", "Desc", new BigDecimal("10.00"));
+    createStock(hachioji, apple, 100, 0);
+    pendingOrder =
+        createOrder(hachioji, "Customer 1", OrderStatus.PENDING.name(), new BigDecimal("30.00"));
+    createOrderProduct(pendingOrder, apple, 3, new BigDecimal("10.00"));
+    jwt =
+        jwtUtil.generateJwt(
+            areaManager.getId().toString(),
+            areaManager.getEmail(),
+            areaManager.getRole().getId().toString(),
+            areaManager.getRole().getValue(),
+            areaManager.getFullName());
+  }
+
+  @AfterEach
+  void tearDown() {
+    deleteAll();
+  }
+
+  @Test
+  void fulfill_ShouldBookTheOrderAndItsProducts_InTheCurrentHour() throws Exception {
+    /* --- Given --- */
+    Instant hour = RollupGranularity.HOUR.bucketOf(Instant.now());
+    /* --- When --- */
+    mockMvc
+        .perform(
+            patch("/api/order/fulfill")
+                .cookie(new Cookie(COOKIE_NAME, jwt))
+                .param("id", pendingOrder.getId().toString()))
+        .andExpect(status().isOk());
+    DashboardRollupsDTO rollups = rollups(hour.minus(Duration.ofHours(1)), "HOUR");
+    /* --- Then: a later hour is possible if the clock just turned --- */
+    OrderRollupDTO completed = rollups.orders().getFirst();
+    assertTrue(!completed.bucket().isBefore(hour));
+    assertEquals(
+        new OrderRollupDTO(
+            completed.bucket(),
+            hachioji.getId(),
+            "Hachioji",
+            OrderStatus.COMPLETED.name(),
+            1,
+            new BigDecimal("30.00")),
+        completed);
+    assertEquals(
+        List.of(
+            new ProductRollupDTO(
+                completed.bucket(), apple.getId(), "Apple", 3, new BigDecimal("30.00"))),
+        rollups.products());
+  }
+
+  @Test
+  void compact_ShouldFoldOldHoursIntoDays_KeepingTheTotals() throws Exception {
+    /* --- Given: two hours of a day long past, and one of the day after --- */
+    Instant day = RollupGranularity.DAY.bucketOf(Instant.now().minus(Duration.ofDays(10)));
+    addOrders(day.plus(Duration.ofHours(3)), 2, "20.00");
+    addOrders(day.plus(Duration.ofHours(15)), 1, "5.50");
+    addOrders(day.plus(Duration.ofHours(30)), 4, "40.00");
+    DashboardRollupsDTO before = rollups(day, "DAY");
+    /* --- When --- */
+    compactRollupsUseCase.handle();
+    /* --- Then --- */
+    DashboardRollupsDTO after = rollups(day, "DAY");
+    assertEquals(before.orders(), after.orders());
+    assertEquals(2, after.orders().size());
+    assertEquals(3, after.orders().getFirst().orders());
+    assertEquals(new BigDecimal("25.50"), after.orders().getFirst().revenue());
+    assertTrue(
+        orderRollupRepository.findAll().stream()
+            .allMatch(r -> r.getGranularity().equals(RollupGranularity.DAY.name())));
+    /* the compacted day answers hourly requests as one bucket */
+    assertEquals(day, rollups(day, "HOUR").orders().getFirst().bucket());
+  }
+
+  @Test
+  void compact_ShouldFoldEveryHourOnce_WhenRunConcurrently() throws Exception {
+    /* --- Given --- */
+    Instant day = RollupGranularity.DAY.bucketOf(Instant.now().minus(Duration.ofDays(10)));
+    addOrders(day.plus(Duration.ofHours(3)), 2, "20.00");
+    addOrders(day.plus(Duration.ofHours(15)), 1, "5.50");
+    CountDownLatch start = new CountDownLatch(1);
+    /* --- When: two nodes compact at the same moment --- */
+    try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+      List<Future<Integer>> compactions = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        compactions.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return compactRollupsUseCase.handle();
+                }));
+      }
+      start.countDown();
+      int compacted = 0;
+      for (Future<Integer> compaction : compactions) {
+        compacted += compaction.get(10, TimeUnit.SECONDS);
+      }
+      /* --- Then --- */
+      assertEquals(2, compacted);
+    }
+    OrderRollupDTO folded = rollups(day, "DAY").orders().getFirst();
+    assertEquals(3, folded.orders());
+    assertEquals(new BigDecimal("25.50"), folded.revenue());
+  }
+
+  @Test
+  void getRollups_ShouldLeaveOutCompactedDays_ThatTheRangeCoversInPart() throws Exception {
+    /* --- Given: three compacted days --- */
+    Instant day = RollupGranularity.DAY.bucketOf(Instant.now().minus(Duration.ofDays(10)));
+    Instant nextDay = day.plus(Duration.ofDays(1));
+    addOrders(day.plus(Duration.ofHours(3)), 2, "20.00");
+    addOrders(nextDay.plus(Duration.ofHours(6)), 4, "40.00");
+    addOrders(nextDay.plus(Duration.ofDays(1)), 1, "5.50");
+    compactRollupsUseCase.handle();
+    /* --- When: from mid-day to mid-day --- */
+    Instant from = day.plus(Duration.ofHours(12));
+    Instant to = nextDay.plus(Duration.ofHours(36));
+    DashboardRollupsDTO rollups = rollups(from, to, "HOUR");
+    /* --- Then: only the day in between --- */
+    assertEquals(from, rollups.from());
+    assertEquals(to, rollups.to());
+    assertEquals(1, rollups.orders().size());
+    assertEquals(nextDay, rollups.orders().getFirst().bucket());
+    assertEquals(4, rollups.orders().getFirst().orders());
+  }
+
+  @Test
+  void getRollups_ShouldReturnBadRequest_WhenRangeIsEmptyOrGranularityUnknown() throws Exception {
+    Instant now = Instant.now();
+    mockMvc
+        .perform(
+            get("/api/dashboard/rollups")
+                .cookie(new Cookie(COOKIE_NAME, jwt))
+                .param("from", now.toString())
+                .param("to", now.minus(Duration.ofHours(1)).toString()))
+        .andExpect(status().isBadRequest());
+    mockMvc
+        .perform(
+            get("/api/dashboard/rollups")
+                .cookie(new Cookie(COOKIE_NAME, jwt))
+                .param("from", now.minus(Duration.ofHours(1)).toString())
+                .param("granularity", "WEEK"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private void addOrders(Instant hour, long orders, String revenue) {
+    transactionTemplate.executeWithoutResult(
+        status ->
+            orderRollupRepository.add(
+                RollupGranularity.HOUR.name(),
+                hour,
+                hachioji.getId(),
+                OrderStatus.PENDING.name(),
+                orders,
+                new BigDecimal(revenue),
+                "test"));
+  }
+
+  private DashboardRollupsDTO rollups(Instant from, String granularity) throws Exception {
+    return rollups(from, Instant.now(), granularity);
+  }
+
+  private DashboardRollupsDTO rollups(Instant from, Instant to, String granularity)
+      throws Exception {
+    return objectMapper.readValue(
+        mockMvc
+            .perform(
+                get("/api/dashboard/rollups")
+                    .cookie(new Cookie(COOKIE_NAME, jwt))
+                    .param("from", from.toString())
+                    .param("to", to.toString())
+                    .param("granularity", granularity))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString(),
+        DashboardRollupsDTO.class);
+  }
+}
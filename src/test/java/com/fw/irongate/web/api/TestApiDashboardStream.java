@@ -28,9 +28,9 @@ class TestApiDashboardStream {
     UUID userId = UUID.randomUUID();
     JwtClaimDTO jwtClaimDTO =
         new JwtClaimDTO(userId, "test@email.com", UUID.randomUUID(), "ROLE_USER", "Test User");
-    when(streamDashboardUseCase.subscribe(userId.toString())).thenReturn(expectedEmitter);
+    when(streamDashboardUseCase.subscribe(jwtClaimDTO, "abc-7")).thenReturn(expectedEmitter);
     /* 2. Act */
-    ResponseEntity<SseEmitter> result = dashboardController.stream(jwtClaimDTO);
+    ResponseEntity<SseEmitter> result = dashboardController.stream(jwtClaimDTO, "abc-7");
     /* 3. Assert */
     assertNotNull(result);
     assertEquals(expectedEmitter, result.getBody());
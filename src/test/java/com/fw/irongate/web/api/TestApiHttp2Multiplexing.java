@@ -0,0 +1,189 @@
+package com.fw.irongate.web.api;
+
+import static com.fw.irongate.constants.SystemConstants.COOKIE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fw.irongate.models.entities.Sysconfig;
+import com.fw.irongate.models.entities.SysconfigType;
+import com.fw.irongate.usecases.login.LoginRequest;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the real Tomcat connector (h2c, as configured in application.yml) and checks that many open
+ * dashboard streams and the API and static asset requests of the same user share one HTTP/2
+ * connection without the requests queueing behind the streams.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource("classpath:application-test.properties")
+class TestApiHttp2Multiplexing extends TestParent {
+
+  /* well past the six connections per origin a browser allows over HTTP/1.1 */
+  private static final Logger log = LoggerFactory.getLogger(TestApiHttp2Multiplexing.class);
+  private static final int OPEN_STREAMS = 50;
+  private static final int REQUESTS = 10;
+
+  @LocalServerPort private int port;
+  @Autowired private ServletWebServerApplicationContext webServerApplicationContext;
+
+  private HttpClient httpClient;
+  private String cookie;
+
+  @BeforeAll
+  void beforeAll() throws Exception {
+    SysconfigType r = createSysconfigType("ROLE", "desc");
+    SysconfigType rp = createSysconfigType("RESOURCE_PATH", "desc");
+    Sysconfig rAm = createSysconfig(r, "AREA_MANAGER", "Area Manager");
+    createPermission(rAm, createSysconfig(rp, "API_DASHBOARD_STREAM", "/api/dashboard/stream"));
+    createPermission(rAm, createSysconfig(rp, "API_DASHBOARD_CHARTS", "/api/dashboard/charts"));
+    createUser(rAm, "am@mail.com", bCryptPasswordEncoder.encode("password"), "Area Manager");
+    cookie = COOKIE_NAME + "=" + login("am@mail.com", "password");
+    /* one client keeps one connection per origin, like a browser */
+    httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+  }
+
+  @AfterAll
+  void afterAll() {
+    httpClient.close();
+    deleteAll();
+  }
+
+  @Test
+  void connector_ShouldOfferHttp2_WithTheConfiguredStreamLimit() {
+    TomcatWebServer webServer = (TomcatWebServer) webServerApplicationContext.getWebServer();
+    Connector connector = webServer.getTomcat().getConnector();
+    Http2Protocol http2Protocol =
+        (Http2Protocol)
+            Arrays.stream(connector.findUpgradeProtocols())
+                .filter(Http2Protocol.class::isInstance)
+                .findFirst()
+                .orElseThrow();
+    assertEquals(200, http2Protocol.getMaxConcurrentStreams());
+    assertTrue(
+        Arrays.stream(connector.findUpgradeProtocols())
+            .map(upgradeProtocol -> upgradeProtocol.getHttpUpgradeName(false))
+            .anyMatch("h2c"::equals));
+  }
+
+  @Test
+  void givenManyOpenStreams_assertApiAndAssetsStillAnswerPromptly_overHttp2() throws Exception {
+    /* the first request upgrades the connection, everything after it is multiplexed */
+    HttpResponse<String> first = get("/index.html");
+    assertEquals(200, first.statusCode());
+    assertEquals(HttpClient.Version.HTTP_2, first.version());
+    /* open the streams and keep them open */
+    List<CompletableFuture<HttpResponse<InputStream>>> pending = new ArrayList<>();
+    for (int i = 0; i < OPEN_STREAMS; i++) {
+      pending.add(
+          httpClient.sendAsync(
+              request("/api/dashboard/stream").header("Accept", "text/event-stream").build(),
+              HttpResponse.BodyHandlers.ofInputStream()));
+    }
+    List<HttpResponse<InputStream>> streams = new ArrayList<>();
+    for (CompletableFuture<HttpResponse<InputStream>> future : pending) {
+      streams.add(future.get(10, TimeUnit.SECONDS));
+    }
+    try {
+      for (HttpResponse<InputStream> stream : streams) {
+        assertEquals(200, stream.statusCode());
+        assertEquals(HttpClient.Version.HTTP_2, stream.version());
+        assertTrue(
+            stream.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+      }
+      /* measure API and static asset latency while all streams are open */
+      long[] latencies = new long[REQUESTS * 2];
+      for (int i = 0; i < REQUESTS; i++) {
+        latencies[2 * i] = timed("/api/dashboard/charts");
+        latencies[2 * i + 1] = timed("/assets/" + asset());
+      }
+      Arrays.sort(latencies);
+      long p50 = latencies[latencies.length / 2];
+      long max = latencies[latencies.length - 1];
+      log.info("HTTP/2 with {} open streams: p50 {} ms, max {} ms", OPEN_STREAMS, p50, max);
+      /* over HTTP/1.1 with six connections these would not complete at all */
+      assertTrue(max < 2000, "slowest request took " + max + " ms");
+    } finally {
+      for (HttpResponse<InputStream> stream : streams) {
+        stream.body().close();
+      }
+    }
+  }
+
+  private long timed(String path) throws Exception {
+    long startedAt = System.nanoTime();
+    HttpResponse<String> response = get(path);
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    assertEquals(200, response.statusCode(), path);
+    assertEquals(HttpClient.Version.HTTP_2, response.version(), path);
+    return elapsed;
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    return httpClient.send(request(path).build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+        .timeout(Duration.ofSeconds(10))
+        .header("Cookie", cookie);
+  }
+
+  private String asset() throws Exception {
+    /* the bundle name carries a content hash, take whichever the build produced */
+    String index = get("/index.html").body();
+    int start = index.indexOf("/assets/") + "/assets/".length();
+    return index.substring(start, index.indexOf('"', start));
+  }
+
+  private String login(String email, String password) throws Exception {
+    LoginRequest request = new LoginRequest(email, password);
+    return Objects.requireNonNull(
+            mockMvc
+                .perform(
+                    post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(COOKIE_NAME))
+                .andReturn()
+                .getResponse()
+                .getCookie(COOKIE_NAME))
+        .getValue();
+  }
+}
@@ -12,10 +12,13 @@ import com.fw.irongate.models.entities.SysconfigType;
 import com.fw.irongate.models.entities.User;
 import com.fw.irongate.models.entities.Warehouse;
 import com.fw.irongate.models.entities.WarehouseUser;
+import com.fw.irongate.repositories.DashboardAggregateRepository;
 import com.fw.irongate.repositories.OrderProductRepository;
 import com.fw.irongate.repositories.OrderRepository;
+import com.fw.irongate.repositories.OrderRollupRepository;
 import com.fw.irongate.repositories.PermissionRepository;
 import com.fw.irongate.repositories.ProductRepository;
+import com.fw.irongate.repositories.ProductRollupRepository;
 import com.fw.irongate.repositories.RevokedTokenRepository;
 import com.fw.irongate.repositories.ShipmentRepository;
 import com.fw.irongate.repositories.StockRepository;
@@ -27,7 +30,7 @@ import com.fw.irongate.repositories.WarehouseUserRepository;
 import com.fw.irongate.utils.JwtUtil;
 import java.math.BigDecimal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
 @SuppressWarnings({"SameParameterValue", "UnusedReturnValue"})
@@ -45,13 +48,19 @@ public abstract class TestParent {
   @Autowired protected ShipmentRepository shipmentRepository;
   @Autowired protected OrderRepository orderRepository;
   @Autowired protected OrderProductRepository orderProductRepository;
+  @Autowired protected DashboardAggregateRepository dashboardAggregateRepository;
+  @Autowired protected OrderRollupRepository orderRollupRepository;
+  @Autowired protected ProductRollupRepository productRollupRepository;
   @Autowired protected JwtUtil jwtUtil;
 
   @Autowired protected MockMvc mockMvc;
-  @Autowired protected BCryptPasswordEncoder bCryptPasswordEncoder;
+  @Autowired protected PasswordEncoder bCryptPasswordEncoder;
   @Autowired protected ObjectMapper objectMapper;
 
   protected void deleteAll() {
+    dashboardAggregateRepository.deleteAll();
+    orderRollupRepository.deleteAll();
+    productRollupRepository.deleteAll();
     shipmentRepository.deleteAll();
     orderProductRepository.deleteAll();
     orderRepository.deleteAll();